@@ -12,4 +12,10 @@ public class AuthUtil {
         assert authentication != null;
         return authentication.getName();
     }
+
+    public Long getUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assert authentication != null;
+        return ((UserPrincipal) authentication.getPrincipal()).getUserId();
+    }
 }
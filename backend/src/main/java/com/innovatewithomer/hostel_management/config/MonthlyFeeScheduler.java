@@ -2,6 +2,8 @@ package com.innovatewithomer.hostel_management.config;
 
 
 import com.innovatewithomer.hostel_management.services.FeeGenerationService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +16,12 @@ public class MonthlyFeeScheduler {
         this.feeGenerationService = feeGenerationService;
     }
 
+    // Catch up on a month that started while the server was down, or resume a run it interrupted
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateMissedFees() {
+        feeGenerationService.generateMonthlyFees();
+    }
+
     // Run at 00:00 on the 1st of every month
     @Scheduled(cron = "0 0 0 1 * ?")
     public void generateMonthlyFees() {
@@ -0,0 +1,29 @@
+package com.innovatewithomer.hostel_management.config;
+
+import com.innovatewithomer.hostel_management.services.OverdueFeeSweeper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class OverdueFeeScheduler {
+
+    private final OverdueFeeSweeper overdueFeeSweeper;
+
+    public OverdueFeeScheduler(OverdueFeeSweeper overdueFeeSweeper) {
+        this.overdueFeeSweeper = overdueFeeSweeper;
+    }
+
+    // Catch up on days missed while the server was down
+    @EventListener(ApplicationReadyEvent.class)
+    public void sweepMissedDays() {
+        overdueFeeSweeper.sweep();
+    }
+
+    // Run at 00:10 every day
+    @Scheduled(cron = "0 10 0 * * ?")
+    public void sweepOverdueFees() {
+        overdueFeeSweeper.sweep();
+    }
+}
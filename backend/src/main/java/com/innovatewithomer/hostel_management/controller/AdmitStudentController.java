@@ -1,18 +1,24 @@
 package com.innovatewithomer.hostel_management.controller;
 
 import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import com.innovatewithomer.hostel_management.dto.StudentListItem;
 import com.innovatewithomer.hostel_management.dto.StudentRequest;
 import com.innovatewithomer.hostel_management.entities.Hostel;
 import com.innovatewithomer.hostel_management.entities.Student;
 import com.innovatewithomer.hostel_management.entities.User;
 import com.innovatewithomer.hostel_management.repositories.StudentRepository;
 import com.innovatewithomer.hostel_management.repositories.UserRepository;
+import com.innovatewithomer.hostel_management.services.FeeGenerationService;
+import com.innovatewithomer.hostel_management.services.paging.NdjsonStreamer;
+import com.innovatewithomer.hostel_management.services.paging.PageQuery;
 import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @RestController
@@ -22,11 +28,16 @@ public class AdmitStudentController {
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
     private final EntityManager entityManager;
+    private final FeeGenerationService feeGenerationService;
+    private final NdjsonStreamer ndjsonStreamer;
 
-    public AdmitStudentController(UserRepository userRepository, StudentRepository studentRepository, EntityManager entityManager) {
+    public AdmitStudentController(UserRepository userRepository, StudentRepository studentRepository, EntityManager entityManager, FeeGenerationService feeGenerationService,
+                                  NdjsonStreamer ndjsonStreamer) {
         this.userRepository = userRepository;
         this.studentRepository = studentRepository;
         this.entityManager = entityManager;
+        this.feeGenerationService = feeGenerationService;
+        this.ndjsonStreamer = ndjsonStreamer;
     }
 
     @PostMapping("/{userId}")
@@ -51,17 +62,29 @@ public class AdmitStudentController {
         student.setGuardianPhone(request.getGuardianPhoneNumber());
         student.setHostel(hostel);
 
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        feeGenerationService.generateForStudent(saved);
+        return saved;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public CursorPage<StudentListItem> getAllStudents(@RequestParam Long hostelId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(
+                studentRepository.findListByHostel(hostelId, page.getAfterId(), page.fetchLimit()),
+                StudentListItem::getId);
     }
 
-    @GetMapping
-    public List<Student> getAllStudents(@RequestParam Long hostelId) {
-        return studentRepository.findAllByHostel_Id(hostelId);
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStudents(@RequestParam Long hostelId) {
+        return ndjsonStreamer.stream(() -> studentRepository.streamListByHostel(hostelId));
     }
 
     @GetMapping("/{studentId}")
     public Student getStudent(@PathVariable Long studentId) {
-        return studentRepository.findById(studentId)
+        return studentRepository.findWithUserById(studentId)
                 .orElseThrow(()-> new RuntimeException("Student not found"));
     }
 
@@ -1,16 +1,20 @@
 package com.innovatewithomer.hostel_management.controller;
 
 import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.dto.AllocationHistoryItem;
+import com.innovatewithomer.hostel_management.dto.BulkAllocationRequest;
+import com.innovatewithomer.hostel_management.dto.BulkAllocationResult;
+import com.innovatewithomer.hostel_management.dto.CursorPage;
 import com.innovatewithomer.hostel_management.entities.Allocation;
-import com.innovatewithomer.hostel_management.entities.Room;
-import com.innovatewithomer.hostel_management.entities.Student;
 import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
-import com.innovatewithomer.hostel_management.repositories.RoomRepository;
-import com.innovatewithomer.hostel_management.repositories.StudentRepository;
+import com.innovatewithomer.hostel_management.services.AllocationService;
+import com.innovatewithomer.hostel_management.services.paging.NdjsonStreamer;
+import com.innovatewithomer.hostel_management.services.paging.PageQuery;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,13 +22,13 @@ import java.util.List;
 @RequestMapping("/api/admin/allocations")
 public class AllocationController {
     private final AllocationRepository allocationRepository;
-    private final RoomRepository roomRepository;
-    private final StudentRepository studentRepository;
+    private final AllocationService allocationService;
+    private final NdjsonStreamer ndjsonStreamer;
 
-    public AllocationController(AllocationRepository allocationRepository, RoomRepository roomRepository, StudentRepository studentRepository) {
+    public AllocationController(AllocationRepository allocationRepository, AllocationService allocationService, NdjsonStreamer ndjsonStreamer) {
         this.allocationRepository = allocationRepository;
-        this.roomRepository = roomRepository;
-        this.studentRepository = studentRepository;
+        this.allocationService = allocationService;
+        this.ndjsonStreamer = ndjsonStreamer;
     }
 
     @GetMapping
@@ -32,9 +36,21 @@ public class AllocationController {
         return allocationRepository.countByRoom_Hostel_IdAndActiveTrue(hostelId);
     }
 
-    @GetMapping("/history")
-    public List<Allocation> getAllocationHistory(@RequestParam Long hostelId) {
-        return allocationRepository.findByStudent_Hostel_Id(hostelId);
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CursorPage<AllocationHistoryItem> getAllocationHistory(@RequestParam Long hostelId,
+                                                                  @RequestParam(required = false) Boolean active,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(
+                allocationRepository.findHistoryByHostel(hostelId, active, page.getAfterId(), page.fetchLimit()),
+                AllocationHistoryItem::getId);
+    }
+
+    @GetMapping(value = "/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllocationHistory(@RequestParam Long hostelId,
+                                                                         @RequestParam(required = false) Boolean active) {
+        return ndjsonStreamer.stream(() -> allocationRepository.streamHistoryByHostel(hostelId, active));
     }
 
     @PostMapping("/student/{studentId}/room/{roomId}/bed/{bedNumber}")
@@ -44,42 +60,12 @@ public class AllocationController {
             @PathVariable int bedNumber,
             @RequestParam Long hostelId
     ) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(()-> new RuntimeException("Student not found"));
-
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(()-> new RuntimeException("Room not found"));
-
-        if (bedNumber < 1 || bedNumber > room.getCapacity()) {
-            throw new RuntimeException("Invalid bed number for this room");
-        }
-
-        if (allocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue(studentId, hostelId).isPresent()) {
-            throw new RuntimeException("Student already has an active allocation");
-        }
-
-        if (allocationRepository.findByRoomIdAndRoom_Hostel_IdAndBedNumberAndActiveTrue(roomId, hostelId, bedNumber).isPresent()) {
-            throw new RuntimeException("Bed already occupied");
-        }
-
-        Allocation allocation = new Allocation();
-        allocation.setStudent(student);
-        allocation.setRoom(room);
-        allocation.setBedNumber(bedNumber);
-        allocation.setActive(true);
-
-        return allocationRepository.save(allocation);
+        return allocationService.allocate(studentId, roomId, bedNumber, hostelId);
     }
 
     @PostMapping("/deallocate/{allocationId}")
     public String deAllocate(@PathVariable Long allocationId) {
-        Allocation allocation = allocationRepository.findById(allocationId)
-                .orElseThrow(() -> new RuntimeException("Allocation not found"));
-
-        allocation.setActive(false);
-        allocationRepository.save(allocation);
-
-
+        allocationService.deallocate(allocationId);
         return "Room deallocated successfully";
     }
 
@@ -112,62 +98,27 @@ public class AllocationController {
             @PathVariable Long roomId,
             @RequestParam Long hostelId
     ) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        if (allocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue(studentId, hostelId).isPresent()) {
-            throw new RuntimeException("Student already has a room");
-        }
-
-        List<Allocation> activeAllocations = allocationRepository.findByRoomIdAndActiveTrue(roomId);
-
-        if (activeAllocations.size() >= room.getCapacity()) {
-            throw new RuntimeException("Room is full");
-        }
-
-        boolean[] occupied = new boolean[room.getCapacity() + 1];
-
-        for (Allocation a : activeAllocations) {
-            occupied[a.getBedNumber()] = true;
-        }
-
-        int freeBed = -1;
-        for (int i = 1; i <= room.getCapacity(); i++) {
-            if (!occupied[i]) {
-                freeBed = i;
-                break;
-            }
-        }
+        return allocationService.allocate(studentId, roomId, null, hostelId);
+    }
 
-        if (freeBed == -1) {
-            throw new RuntimeException("No free bed available");
+    @PostMapping("/bulk")
+    public List<BulkAllocationResult> allocateBulk(
+            @RequestBody BulkAllocationRequest request,
+            @RequestParam Long hostelId
+    ) {
+        if (request.getStudentIds() == null || request.getStudentIds().isEmpty()) {
+            throw new RuntimeException("No students to allocate");
         }
-
-        Allocation allocation = new Allocation();
-        allocation.setStudent(student);
-        allocation.setRoom(room);
-        allocation.setBedNumber(freeBed);
-        allocation.setActive(true);
-        return allocationRepository.save(allocation);
+        return allocationService.allocateBulk(request.getStudentIds(), request.getStrategy(), request.getBlock(), hostelId);
     }
 
-    @Transactional
     @PostMapping("/transfer/student/{studentId}/room/{roomId}")
     public Allocation transferRoom(
             @PathVariable Long studentId,
             @PathVariable Long roomId,
             @RequestParam Long hostelId
     ) {
-        allocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue(studentId, hostelId)
-                .ifPresent(existing -> {
-                    existing.setActive(false);
-                    allocationRepository.save(existing);
-                });
-
-        return autoAllocate(studentId, roomId,  hostelId);
+        return allocationService.transfer(studentId, roomId, hostelId);
     }
 
 
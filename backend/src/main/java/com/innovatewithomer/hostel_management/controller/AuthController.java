@@ -3,6 +3,7 @@ package com.innovatewithomer.hostel_management.controller;
 import com.innovatewithomer.hostel_management.config.UserPrincipal;
 import com.innovatewithomer.hostel_management.dto.LoginRequest;
 import com.innovatewithomer.hostel_management.dto.LoginResponse;
+import com.innovatewithomer.hostel_management.dto.RefreshRequest;
 import com.innovatewithomer.hostel_management.dto.SignupRequest;
 import com.innovatewithomer.hostel_management.dto.SignupResponse;
 import com.innovatewithomer.hostel_management.entities.EmailVerificationToken;
@@ -11,67 +12,106 @@ import com.innovatewithomer.hostel_management.entities.User;
 import com.innovatewithomer.hostel_management.repositories.EmailVerificationTokenRepository;
 import com.innovatewithomer.hostel_management.repositories.UserRepository;
 import com.innovatewithomer.hostel_management.security.JwtUtil;
+import com.innovatewithomer.hostel_management.security.LoginThrottle;
+import com.innovatewithomer.hostel_management.security.PasswordCheckExecutor;
+import com.innovatewithomer.hostel_management.services.AuthTokenService;
 import com.innovatewithomer.hostel_management.services.MailService;
+import io.jsonwebtoken.Claims;
 import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mail.MailSender;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
-    private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailVerificationTokenRepository emailVerificationTokenRepository;
     private final MailService mailService;
     private final MailSender mailSender;
+    private final AuthTokenService authTokenService;
+    private final LoginThrottle loginThrottle;
+    private final PasswordCheckExecutor passwordCheckExecutor;
+    private final Executor requestExecutor;
+    private final String unknownUserHash;
 
     public AuthController(
-            AuthenticationManager authenticationManager,
             JwtUtil jwtUtil,
-            UserRepository userRepository, PasswordEncoder passwordEncoder, EntityManager entityManager, EmailVerificationTokenRepository emailVerificationTokenRepository, MailService mailService, MailSender mailSender
+            UserRepository userRepository, PasswordEncoder passwordEncoder, EntityManager entityManager, EmailVerificationTokenRepository emailVerificationTokenRepository, MailService mailService, MailSender mailSender,
+            AuthTokenService authTokenService,
+            LoginThrottle loginThrottle,
+            PasswordCheckExecutor passwordCheckExecutor,
+            @Qualifier("applicationTaskExecutor") Executor requestExecutor
     ) {
-        this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailVerificationTokenRepository = emailVerificationTokenRepository;
         this.mailService = mailService;
         this.mailSender = mailSender;
+        this.authTokenService = authTokenService;
+        this.loginThrottle = loginThrottle;
+        this.passwordCheckExecutor = passwordCheckExecutor;
+        this.requestExecutor = requestExecutor;
+        this.unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
+    // The user is looked up once, on the request executor; only the bcrypt comparison runs on the
+    // password pool, and the tokens are issued back on the request executor.
     @PostMapping("/login")
-    public LoginResponse login(@RequestBody LoginRequest loginRequest) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getEmail(),
-                        loginRequest.getPassword()
-                )
-        );
+    public CompletableFuture<LoginResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        loginThrottle.check(loginRequest.getEmail(), request.getRemoteAddr());
+
+        return CompletableFuture.supplyAsync(() -> userRepository.findByEmail(loginRequest.getEmail()), requestExecutor)
+                .thenCompose(user -> passwordCheckExecutor.submit(() -> checkPassword(user, loginRequest.getPassword())))
+                .thenApplyAsync(authTokenService::issue, requestExecutor);
+    }
 
-        User user = userRepository.findByEmail(loginRequest.getEmail()).orElseThrow(()->new RuntimeException("User not found"));
+    private User checkPassword(Optional<User> found, String password) {
+        // Unknown emails cost a hash too, so the response time does not tell which emails exist
+        String hash = found.map(User::getPassword).orElse(unknownUserHash);
+        if (!passwordEncoder.matches(password, hash) || found.isEmpty()) {
+            throw new BadCredentialsException("Bad credentials");
+        }
 
+        User user = found.get();
         if (!user.isActive()) {
             throw new RuntimeException("Account is disabled");
         }
+        return user;
+    }
 
-        String token = jwtUtil.generateToken(
-                user.getEmail(),
-                user.getRole().name()
-        );
+    @PostMapping("/refresh")
+    public LoginResponse refresh(@RequestBody RefreshRequest refreshRequest) {
+        return authTokenService.refresh(refreshRequest.getRefreshToken());
+    }
 
-        return new LoginResponse(token, user.getRole().name());
+    @PostMapping("/logout")
+    public void logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                       @RequestBody(required = false) RefreshRequest refreshRequest) {
+        Claims claims = authorization != null && authorization.startsWith("Bearer ")
+                ? jwtUtil.verify(authorization.substring(7)).orElse(null)
+                : null;
+        authTokenService.logout(claims, refreshRequest != null ? refreshRequest.getRefreshToken() : null);
     }
 
+    // The verification email is queued in the same transaction, so it only goes out if the account was saved
+    @Transactional
     @PostMapping("/signup")
     public SignupResponse signup(@RequestBody SignupRequest signupRequest) {
 
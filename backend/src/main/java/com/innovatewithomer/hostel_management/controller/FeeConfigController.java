@@ -3,6 +3,8 @@ package com.innovatewithomer.hostel_management.controller;
 import com.innovatewithomer.hostel_management.entities.FeeConfig;
 import com.innovatewithomer.hostel_management.entities.Hostel;
 import com.innovatewithomer.hostel_management.repositories.FeeConfigRepository;
+import com.innovatewithomer.hostel_management.services.FeeConfigResolver;
+import com.innovatewithomer.hostel_management.services.FeeGenerationService;
 import jakarta.persistence.EntityManager;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,13 +16,19 @@ public class FeeConfigController {
 
     private final FeeConfigRepository feeConfigRepository;
     private final EntityManager entityManager;
+    private final FeeGenerationService feeGenerationService;
+    private final FeeConfigResolver feeConfigResolver;
 
     public FeeConfigController(
             FeeConfigRepository feeConfigRepository,
-            EntityManager entityManager
+            EntityManager entityManager,
+            FeeGenerationService feeGenerationService,
+            FeeConfigResolver feeConfigResolver
     ) {
         this.feeConfigRepository = feeConfigRepository;
         this.entityManager = entityManager;
+        this.feeGenerationService = feeGenerationService;
+        this.feeConfigResolver = feeConfigResolver;
     }
 
     @PostMapping
@@ -49,13 +57,17 @@ public class FeeConfigController {
         config.setDueDay(dueDay);
         config.setActive(true);
 
-        return feeConfigRepository.save(config);
+        FeeConfig saved = feeConfigRepository.save(config);
+        feeConfigResolver.refreshAfterCommit(hostelId);
+        feeGenerationService.generateMonthlyFees(hostelId);
+        return saved;
     }
 
+    // The config in force today by effective date; the active flag is only kept for older clients
     @GetMapping("/active")
     public FeeConfig getActiveConfig(@RequestParam Long hostelId) {
-        return feeConfigRepository
-                .findFirstByHostel_IdAndActiveTrue(hostelId)
+        return feeConfigResolver.resolve(hostelId, LocalDate.now())
+                .flatMap(config -> feeConfigRepository.findById(config.id()))
                 .orElse(null);
     }
 
@@ -1,32 +1,54 @@
 package com.innovatewithomer.hostel_management.controller;
 
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import com.innovatewithomer.hostel_management.dto.FeeListItem;
+import com.innovatewithomer.hostel_management.dto.MonthlyFeeSummary;
 import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeRollup;
 import com.innovatewithomer.hostel_management.entities.FeeStatus;
 import com.innovatewithomer.hostel_management.entities.Hostel;
 import com.innovatewithomer.hostel_management.entities.Student;
 import com.innovatewithomer.hostel_management.repositories.FeeRepository;
-import com.innovatewithomer.hostel_management.repositories.StudentRepository;
-import com.innovatewithomer.hostel_management.services.FeeReceiptPdfService;
+import com.innovatewithomer.hostel_management.repositories.FeeRollupRepository;
+import com.innovatewithomer.hostel_management.services.FeeRollupService;
+import com.innovatewithomer.hostel_management.services.ReceiptStore;
+import com.innovatewithomer.hostel_management.services.paging.NdjsonStreamer;
+import com.innovatewithomer.hostel_management.services.paging.PageQuery;
 import jakarta.persistence.EntityManager;
-import org.springframework.http.HttpHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/fee")
 public class FeeController {
     private final FeeRepository feeRepository;
     private final EntityManager  entityManager;
-    private final FeeReceiptPdfService feeReceiptPdfService;
+    private final ReceiptStore receiptStore;
+    private final FeeRollupService feeRollupService;
+    private final FeeRollupRepository feeRollupRepository;
+    private final NdjsonStreamer ndjsonStreamer;
 
-    public FeeController(FeeRepository feeRepository, StudentRepository studentRepository, EntityManager entityManager, FeeReceiptPdfService feeReceiptPdfService) {
+    public FeeController(FeeRepository feeRepository, EntityManager entityManager, ReceiptStore receiptStore,
+                         FeeRollupService feeRollupService, FeeRollupRepository feeRollupRepository, NdjsonStreamer ndjsonStreamer) {
         this.feeRepository = feeRepository;
         this.entityManager = entityManager;
-        this.feeReceiptPdfService = feeReceiptPdfService;
+        this.receiptStore = receiptStore;
+        this.feeRollupService = feeRollupService;
+        this.feeRollupRepository = feeRollupRepository;
+        this.ndjsonStreamer = ndjsonStreamer;
     }
 
+    @Transactional
     @PostMapping
     public Fee save(@RequestBody Fee feeRequest, @RequestParam Long hostelId) {
 
@@ -41,13 +63,38 @@ public class FeeController {
         if (exists) {
             throw new RuntimeException("Fee already exists for this student for month " + month);
         }
+        if (feeRequest.getStatus() == null) {
+            feeRequest.setStatus(FeeStatus.UNPAID);
+        }
+        // A fee that is already late starts out overdue rather than waiting for the next daily sweep
+        if (feeRequest.getStatus() == FeeStatus.UNPAID
+                && feeRequest.getDueDate() != null
+                && feeRequest.getDueDate().isBefore(LocalDate.now())) {
+            feeRequest.setStatus(FeeStatus.OVERDUE);
+        }
+
+        Fee saved = feeRepository.save(feeRequest);
+        feeRollupService.feeCreated(saved);
+        return saved;
+    }
 
-        return feeRepository.save(feeRequest);
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public CursorPage<FeeListItem> findAllByHostel(@RequestParam Long hostelId,
+                                                   @RequestParam(required = false) FeeStatus status,
+                                                   @RequestParam(required = false) String month,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(
+                feeRepository.findListByHostel(hostelId, status, month, page.getAfterId(), page.fetchLimit()),
+                FeeListItem::getId);
     }
 
-    @GetMapping
-    public List<Fee> findAllByHostel(@RequestParam Long hostelId) {
-        return feeRepository.findByHostel_Id(hostelId);
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllByHostel(@RequestParam Long hostelId,
+                                                                   @RequestParam(required = false) FeeStatus status,
+                                                                   @RequestParam(required = false) String month) {
+        return ndjsonStreamer.stream(() -> feeRepository.streamListByHostel(hostelId, status, month));
     }
 
     @GetMapping("/student/{studentId}")
@@ -56,17 +103,30 @@ public class FeeController {
     }
 
     @GetMapping("/status/{status}")
-    public List<Fee> getFeeStatus(@PathVariable FeeStatus status) {
-        return feeRepository.findByStatus(status);
+    public CursorPage<Fee> getFeeStatus(@PathVariable FeeStatus status,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(
+                feeRepository.findByStatusAndIdGreaterThanOrderById(status, page.getAfterId(), page.fetchLimit()),
+                Fee::getId);
     }
 
+    @Transactional
     @PutMapping("/{feeId}/pay")
     public Fee markAsPaid(@PathVariable Long feeId) {
-        Fee fee = feeRepository.findById(feeId)
+        Fee fee = feeRepository.findWithStudentById(feeId)
                 .orElseThrow(() -> new RuntimeException("Fee not found"));
 
+        FeeStatus previous = fee.getStatus();
         fee.setStatus(FeeStatus.PAID);
-        return feeRepository.save(fee);
+        if (previous != FeeStatus.PAID) {
+            fee.setPaidOn(LocalDate.now());
+        }
+        Fee saved = feeRepository.save(fee);
+        feeRollupService.statusChanged(saved, previous);
+        receiptStore.invalidate(feeId);
+        return saved;
     }
 
     @GetMapping("/student/collection")
@@ -75,38 +135,77 @@ public class FeeController {
     }
 
     @GetMapping("/overdue")
-    public List<Fee> getOverdueFees() {
-        return feeRepository.findOverdueFees();
+    public CursorPage<Fee> getOverdueFees(@RequestParam Long hostelId,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(
+                feeRepository.findByHostel_IdAndStatusAndIdGreaterThanOrderById(
+                        hostelId, FeeStatus.OVERDUE, page.getAfterId(), page.fetchLimit()),
+                Fee::getId);
     }
 
     @GetMapping("/total/unpaid")
     public Double getTotalUnpaidAmount(@RequestParam Long hostelId) {
-        return feeRepository.getTotalUnpaidAmount(hostelId);
+        return feeRollupService.totalAmount(hostelId, FeeStatus.UNPAID, FeeStatus.OVERDUE);
     }
 
+    @GetMapping("/monthly")
+    public List<MonthlyFeeSummary> getMonthlySummary(@RequestParam Long hostelId) {
+        Map<String, MonthlyFeeSummary> months = new LinkedHashMap<>();
+
+        for (FeeRollup rollup : feeRollupRepository.findById_HostelIdOrderById_MonthDesc(hostelId)) {
+            MonthlyFeeSummary summary = months.computeIfAbsent(rollup.getId().getMonth(), month -> {
+                MonthlyFeeSummary s = new MonthlyFeeSummary();
+                s.setMonth(month);
+                return s;
+            });
+
+            switch (rollup.getId().getStatus()) {
+                case PAID -> {
+                    summary.setPaidCount(rollup.getFeeCount());
+                    summary.setPaidAmount(rollup.getTotalAmount());
+                }
+                case UNPAID -> {
+                    summary.setUnpaidCount(rollup.getFeeCount());
+                    summary.setUnpaidAmount(rollup.getTotalAmount());
+                }
+                case OVERDUE -> {
+                    summary.setOverdueCount(rollup.getFeeCount());
+                    summary.setOverdueAmount(rollup.getTotalAmount());
+                }
+            }
+        }
+        return List.copyOf(months.values());
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public int rebuildRollups() {
+        return feeRollupService.rebuild();
+    }
+
+    @Transactional
     @DeleteMapping("/{feeId}")
     public void deleteFee(@PathVariable Long feeId) {
-        feeRepository.deleteById(feeId);
+        feeRepository.findById(feeId).ifPresent(fee -> {
+            feeRepository.delete(fee);
+            feeRollupService.feeDeleted(fee);
+            receiptStore.invalidate(feeId);
+        });
     }
 
     @GetMapping("/{feeId}/receipt")
-    public ResponseEntity<byte[]> downloadReceipt(@PathVariable Long feeId) {
+    public void downloadReceipt(@PathVariable Long feeId, HttpServletRequest request, HttpServletResponse response) throws IOException {
 
-        Fee fee = feeRepository.findById(feeId)
+        Fee fee = feeRepository.findWithStudentById(feeId)
                 .orElseThrow(() -> new RuntimeException("Fee not found"));
 
-        byte[] pdf = feeReceiptPdfService.generateFeeReceipt(fee);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=fee-receipt-" + feeId + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        receiptStore.serve(fee, request, response);
     }
 
     @GetMapping("/total/collection")
     public Double getTotalFeeCollectedByHostel(@RequestParam Long hostelId) {
-        return feeRepository.getTotalCollectedByHostel(hostelId);
+        return feeRollupService.totalAmount(hostelId, FeeStatus.PAID);
     }
 
 }
@@ -0,0 +1,40 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import com.innovatewithomer.hostel_management.dto.ReminderCampaignProgress;
+import com.innovatewithomer.hostel_management.entities.ReminderCampaign;
+import com.innovatewithomer.hostel_management.entities.ReminderKind;
+import com.innovatewithomer.hostel_management.services.reminders.FeeReminderService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/fee/reminders")
+public class FeeReminderController {
+
+    private final FeeReminderService feeReminderService;
+
+    public FeeReminderController(FeeReminderService feeReminderService) {
+        this.feeReminderService = feeReminderService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReminderCampaign> startCampaign(@RequestParam ReminderKind kind) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(feeReminderService.start(kind));
+    }
+
+    @GetMapping("/{campaignId}")
+    public ReminderCampaignProgress getCampaign(@PathVariable Long campaignId) {
+        return feeReminderService.progress(campaignId);
+    }
+
+    @PostMapping("/{campaignId}/pause")
+    public ReminderCampaign pauseCampaign(@PathVariable Long campaignId) {
+        return feeReminderService.pause(campaignId);
+    }
+
+    @PostMapping("/{campaignId}/resume")
+    public ReminderCampaign resumeCampaign(@PathVariable Long campaignId) {
+        return feeReminderService.resume(campaignId);
+    }
+}
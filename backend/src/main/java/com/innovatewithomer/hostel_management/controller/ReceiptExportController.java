@@ -0,0 +1,52 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import com.innovatewithomer.hostel_management.services.exports.ReceiptExport;
+import com.innovatewithomer.hostel_management.services.exports.ReceiptExportService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/admin/fee/exports")
+public class ReceiptExportController {
+
+    private final ReceiptExportService receiptExportService;
+
+    public ReceiptExportController(ReceiptExportService receiptExportService) {
+        this.receiptExportService = receiptExportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReceiptExport> startExport(@RequestParam Long hostelId, @RequestParam String month) {
+        YearMonth.parse(month);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(receiptExportService.start(hostelId, month));
+    }
+
+    @GetMapping("/{exportId}")
+    public ReceiptExport getExport(@PathVariable String exportId, @RequestParam Long hostelId) {
+        return receiptExportService.find(exportId, hostelId)
+                .orElseThrow(() -> new RuntimeException("Export not found"));
+    }
+
+    // Returning a Resource lets Spring answer Range requests with 206 partial content
+    @GetMapping("/{exportId}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String exportId, @RequestParam Long hostelId) {
+        ReceiptExport export = getExport(exportId, hostelId);
+        if (export.getStatus() != JobStatus.COMPLETED) {
+            throw new RuntimeException("Export is not ready");
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=fee-receipts-" + export.getMonth() + ".zip")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(new FileSystemResource(export.getFile()));
+    }
+}
@@ -2,6 +2,10 @@ package com.innovatewithomer.hostel_management.controller;
 
 import com.innovatewithomer.hostel_management.config.UserPrincipal;
 import com.innovatewithomer.hostel_management.dto.BedStatusDto;
+import com.innovatewithomer.hostel_management.dto.BlockOccupancyResponse;
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import com.innovatewithomer.hostel_management.dto.HostelOccupancyResponse;
+import com.innovatewithomer.hostel_management.dto.RoomOccupancyRow;
 import com.innovatewithomer.hostel_management.dto.RoomStatusResponse;
 import com.innovatewithomer.hostel_management.dto.RoomStudentResponse;
 import com.innovatewithomer.hostel_management.entities.Allocation;
@@ -9,14 +13,19 @@ import com.innovatewithomer.hostel_management.entities.Hostel;
 import com.innovatewithomer.hostel_management.entities.Room;
 import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
 import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import com.innovatewithomer.hostel_management.services.BedOccupancyIndex;
+import com.innovatewithomer.hostel_management.services.BedOccupancyIndex.RoomSnapshot;
+import com.innovatewithomer.hostel_management.services.paging.PageQuery;
 import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,11 +36,13 @@ public class RoomController {
 
     private final RoomRepository roomRepository;
     private final AllocationRepository allocationRepository;
+    private final BedOccupancyIndex bedOccupancyIndex;
     EntityManager entityManager;
 
-    public RoomController(RoomRepository roomRepository, AllocationRepository allocationRepository, EntityManager entityManager) {
+    public RoomController(RoomRepository roomRepository, AllocationRepository allocationRepository, BedOccupancyIndex bedOccupancyIndex, EntityManager entityManager) {
         this.roomRepository = roomRepository;
         this.allocationRepository = allocationRepository;
+        this.bedOccupancyIndex = bedOccupancyIndex;
         this.entityManager = entityManager;
     }
 
@@ -48,13 +59,19 @@ public class RoomController {
         );
 
         room.setHostel(hostel);
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        bedOccupancyIndex.putRoom(saved);
+        return saved;
     }
 
 
     @GetMapping
-    public List<Room> getAll(@RequestParam Long hostelId) {
-        return roomRepository.findByHostel_Id(hostelId);
+    public CursorPage<Room> getAll(@RequestParam Long hostelId,
+                                   @RequestParam(required = false) String block,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(roomRepository.findPageByHostel(hostelId, block, page.getAfterId(), page.fetchLimit()), Room::getId);
     }
 
     @GetMapping("/{id}")
@@ -65,25 +82,24 @@ public class RoomController {
 
     @GetMapping("/{roomId}/beds")
     public List<BedStatusDto> getRoomBeds(@PathVariable Long roomId) {
-        Room room = getRoomById(roomId);
-
-        List<Allocation> allocations =
-                allocationRepository.findByRoomIdAndActiveTrue(roomId);
+        RoomSnapshot room = getRoomSnapshot(roomId);
 
+        // Allocation details are only worth a query when someone actually sleeps here
         Map<Integer, Allocation> occupiedMap = new HashMap<>();
-        for (Allocation a : allocations) {
-            occupiedMap.put(a.getBedNumber(), a);
+        if (room.occupiedBeds() > 0) {
+            for (Allocation a : allocationRepository.findByRoomIdAndActiveTrue(roomId)) {
+                occupiedMap.put(a.getBedNumber(), a);
+            }
         }
 
         List<BedStatusDto> beds = new ArrayList<>();
 
-        for (int i = 1; i <= room.getCapacity(); i++) {
-            Allocation allocation = occupiedMap.get(i);
+        for (int i = 1; i <= room.capacity(); i++) {
             beds.add(
                     new BedStatusDto(
                             i,
-                            allocation != null,
-                            allocation
+                            room.isOccupied(i),
+                            occupiedMap.get(i)
                     )
             );
         }
@@ -93,26 +109,87 @@ public class RoomController {
 
     @GetMapping("/{roomId}/status")
     public RoomStatusResponse getRoomStatus(@PathVariable Long roomId, @RequestParam Long hostelId) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        RoomSnapshot room = getRoomSnapshot(roomId);
 
-        long occupied = allocationRepository.countByRoomIdAndRoom_Hostel_IdAndActiveTrue(roomId, hostelId);
+        if (!room.hostelId().equals(hostelId)) {
+            throw new RuntimeException("Room not found");
+        }
 
         RoomStatusResponse response = new RoomStatusResponse();
         response.setRoomId(roomId);
-        response.setBlock(room.getBlock());
-        response.setRoomNumber(room.getRoomNumber());
-        response.setCapacity(room.getCapacity());
-        response.setOccupiedBeds((int) occupied);
-        response.setAvailableBeds(room.getCapacity() - (int) occupied);
+        response.setBlock(room.block());
+        response.setRoomNumber(room.roomNumber());
+        response.setCapacity(room.capacity());
+        response.setOccupiedBeds(room.occupiedBeds());
+        response.setAvailableBeds(room.freeBeds());
+
+        return response;
+    }
+
+    // Whole-hostel dashboard view in one grouped query instead of one status call per room
+    @GetMapping("/occupancy")
+    public HostelOccupancyResponse getHostelOccupancy(@RequestParam Long hostelId) {
+        List<RoomStatusResponse> rooms = new ArrayList<>();
+        Map<String, BlockOccupancyResponse> blocks = new LinkedHashMap<>();
+
+        for (RoomOccupancyRow row : roomRepository.findOccupancyByHostel(hostelId)) {
+            int occupied = (int) row.getOccupiedBeds();
+
+            RoomStatusResponse room = new RoomStatusResponse();
+            room.setRoomId(row.getRoomId());
+            room.setBlock(row.getBlock());
+            room.setRoomNumber(row.getRoomNumber());
+            room.setCapacity(row.getCapacity());
+            room.setOccupiedBeds(occupied);
+            room.setAvailableBeds(row.getCapacity() - occupied);
+            rooms.add(room);
+
+            BlockOccupancyResponse block = blocks.computeIfAbsent(row.getBlock(), name -> {
+                BlockOccupancyResponse b = new BlockOccupancyResponse();
+                b.setBlock(name);
+                return b;
+            });
+            block.setRooms(block.getRooms() + 1);
+            block.setCapacity(block.getCapacity() + room.getCapacity());
+            block.setOccupiedBeds(block.getOccupiedBeds() + occupied);
+            block.setAvailableBeds(block.getAvailableBeds() + room.getAvailableBeds());
+        }
 
+        HostelOccupancyResponse response = new HostelOccupancyResponse();
+        response.setHostelId(hostelId);
+        response.setCapacity(rooms.stream().mapToInt(RoomStatusResponse::getCapacity).sum());
+        response.setOccupiedBeds(rooms.stream().mapToInt(RoomStatusResponse::getOccupiedBeds).sum());
+        response.setAvailableBeds(response.getCapacity() - response.getOccupiedBeds());
+        response.setBlocks(new ArrayList<>(blocks.values()));
+        response.setRooms(rooms);
         return response;
     }
 
+    @GetMapping("/available")
+    public List<RoomStatusResponse> getRoomsWithFreeBeds(
+            @RequestParam Long hostelId,
+            @RequestParam(required = false) String block,
+            @RequestParam(defaultValue = "1") int minFree
+    ) {
+        return bedOccupancyIndex.roomsWithFreeBeds(hostelId, block, minFree)
+                .stream()
+                .map(room -> {
+                    RoomStatusResponse response = new RoomStatusResponse();
+                    response.setRoomId(room.roomId());
+                    response.setBlock(room.block());
+                    response.setRoomNumber(room.roomNumber());
+                    response.setCapacity(room.capacity());
+                    response.setOccupiedBeds(room.occupiedBeds());
+                    response.setAvailableBeds(room.freeBeds());
+                    return response;
+                })
+                .toList();
+    }
+
     @GetMapping("/{roomId}/students")
     public List<RoomStudentResponse> getRoomStudents(@PathVariable Long roomId, @RequestParam Long hostelId) {
 
-        roomRepository.findById(roomId).orElseThrow(() -> new RuntimeException("Room not found"));
+        getRoomSnapshot(roomId);
 
         return allocationRepository.findByRoomIdAndRoom_Hostel_IdAndActiveTrueOrderByBedNumber(roomId, hostelId)
                 .stream()
@@ -137,17 +214,25 @@ public class RoomController {
         room.setBlock(request.getBlock());
         room.setRoomNumber(request.getRoomNumber());
         roomRepository.save(room);
+        bedOccupancyIndex.putRoom(room);
         return room;
     }
 
     @DeleteMapping("/{roomId}")
+    @Transactional
     public ResponseEntity<String> deleteRoom(@PathVariable Long roomId) {
         Room room = getRoomById(roomId);
         List<Allocation> allocation = allocationRepository.findByRoomIdAndActiveTrue(roomId);
         allocationRepository.deleteAll(allocation);
         roomRepository.delete(room);
+        bedOccupancyIndex.removeRoom(roomId);
         return ResponseEntity.ok("Room with Block "+room.getRoomNumber()+ " has been deleted");
     }
 
+    private RoomSnapshot getRoomSnapshot(Long roomId) {
+        return bedOccupancyIndex.snapshot(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+    }
+
 
 }
@@ -11,15 +11,15 @@ import com.innovatewithomer.hostel_management.entities.Student;
 import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
 import com.innovatewithomer.hostel_management.repositories.FeeRepository;
 import com.innovatewithomer.hostel_management.repositories.StudentRepository;
-import com.innovatewithomer.hostel_management.services.FeeReceiptPdfService;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import com.innovatewithomer.hostel_management.services.ReceiptStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -29,22 +29,21 @@ public class StudentMeController {
     private final AllocationRepository allocationRepository;
     private final FeeRepository feeRepository;
     private final AuthUtil authUtil;
-    private FeeReceiptPdfService  feeReceiptPdfService;
+    private final ReceiptStore receiptStore;
 
-    public StudentMeController(StudentRepository studentRepository, AllocationRepository allocationRepository, FeeRepository feeRepository, AuthUtil authUtil, FeeReceiptPdfService feeReceiptPdfService) {
+    public StudentMeController(StudentRepository studentRepository, AllocationRepository allocationRepository, FeeRepository feeRepository, AuthUtil authUtil, ReceiptStore receiptStore) {
         this.studentRepository = studentRepository;
         this.allocationRepository = allocationRepository;
         this.feeRepository = feeRepository;
         this.authUtil = authUtil;
-        this.feeReceiptPdfService = feeReceiptPdfService;
+        this.receiptStore = receiptStore;
     }
 
+    // Every lookup goes by the user id the token already carries, one statement per call
     @GetMapping
     public StudentProfileResponse getStudentProfile() {
-        String email = authUtil.getEmail();
-
-        Student student = studentRepository.findByUserEmail(email)
-                .orElseThrow(() -> new RuntimeException("Student with email " + email + " not found"));
+        Student student = studentRepository.findWithUserByUserId(authUtil.getUserId())
+                .orElseThrow(() -> new RuntimeException("Student with email " + authUtil.getEmail() + " not found"));
 
         StudentRequest studentRequest = new StudentRequest();
         studentRequest.setRollNo(student.getRollNo());
@@ -63,11 +62,7 @@ public class StudentMeController {
 
     @GetMapping("/room")
     public StudentRoomResponse getMyRoom() {
-        String email = authUtil.getEmail();
-        Student student = studentRepository.findByUserEmail(email)
-                .orElseThrow(() -> new RuntimeException("Student with email " + email + " not found"));
-
-        Allocation alloc = allocationRepository.findByStudentId(student.getId())
+        Allocation alloc = allocationRepository.findByStudent_User_IdAndActiveTrue(authUtil.getUserId())
                 .orElseThrow(() -> new RuntimeException("No active allocation"));
 
         StudentRoomResponse response = new StudentRoomResponse();
@@ -82,12 +77,7 @@ public class StudentMeController {
     @GetMapping("/fees")
     public List<StudentFeeResponse> getMyFeeHistory() {
 
-        String email = authUtil.getEmail();
-
-        Student student = studentRepository.findByUserEmail(email)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        return feeRepository.findAllByStudentId(student.getId())
+        return feeRepository.findAllByStudent_User_Id(authUtil.getUserId())
                 .stream()
                 .map(fee -> {
                     StudentFeeResponse dto = new StudentFeeResponse();
@@ -100,23 +90,12 @@ public class StudentMeController {
     }
 
     @GetMapping("/fees/{feeId}/receipt")
-    public ResponseEntity<byte[]> downloadMyFeeReceipt(@PathVariable Long feeId) {
+    public void downloadMyFeeReceipt(@PathVariable Long feeId, HttpServletRequest request, HttpServletResponse response) throws IOException {
 
-        String email = authUtil.getEmail();
-
-        Student student = studentRepository.findByUserEmail(email)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        Fee fee = feeRepository.findByIdAndStudentId(feeId, student.getId())
+        Fee fee = feeRepository.findByIdAndStudent_User_Id(feeId, authUtil.getUserId())
                 .orElseThrow(() -> new RuntimeException("Fee not found"));
 
-        byte[] pdf = feeReceiptPdfService.generateFeeReceipt(fee);
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=fee-receipt-" + feeId + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(pdf);
+        receiptStore.serve(fee, request, response);
     }
 
 }
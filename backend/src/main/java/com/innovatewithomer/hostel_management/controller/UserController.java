@@ -1,24 +1,71 @@
 package com.innovatewithomer.hostel_management.controller;
 
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import com.innovatewithomer.hostel_management.dto.UserListItem;
+import com.innovatewithomer.hostel_management.entities.Role;
 import com.innovatewithomer.hostel_management.entities.User;
 import com.innovatewithomer.hostel_management.repositories.UserRepository;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-import java.util.List;
+import com.innovatewithomer.hostel_management.security.PrincipalCache;
+import com.innovatewithomer.hostel_management.services.AuthTokenService;
+import com.innovatewithomer.hostel_management.services.paging.NdjsonStreamer;
+import com.innovatewithomer.hostel_management.services.paging.PageQuery;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/admin/users")
 public class UserController {
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final AuthTokenService authTokenService;
+    private final NdjsonStreamer ndjsonStreamer;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, PrincipalCache principalCache, AuthTokenService authTokenService, NdjsonStreamer ndjsonStreamer) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.authTokenService = authTokenService;
+        this.ndjsonStreamer = ndjsonStreamer;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public CursorPage<UserListItem> getUsers(@RequestParam(required = false) Role role,
+                                             @RequestParam(required = false) Boolean active,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        PageQuery page = PageQuery.of(cursor, limit);
+        return page.page(userRepository.findList(role, active, page.getAfterId(), page.fetchLimit()), UserListItem::getId);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) Role role,
+                                                             @RequestParam(required = false) Boolean active) {
+        return ndjsonStreamer.stream(() -> userRepository.streamList(role, active));
+    }
+
+    @PatchMapping("/{userId}/status")
+    public User updateStatus(@PathVariable Long userId, @RequestParam boolean active) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setActive(active);
+        return revokeTokens(user);
+    }
+
+    @PatchMapping("/{userId}/role")
+    public User updateRole(@PathVariable Long userId, @RequestParam Role role) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setRole(role);
+        return revokeTokens(user);
     }
 
-    @GetMapping
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    // Tokens carry the role, so any change here has to log the user out everywhere
+    private User revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User saved = userRepository.save(user);
+        principalCache.evict(saved.getId());
+        authTokenService.revokeAll(saved.getId());
+        return saved;
     }
 }
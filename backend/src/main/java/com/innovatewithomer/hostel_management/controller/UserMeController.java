@@ -6,6 +6,7 @@ import com.innovatewithomer.hostel_management.dto.UserRequest;
 import com.innovatewithomer.hostel_management.entities.User;
 import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
 import com.innovatewithomer.hostel_management.repositories.UserRepository;
+import com.innovatewithomer.hostel_management.security.PrincipalCache;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,11 +19,13 @@ public class UserMeController {
     private final UserRepository userRepository;
     private final AllocationRepository allocationRepository;
     private final AuthUtil authUtil;
+    private final PrincipalCache principalCache;
 
-    public UserMeController(UserRepository userRepository, AllocationRepository allocationRepository, AuthUtil authUtil) {
+    public UserMeController(UserRepository userRepository, AllocationRepository allocationRepository, AuthUtil authUtil, PrincipalCache principalCache) {
         this.userRepository = userRepository;
         this.allocationRepository = allocationRepository;
         this.authUtil = authUtil;
+        this.principalCache = principalCache;
     }
 
     @PutMapping("/update")
@@ -34,6 +37,8 @@ public class UserMeController {
         user.setEmail(userRequest.getEmail());
         user.getStudent().setPhone(userRequest.getPhone());
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalCache.evict(saved.getId());
+        return saved;
     }
 }
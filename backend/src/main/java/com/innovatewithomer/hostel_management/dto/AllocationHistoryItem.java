@@ -0,0 +1,27 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// One row of a hostel's allocation history, read with a single constructor query
+@Getter
+public class AllocationHistoryItem {
+    private final Long id;
+    private final int bedNumber;
+    private final boolean active;
+    private final LocalDateTime allocatedAt;
+    private final StudentSummary student;
+    private final RoomSummary room;
+
+    public AllocationHistoryItem(Long id, int bedNumber, boolean active, LocalDateTime allocatedAt,
+                                 Long studentId, String rollNo, Long userId, String userName, String userEmail,
+                                 Long roomId, String block, String roomNumber, int capacity) {
+        this.id = id;
+        this.bedNumber = bedNumber;
+        this.active = active;
+        this.allocatedAt = allocatedAt;
+        this.student = new StudentSummary(studentId, rollNo, new UserSummary(userId, userName, userEmail));
+        this.room = new RoomSummary(roomId, block, roomNumber, capacity);
+    }
+}
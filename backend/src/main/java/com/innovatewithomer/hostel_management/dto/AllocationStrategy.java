@@ -0,0 +1,10 @@
+package com.innovatewithomer.hostel_management.dto;
+
+public enum AllocationStrategy {
+    // fill each room completely, block by block
+    FILL_BLOCK,
+    // always use the room with the most free beds
+    SPREAD_EVENLY,
+    // sort by roll number and fill in order so neighbouring roll numbers share rooms
+    ROLL_NUMBER
+}
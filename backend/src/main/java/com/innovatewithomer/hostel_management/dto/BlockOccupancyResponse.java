@@ -0,0 +1,14 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BlockOccupancyResponse {
+    private String block;
+    private int rooms;
+    private int capacity;
+    private int occupiedBeds;
+    private int availableBeds;
+}
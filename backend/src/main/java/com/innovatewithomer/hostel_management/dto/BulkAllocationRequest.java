@@ -0,0 +1,14 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BulkAllocationRequest {
+    private List<Long> studentIds;
+    private AllocationStrategy strategy = AllocationStrategy.FILL_BLOCK;
+    private String block; // optional, limit placement to one block
+}
@@ -0,0 +1,17 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BulkAllocationResult {
+    private Long studentId;
+    private String rollNo;
+    private boolean allocated;
+    private Long roomId;
+    private String block;
+    private String roomNumber;
+    private Integer bedNumber;
+    private String message;
+}
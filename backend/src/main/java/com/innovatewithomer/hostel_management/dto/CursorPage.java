@@ -0,0 +1,14 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// One page of a keyset-paginated list; nextCursor is null on the last page
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+// One row of a hostel's fee list, read with a single constructor query
+@Getter
+public class FeeListItem {
+    private final Long id;
+    private final String month;
+    private final double amount;
+    private final LocalDate dueDate;
+    private final LocalDate paidOn;
+    private final FeeStatus status;
+    private final StudentSummary student;
+
+    public FeeListItem(Long id, String month, double amount, LocalDate dueDate, LocalDate paidOn, FeeStatus status,
+                       Long studentId, String rollNo, Long userId, String userName, String userEmail) {
+        this.id = id;
+        this.month = month;
+        this.amount = amount;
+        this.dueDate = dueDate;
+        this.paidOn = paidOn;
+        this.status = status;
+        this.student = new StudentSummary(studentId, rollNo, new UserSummary(userId, userName, userEmail));
+    }
+}
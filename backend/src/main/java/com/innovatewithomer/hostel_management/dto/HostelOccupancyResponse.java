@@ -0,0 +1,17 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class HostelOccupancyResponse {
+    private Long hostelId;
+    private int capacity;
+    private int occupiedBeds;
+    private int availableBeds;
+    private List<BlockOccupancyResponse> blocks;
+    private List<RoomStatusResponse> rooms;
+}
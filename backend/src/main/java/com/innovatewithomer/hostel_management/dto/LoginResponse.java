@@ -8,4 +8,7 @@ import lombok.Getter;
 public class LoginResponse {
     private String token;
     private String role;
+    private String refreshToken;
+    // Seconds until the access token expires
+    private long expiresIn;
 }
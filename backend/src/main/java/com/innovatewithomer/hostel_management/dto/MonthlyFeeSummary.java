@@ -0,0 +1,16 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class MonthlyFeeSummary {
+    private String month;
+    private long paidCount;
+    private double paidAmount;
+    private long unpaidCount;
+    private double unpaidAmount;
+    private long overdueCount;
+    private double overdueAmount;
+}
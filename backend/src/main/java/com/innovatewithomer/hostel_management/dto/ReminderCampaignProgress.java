@@ -0,0 +1,21 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import com.innovatewithomer.hostel_management.entities.CampaignStatus;
+import com.innovatewithomer.hostel_management.entities.ReminderKind;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class ReminderCampaignProgress {
+    private Long id;
+    private ReminderKind kind;
+    private CampaignStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime queuedAt;
+    private long pending;
+    private long sent;
+    private long failed;
+}
@@ -0,0 +1,10 @@
+package com.innovatewithomer.hostel_management.dto;
+
+// Row of the grouped rooms/allocations aggregate in RoomRepository
+public interface RoomOccupancyRow {
+    Long getRoomId();
+    String getBlock();
+    String getRoomNumber();
+    int getCapacity();
+    long getOccupiedBeds();
+}
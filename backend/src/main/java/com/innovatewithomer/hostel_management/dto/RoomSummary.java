@@ -0,0 +1,13 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RoomSummary {
+    private Long id;
+    private String block;
+    private String roomNumber;
+    private int capacity;
+}
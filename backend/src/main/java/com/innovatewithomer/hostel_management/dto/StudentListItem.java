@@ -0,0 +1,24 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.Getter;
+
+// One row of the admin student list, read with a single constructor query
+@Getter
+public class StudentListItem {
+    private final Long id;
+    private final String rollNo;
+    private final String phone;
+    private final String guardianName;
+    private final String guardianPhone;
+    private final UserSummary user;
+
+    public StudentListItem(Long id, String rollNo, String phone, String guardianName, String guardianPhone,
+                           Long userId, String userName, String userEmail) {
+        this.id = id;
+        this.rollNo = rollNo;
+        this.phone = phone;
+        this.guardianName = guardianName;
+        this.guardianPhone = guardianPhone;
+        this.user = new UserSummary(userId, userName, userEmail);
+    }
+}
@@ -0,0 +1,12 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StudentSummary {
+    private Long id;
+    private String rollNo;
+    private UserSummary user;
+}
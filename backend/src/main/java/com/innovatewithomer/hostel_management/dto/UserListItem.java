@@ -0,0 +1,17 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import com.innovatewithomer.hostel_management.entities.Role;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserListItem {
+    private Long id;
+    private String name;
+    private String email;
+    private boolean emailVerified;
+    private Role role;
+    private boolean active;
+    private Long hostelId;
+}
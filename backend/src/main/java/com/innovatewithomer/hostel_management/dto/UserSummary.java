@@ -0,0 +1,12 @@
+package com.innovatewithomer.hostel_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String name;
+    private String email;
+}
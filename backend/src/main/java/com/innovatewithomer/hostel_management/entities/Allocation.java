@@ -9,6 +9,14 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(
+        name = "Allocation.studentAndRoom",
+        attributeNodes = {
+                @NamedAttributeNode(value = "student", subgraph = "student"),
+                @NamedAttributeNode("room")
+        },
+        subgraphs = @NamedSubgraph(name = "student", attributeNodes = @NamedAttributeNode("user"))
+)
 @Table(name = "allocations")
 @Getter
 @Setter
@@ -17,14 +25,15 @@ import java.time.LocalDateTime;
 public class Allocation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "allocation_seq")
+    @SequenceGenerator(name = "allocation_seq", sequenceName = "allocations_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Student student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
     private Room room;
 
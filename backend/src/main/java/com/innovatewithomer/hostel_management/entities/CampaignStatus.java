@@ -0,0 +1,6 @@
+package com.innovatewithomer.hostel_management.entities;
+
+public enum CampaignStatus {
+    RUNNING,
+    PAUSED
+}
@@ -10,20 +10,31 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 
 @Entity
-@Table(name = "fees")
+@NamedEntityGraph(
+        name = "Fee.student",
+        attributeNodes = @NamedAttributeNode(value = "student", subgraph = "student"),
+        subgraphs = @NamedSubgraph(name = "student", attributeNodes = @NamedAttributeNode("user"))
+)
+@Table(
+        name = "fees",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_fees_student_month", columnNames = {"student_id", "month"})
+        }
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Fee {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fee_seq")
+    @SequenceGenerator(name = "fee_seq", sequenceName = "fees_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Student student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(comment = "hostel_id", nullable = false)
     private Hostel hostel;
 
@@ -31,6 +42,7 @@ public class Fee {
     private String month;
     private double amount;
     private LocalDate dueDate;
+    private LocalDate paidOn;
 
     @Enumerated(EnumType.STRING)
     private FeeStatus status;
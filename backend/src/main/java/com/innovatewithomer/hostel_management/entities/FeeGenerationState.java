@@ -0,0 +1,27 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Per-hostel watermark: the last month whose fees have been generated
+@Entity
+@Table(name = "fee_generation_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeGenerationState {
+
+    @Id
+    private Long hostelId;
+
+    @Column(nullable = false)
+    private String lastGeneratedMonth;
+
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,24 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Running count and amount of fees per hostel, month and status, kept in step with the fees table
+@Entity
+@Table(name = "fee_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeeRollup {
+
+    @EmbeddedId
+    private FeeRollupId id;
+
+    private long feeCount;
+
+    private double totalAmount;
+}
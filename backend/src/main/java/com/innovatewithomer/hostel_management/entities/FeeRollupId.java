@@ -0,0 +1,30 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class FeeRollupId implements Serializable {
+
+    @Column(name = "hostel_id")
+    private Long hostelId;
+
+    private String month;
+
+    @Enumerated(EnumType.STRING)
+    private FeeStatus status;
+}
@@ -0,0 +1,46 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_chunks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_run_id", nullable = false)
+    @JsonIgnore
+    private JobRun jobRun;
+
+    // e.g. the hostel id
+    private String partitionKey;
+
+    // inclusive id range inside the partition
+    private long rangeStart;
+    private long rangeEnd;
+
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    private int attempts;
+    private long processed;
+
+    @Column(length = 2000)
+    private String error;
+
+    private LocalDateTime updatedAt;
+}
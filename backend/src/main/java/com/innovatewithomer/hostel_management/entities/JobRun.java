@@ -0,0 +1,42 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "job_runs",
+        uniqueConstraints = {
+                @UniqueConstraint(columnNames = {"job_name", "run_key"})
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String jobName;
+
+    // e.g. the month being generated, so a second trigger for the same month resumes this run
+    @Column(nullable = false)
+    private String runKey;
+
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    private int totalChunks;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.innovatewithomer.hostel_management.entities;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -18,14 +18,15 @@ import java.time.LocalDateTime;
 public class KitchenInventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kitchen_inventory_seq")
+    @SequenceGenerator(name = "kitchen_inventory_seq", sequenceName = "kitchen_inventory_seq", allocationSize = 50)
     private Long Id;
 
     private String itemName;
     private double quantity;
     private String unit;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hostel_id", nullable = false)
     private Hostel hostel;
     private LocalDateTime lastUpdated = LocalDateTime.now();
@@ -0,0 +1,56 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// An email queued in the same transaction as the change that caused it, sent later by the outbox sender
+@Entity
+@Table(
+        name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_pending", columnList = "status, next_attempt_at"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_email_outbox_campaign_fee", columnNames = {"campaign_id", "fee_id"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime claimedAt;
+    private LocalDateTime sentAt;
+
+    // Set for reminder campaign emails; at most one email per campaign and fee
+    private Long campaignId;
+    private Long feeId;
+
+    @Column(length = 500)
+    private String lastError;
+}
@@ -0,0 +1,8 @@
+package com.innovatewithomer.hostel_management.entities;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
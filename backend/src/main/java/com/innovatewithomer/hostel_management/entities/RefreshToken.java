@@ -0,0 +1,43 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// One issued refresh token. Only its SHA-256 hash is stored; each use replaces it with a new one.
+@Entity
+@Table(
+        name = "refresh_tokens",
+        indexes = @Index(name = "idx_refresh_tokens_user", columnList = "user_id, revoked_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime revokedAt;
+
+    // The access token handed out alongside this refresh token, so it can be denied on revocation
+    private String accessTokenId;
+    private LocalDateTime accessExpiresAt;
+}
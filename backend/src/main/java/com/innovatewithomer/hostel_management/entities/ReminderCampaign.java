@@ -0,0 +1,36 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// One fee reminder run across all hostels. Its emails live in the outbox, tagged with the campaign id.
+@Entity
+@Table(name = "reminder_campaigns")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderCampaign {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ReminderKind kind;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CampaignStatus status;
+
+    private LocalDateTime createdAt;
+
+    // Set once every recipient has been queued
+    private LocalDateTime queuedAt;
+}
@@ -0,0 +1,28 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Named watermark for a periodic sweep: everything dated before sweptUntil has been handled
+@Entity
+@Table(name = "sweep_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepWatermark {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDate sweptUntil;
+
+    private LocalDateTime sweptAt;
+}
@@ -1,11 +1,13 @@
 package com.innovatewithomer.hostel_management.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "users")
@@ -13,6 +15,7 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
 
     @Id
@@ -38,11 +41,17 @@ public class User {
 
     private boolean active;
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
+    // Bumped to revoke every token issued so far
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private int tokenVersion;
+
+    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private Student student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hostel_id", nullable = true)
     private Hostel hostel;
 }
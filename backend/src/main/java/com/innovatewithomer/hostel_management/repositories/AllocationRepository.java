@@ -1,20 +1,93 @@
 package com.innovatewithomer.hostel_management.repositories;
 
+import com.innovatewithomer.hostel_management.dto.AllocationHistoryItem;
 import com.innovatewithomer.hostel_management.entities.Allocation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AllocationRepository extends JpaRepository<Allocation, Long> {
     Optional<Allocation> findByStudentIdAndStudent_hostel_IdAndActiveTrue(Long studentId, Long hostelId);
-    Optional<Allocation> findByStudentId(Long studentId);
+    @EntityGraph(attributePaths = "room")
+    Optional<Allocation> findByStudent_User_IdAndActiveTrue(Long userId);
     Optional<Allocation> findByRoomIdAndRoom_Hostel_IdAndBedNumberAndActiveTrue(Long roomId, Long hostelId, int bedNumber);
+    @EntityGraph("Allocation.studentAndRoom")
     List<Allocation> findByRoomIdAndActiveTrue(Long roomId);
     long countByRoomIdAndRoom_Hostel_IdAndActiveTrue(Long roomId, Long hostelId);
     long countByRoom_Hostel_IdAndActiveTrue(Long hostelId);
+    @EntityGraph("Allocation.studentAndRoom")
     List<Allocation> findByRoomIdAndRoom_Hostel_IdAndActiveTrueOrderByBedNumber(Long roomId, Long hostelId);
+    @EntityGraph("Allocation.studentAndRoom")
     List<Allocation> findByStudentIdAndStudent_Hostel_IdOrderByIdDesc(Long studentId, Long hostelId);
+    @EntityGraph("Allocation.studentAndRoom")
     List<Allocation> findByStudent_Hostel_IdAndActiveTrue(Long hostelId);
-    List<Allocation> findByStudent_Hostel_Id(Long hostelId);
+
+    @Query("""
+        select new com.innovatewithomer.hostel_management.dto.AllocationHistoryItem(
+               a.id, a.bedNumber, a.active, a.allocatedAt,
+               s.id, s.rollNo, u.id, u.name, u.email,
+               r.id, r.block, r.roomNumber, r.capacity)
+        from Allocation a
+        join a.student s
+        join s.user u
+        join a.room r
+        where s.hostel.id = :hostelId
+          and a.id > :afterId
+          and (:active is null or a.active = :active)
+        order by a.id
+    """)
+    List<AllocationHistoryItem> findHistoryByHostel(@Param("hostelId") Long hostelId,
+                                                    @Param("active") Boolean active,
+                                                    @Param("afterId") long afterId,
+                                                    Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        select new com.innovatewithomer.hostel_management.dto.AllocationHistoryItem(
+               a.id, a.bedNumber, a.active, a.allocatedAt,
+               s.id, s.rollNo, u.id, u.name, u.email,
+               r.id, r.block, r.roomNumber, r.capacity)
+        from Allocation a
+        join a.student s
+        join s.user u
+        join a.room r
+        where s.hostel.id = :hostelId
+          and (:active is null or a.active = :active)
+        order by a.id
+    """)
+    Stream<AllocationHistoryItem> streamHistoryByHostel(@Param("hostelId") Long hostelId,
+                                                        @Param("active") Boolean active);
+
+    @Query("""
+        select a.room.id, a.bedNumber
+        from Allocation a
+        where a.active = true
+    """)
+    List<Object[]> findActiveBeds();
+
+    @Query("""
+        select a.bedNumber
+        from Allocation a
+        where a.room.id = :roomId
+          and a.active = true
+    """)
+    List<Integer> findActiveBedNumbers(@Param("roomId") Long roomId);
+
+    @Query("""
+        select a.student.id
+        from Allocation a
+        where a.student.id in :studentIds
+          and a.active = true
+    """)
+    List<Long> findActiveStudentIds(@Param("studentIds") Collection<Long> studentIds);
 }
@@ -1,15 +1,24 @@
 package com.innovatewithomer.hostel_management.repositories;
 
 import com.innovatewithomer.hostel_management.entities.FeeConfig;
-import com.innovatewithomer.hostel_management.entities.Hostel;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 public interface FeeConfigRepository extends JpaRepository<FeeConfig, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<FeeConfig> findFirstByHostel_IdAndActiveTrue(Long hostelId);
 
-    FeeConfig findTopByHostelAndEffectiveFromLessThanEqualOrderByEffectiveFromDesc(Hostel hostel, LocalDate now);
+    @Query("select c.id, c.hostel.id, c.monthlyAmount, c.dueDay, c.effectiveFrom from FeeConfig c")
+    List<Object[]> findTimelineRows();
+
+    @Query("select c.id, c.hostel.id, c.monthlyAmount, c.dueDay, c.effectiveFrom from FeeConfig c where c.hostel.id = :hostelId")
+    List<Object[]> findTimelineRows(@Param("hostelId") Long hostelId);
 }
@@ -0,0 +1,23 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.FeeGenerationState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+public interface FeeGenerationStateRepository extends JpaRepository<FeeGenerationState, Long> {
+
+    // Hostels with a config in force on the month's first day and no watermark for the month yet
+    @Query("""
+        select count(h) from Hostel h
+        where exists (
+            select c.id from FeeConfig c
+            where c.hostel = h and c.dueDay is not null and c.effectiveFrom <= :firstDay)
+        and not exists (
+            select s.hostelId from FeeGenerationState s
+            where s.hostelId = h.id and s.lastGeneratedMonth = :month)
+    """)
+    long countHostelsToGenerate(@Param("month") String month, @Param("firstDay") LocalDate firstDay);
+}
@@ -1,42 +1,79 @@
 package com.innovatewithomer.hostel_management.repositories;
 
+import com.innovatewithomer.hostel_management.dto.FeeListItem;
 import com.innovatewithomer.hostel_management.entities.Fee;
 import com.innovatewithomer.hostel_management.entities.FeeStatus;
 import com.innovatewithomer.hostel_management.entities.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FeeRepository extends JpaRepository<Fee, Long> {
 
+    @EntityGraph("Fee.student")
     List<Fee> findByStudentId(Long studentId);
 
-    List<Fee> findByStatus(FeeStatus status);
-
-    List<Fee> findByHostel_Id(Long hostelId);
-
-    Optional<Fee> findByIdAndStudentId(Long feeId, Long studentId);
-
-    List<Fee> findAllByStudentId(Long studentId);
-
+    @EntityGraph("Fee.student")
+    List<Fee> findByStatusAndIdGreaterThanOrderById(FeeStatus status, long afterId, Limit limit);
 
     @Query("""
-        SELECT f FROM Fee f
-        WHERE f.status <> 'PAID'
-        AND f.dueDate < CURRENT_DATE
+        select new com.innovatewithomer.hostel_management.dto.FeeListItem(
+               f.id, f.month, f.amount, f.dueDate, f.paidOn, f.status,
+               s.id, s.rollNo, u.id, u.name, u.email)
+        from Fee f
+        join f.student s
+        join s.user u
+        where f.hostel.id = :hostelId
+          and f.id > :afterId
+          and (:status is null or f.status = :status)
+          and (:month is null or f.month = :month)
+        order by f.id
     """)
-    List<Fee> findOverdueFees();
+    List<FeeListItem> findListByHostel(@Param("hostelId") Long hostelId,
+                                       @Param("status") FeeStatus status,
+                                       @Param("month") String month,
+                                       @Param("afterId") long afterId,
+                                       Limit limit);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
     @Query("""
-        select COALESCE(SUM(f.amount), 0)
+        select new com.innovatewithomer.hostel_management.dto.FeeListItem(
+               f.id, f.month, f.amount, f.dueDate, f.paidOn, f.status,
+               s.id, s.rollNo, u.id, u.name, u.email)
         from Fee f
+        join f.student s
+        join s.user u
         where f.hostel.id = :hostelId
-            and f.status = com.innovatewithomer.hostel_management.entities.FeeStatus.UNPAID
+          and (:status is null or f.status = :status)
+          and (:month is null or f.month = :month)
+        order by f.id
     """)
-    Double getTotalUnpaidAmount(@Param("hostelId") Long hostelId);
+    Stream<FeeListItem> streamListByHostel(@Param("hostelId") Long hostelId,
+                                           @Param("status") FeeStatus status,
+                                           @Param("month") String month);
+
+    @EntityGraph("Fee.student")
+    Optional<Fee> findWithStudentById(Long id);
+
+    @EntityGraph("Fee.student")
+    Optional<Fee> findByIdAndStudent_User_Id(Long feeId, Long userId);
+
+    List<Fee> findAllByStudent_User_Id(Long userId);
+
+    @EntityGraph("Fee.student")
+    List<Fee> findByHostel_IdAndStatusAndIdGreaterThanOrderById(Long hostelId, FeeStatus status, long afterId, Limit limit);
 
     @Query("""
     SELECT COALESCE(SUM(f.amount), 0)
@@ -46,15 +83,83 @@ public interface FeeRepository extends JpaRepository<Fee, Long> {
     """)
     Double getStudentTotalCollection(@Param("studentId") Long studentId);
 
-    @Query("""
-    select coalesce(sum(f.amount), 0)
-    from Fee f
-    where f.hostel.id = :hostelId
-      and f.status = com.innovatewithomer.hostel_management.entities.FeeStatus.PAID
-""")
-    Double getTotalCollectedByHostel(@Param("hostelId") Long hostelId);
+    long countByHostel_IdAndMonth(Long hostelId, String month);
 
+    @Query("select f.hostel.id, min(f.id), max(f.id) from Fee f where f.status = :status group by f.hostel.id")
+    List<Object[]> findIdRangesByHostelAndStatus(@Param("status") FeeStatus status);
+
+    // One page of a hostel's fees for a month, with what a receipt prints already fetched
+    @Query("""
+        select f from Fee f
+        join fetch f.student s
+        join fetch s.user
+        where f.hostel.id = :hostelId
+          and f.month = :month
+          and f.id > :afterId
+        order by f.id
+    """)
+    List<Fee> findReceiptBatch(@Param("hostelId") Long hostelId,
+                               @Param("month") String month,
+                               @Param("afterId") long afterId,
+                               Pageable pageable);
 
     boolean existsByStudentAndMonth(Student student, String month);
-}
 
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fees"))
+    @Query(value = """
+        INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+        SELECT nextval('fees_seq'), s.id, s.hostel_id, :month, :amount, :dueDate, :status
+        FROM students s
+        WHERE s.hostel_id = :hostelId
+          AND s.id BETWEEN :fromId AND :toId
+        ON CONFLICT (student_id, month) DO NOTHING
+    """, nativeQuery = true)
+    int generateHostelFees(@Param("hostelId") Long hostelId,
+                           @Param("fromId") long fromId,
+                           @Param("toId") long toId,
+                           @Param("month") String month,
+                           @Param("amount") double amount,
+                           @Param("dueDate") LocalDate dueDate,
+                           @Param("status") String status);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fees"))
+    @Query(value = """
+        INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+        SELECT nextval('fees_seq'), s.id, s.hostel_id, :month, :amount, :dueDate, :status
+        FROM students s
+        WHERE s.id = :studentId
+        ON CONFLICT (student_id, month) DO NOTHING
+    """, nativeQuery = true)
+    int generateStudentFee(@Param("studentId") Long studentId,
+                           @Param("month") String month,
+                           @Param("amount") double amount,
+                           @Param("dueDate") LocalDate dueDate,
+                           @Param("status") String status);
+
+    /**
+     * Moves up to {@code batchSize} UNPAID fees due before {@code before} to OVERDUE and returns
+     * what moved, grouped as (hostel_id, month, count, amount) for the rollups. Waits for fees
+     * another transaction has locked rather than skipping them.
+     */
+    @Query(value = """
+        WITH moved AS (
+            UPDATE fees SET status = 'OVERDUE'
+            WHERE id IN (
+                SELECT id FROM fees
+                WHERE status = 'UNPAID'
+                  AND due_date < :before
+                ORDER BY id
+                LIMIT :batchSize
+                FOR UPDATE
+            )
+            RETURNING hostel_id, month, amount
+        )
+        SELECT hostel_id, month, COUNT(*), SUM(amount)
+        FROM moved
+        GROUP BY hostel_id, month
+    """, nativeQuery = true)
+    List<Object[]> markOverdue(@Param("before") LocalDate before,
+                               @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,66 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.FeeRollup;
+import com.innovatewithomer.hostel_management.entities.FeeRollupId;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FeeRollupRepository extends JpaRepository<FeeRollup, FeeRollupId> {
+
+    List<FeeRollup> findById_HostelIdOrderById_MonthDesc(Long hostelId);
+
+    @Query("""
+        select coalesce(sum(r.totalAmount), 0)
+        from FeeRollup r
+        where r.id.hostelId = :hostelId
+          and r.id.status in :statuses
+    """)
+    Double sumAmount(@Param("hostelId") Long hostelId, @Param("statuses") Collection<FeeStatus> statuses);
+
+    // Native writes name the table they touch; without it Hibernate clears every cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fee_rollups"))
+    @Query(value = """
+        INSERT INTO fee_rollups (hostel_id, month, status, fee_count, total_amount)
+        VALUES (:hostelId, :month, :status, :count, :amount)
+        ON CONFLICT (hostel_id, month, status) DO UPDATE
+        SET fee_count = fee_rollups.fee_count + EXCLUDED.fee_count,
+            total_amount = fee_rollups.total_amount + EXCLUDED.total_amount
+    """, nativeQuery = true)
+    void applyDelta(@Param("hostelId") Long hostelId,
+                    @Param("month") String month,
+                    @Param("status") String status,
+                    @Param("count") long count,
+                    @Param("amount") double amount);
+
+    // Blocks applyDelta (ROW EXCLUSIVE) until the caller commits; plain reads still go through
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fee_rollups"))
+    @Query(value = "LOCK TABLE fee_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockAgainstDeltas();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fee_rollups"))
+    @Query(value = "DELETE FROM fee_rollups", nativeQuery = true)
+    void clear();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "fee_rollups"))
+    @Query(value = """
+        INSERT INTO fee_rollups (hostel_id, month, status, fee_count, total_amount)
+        SELECT hostel_id, month, status, COUNT(*), COALESCE(SUM(amount), 0)
+        FROM fees
+        WHERE status IS NOT NULL
+        GROUP BY hostel_id, month, status
+    """, nativeQuery = true)
+    int rebuildFromFees();
+}
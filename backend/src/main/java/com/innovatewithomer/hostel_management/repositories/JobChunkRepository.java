@@ -0,0 +1,49 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.JobChunk;
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface JobChunkRepository extends JpaRepository<JobChunk, Long> {
+    List<JobChunk> findByJobRunId(Long jobRunId);
+    List<JobChunk> findByJobRunIdAndStatusNot(Long jobRunId, JobStatus status);
+    long countByJobRunIdAndStatusNot(Long jobRunId, JobStatus status);
+
+    @Modifying
+    @Query("""
+        update JobChunk c
+        set c.status = com.innovatewithomer.hostel_management.entities.JobStatus.COMPLETED,
+            c.processed = :processed,
+            c.attempts = c.attempts + 1,
+            c.error = null,
+            c.updatedAt = :now
+        where c.id = :id
+    """)
+    void markCompleted(@Param("id") Long id, @Param("processed") long processed, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+        update JobChunk c
+        set c.status = com.innovatewithomer.hostel_management.entities.JobStatus.FAILED,
+            c.attempts = c.attempts + 1,
+            c.error = :error,
+            c.updatedAt = :now
+        where c.id = :id
+    """)
+    void markFailed(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Query("""
+        select c.jobRun.id, c.status, count(c), coalesce(sum(c.processed), 0)
+        from JobChunk c
+        where c.jobRun.id in :runIds
+        group by c.jobRun.id, c.status
+    """)
+    List<Object[]> summarize(@Param("runIds") Collection<Long> runIds);
+}
@@ -0,0 +1,12 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.JobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+    Optional<JobRun> findByJobNameAndRunKey(String jobName, String runKey);
+    List<JobRun> findTop20ByOrderByIdDesc();
+}
@@ -0,0 +1,63 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.OutboxEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // Moves due rows to SENDING and returns them. Other nodes skip locked rows instead of waiting.
+    // Plain emails go before campaign emails, and paused campaigns are left alone.
+    @Query(value = """
+        WITH claimed AS (
+            UPDATE email_outbox
+            SET status = 'SENDING', claimed_at = :now
+            WHERE id IN (
+                SELECT e.id FROM email_outbox e
+                WHERE e.status = 'PENDING'
+                  AND e.next_attempt_at <= :now
+                  AND (e.campaign_id IS NULL OR e.campaign_id NOT IN (
+                        SELECT c.id FROM reminder_campaigns c WHERE c.status = 'PAUSED'))
+                ORDER BY e.campaign_id NULLS FIRST, e.id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING *
+        )
+        SELECT * FROM claimed ORDER BY campaign_id NULLS FIRST, id
+    """, nativeQuery = true)
+    List<OutboxEmail> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // A row left in SENDING means the sender stopped mid-batch, so whether it went out is unknown.
+    // Campaign emails are given up on rather than risking a second copy; others are tried again.
+    @Modifying
+    @Query("""
+        update OutboxEmail e
+        set e.status = com.innovatewithomer.hostel_management.entities.OutboxStatus.FAILED,
+            e.lastError = 'Interrupted while sending, delivery unknown'
+        where e.status = com.innovatewithomer.hostel_management.entities.OutboxStatus.SENDING
+          and e.claimedAt < :before and e.campaignId is not null
+    """)
+    int failInterruptedCampaignEmails(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("""
+        update OutboxEmail e
+        set e.status = com.innovatewithomer.hostel_management.entities.OutboxStatus.PENDING
+        where e.status = com.innovatewithomer.hostel_management.entities.OutboxStatus.SENDING
+          and e.claimedAt < :before and e.campaignId is null
+    """)
+    int releaseInterrupted(@Param("before") LocalDateTime before);
+
+    @Query("select e.status, count(e) from OutboxEmail e where e.campaignId = :campaignId group by e.status")
+    List<Object[]> countByStatus(@Param("campaignId") Long campaignId);
+
+    @Modifying
+    @Query("delete from OutboxEmail e where e.status = com.innovatewithomer.hostel_management.entities.OutboxStatus.SENT and e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
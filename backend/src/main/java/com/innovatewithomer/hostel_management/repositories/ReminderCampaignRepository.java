@@ -0,0 +1,12 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.CampaignStatus;
+import com.innovatewithomer.hostel_management.entities.ReminderCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ReminderCampaignRepository extends JpaRepository<ReminderCampaign, Long> {
+
+    List<ReminderCampaign> findByStatusAndQueuedAtIsNull(CampaignStatus status);
+}
@@ -1,14 +1,60 @@
 package com.innovatewithomer.hostel_management.repositories;
 
+import com.innovatewithomer.hostel_management.dto.RoomOccupancyRow;
 import com.innovatewithomer.hostel_management.entities.Room;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
-    List<Room> findByHostel_Id(Long hostelId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+        select r from Room r
+        where r.hostel.id = :hostelId
+          and r.id > :afterId
+          and (:block is null or r.block = :block)
+        order by r.id
+    """)
+    List<Room> findPageByHostel(@Param("hostelId") Long hostelId,
+                                @Param("block") String block,
+                                @Param("afterId") long afterId,
+                                Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Room> findByIdAndHostel_Id(Long id, Long hostelId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     boolean existsByHostelIdAndBlockAndRoomNumber(Long id, String block, String roomNumber);
+
+    @Query("""
+        select r.id as roomId,
+               r.block as block,
+               r.roomNumber as roomNumber,
+               r.capacity as capacity,
+               count(a.id) as occupiedBeds
+        from Room r
+        left join Allocation a on a.room = r and a.active = true
+        where r.hostel.id = :hostelId
+        group by r.id, r.block, r.roomNumber, r.capacity
+        order by r.block, r.roomNumber
+    """)
+    List<RoomOccupancyRow> findOccupancyByHostel(@Param("hostelId") Long hostelId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from Room r where r.id in :ids order by r.id")
+    List<Room> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
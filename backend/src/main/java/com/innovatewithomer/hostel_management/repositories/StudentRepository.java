@@ -1,16 +1,52 @@
 package com.innovatewithomer.hostel_management.repositories;
 
-import com.innovatewithomer.hostel_management.entities.Hostel;
+import com.innovatewithomer.hostel_management.dto.StudentListItem;
 import com.innovatewithomer.hostel_management.entities.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
     Optional<Student> findByUserId(Long userId);
-    Optional<Student> findByUserEmail(String email);
-    List<Student> findAllByHostel_Id(Long hostelId);
+    @EntityGraph("Student.user")
+    Optional<Student> findWithUserByUserId(Long userId);
+    @EntityGraph("Student.user")
+    Optional<Student> findWithUserById(Long id);
+    @Query("""
+        select new com.innovatewithomer.hostel_management.dto.StudentListItem(
+               s.id, s.rollNo, s.phone, s.guardianName, s.guardianPhone, u.id, u.name, u.email)
+        from Student s
+        join s.user u
+        where s.hostel.id = :hostelId
+          and s.id > :afterId
+        order by s.id
+    """)
+    List<StudentListItem> findListByHostel(@Param("hostelId") Long hostelId,
+                                           @Param("afterId") long afterId,
+                                           Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        select new com.innovatewithomer.hostel_management.dto.StudentListItem(
+               s.id, s.rollNo, s.phone, s.guardianName, s.guardianPhone, u.id, u.name, u.email)
+        from Student s
+        join s.user u
+        where s.hostel.id = :hostelId
+        order by s.id
+    """)
+    Stream<StudentListItem> streamListByHostel(@Param("hostelId") Long hostelId);
+
+    @Query("select s.hostel.id, min(s.id), max(s.id) from Student s group by s.hostel.id")
+    List<Object[]> findIdRangesByHostel();
 
 //    List<Student> findByHostelAndActiveTrue(Hostel hostel);
 }
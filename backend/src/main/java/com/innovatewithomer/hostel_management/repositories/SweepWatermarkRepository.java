@@ -0,0 +1,7 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.SweepWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SweepWatermarkRepository extends JpaRepository<SweepWatermark, String> {
+}
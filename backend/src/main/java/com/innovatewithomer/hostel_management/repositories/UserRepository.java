@@ -1,11 +1,46 @@
 package com.innovatewithomer.hostel_management.repositories;
 
+import com.innovatewithomer.hostel_management.dto.UserListItem;
+import com.innovatewithomer.hostel_management.entities.Role;
 import com.innovatewithomer.hostel_management.entities.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Optional<User> findByEmailAndStudent_Hostel_Id(String email, Long hostelId);
+
+    @Query("""
+        select new com.innovatewithomer.hostel_management.dto.UserListItem(
+               u.id, u.name, u.email, u.emailVerified, u.role, u.active, u.hostel.id)
+        from User u
+        where u.id > :afterId
+          and (:role is null or u.role = :role)
+          and (:active is null or u.active = :active)
+        order by u.id
+    """)
+    List<UserListItem> findList(@Param("role") Role role,
+                                @Param("active") Boolean active,
+                                @Param("afterId") long afterId,
+                                Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        select new com.innovatewithomer.hostel_management.dto.UserListItem(
+               u.id, u.name, u.email, u.emailVerified, u.role, u.active, u.hostel.id)
+        from User u
+        where (:role is null or u.role = :role)
+          and (:active is null or u.active = :active)
+        order by u.id
+    """)
+    Stream<UserListItem> streamList(@Param("role") Role role, @Param("active") Boolean active);
 }
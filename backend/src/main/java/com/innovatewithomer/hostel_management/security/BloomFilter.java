@@ -0,0 +1,63 @@
+package com.innovatewithomer.hostel_management.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-size Bloom filter over strings. {@link #mightContain} never misses an added value;
+ * it can answer true for values that were never added, so callers confirm hits elsewhere.
+ */
+final class BloomFilter {
+
+    private static final int HASHES = 7;
+    // ~10 bits per expected entry keeps false positives around 1% with 7 hashes
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final AtomicLongArray words;
+    private final int mask;
+
+    BloomFilter(int expectedEntries) {
+        int bits = Integer.highestOneBit(Math.max(1024, expectedEntries * BITS_PER_ENTRY - 1)) << 1;
+        this.words = new AtomicLongArray(bits >>> 6);
+        this.mask = bits - 1;
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            int word = bit >>> 6;
+            long flag = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & flag) == 0 && !words.compareAndSet(word, current, current | flag));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Two independent 32-bit hashes packed into one long, for double hashing
+    private static long hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        long low = crc.getValue();
+        long high = value.hashCode() * 0x9E3779B9L | 1;
+        return (high << 32) | low;
+    }
+}
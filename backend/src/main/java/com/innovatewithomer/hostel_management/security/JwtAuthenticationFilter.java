@@ -1,6 +1,5 @@
 package com.innovatewithomer.hostel_management.security;
 
-import com.innovatewithomer.hostel_management.services.CustomUserDetailsService;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import org.springframework.security.authentication.*;
@@ -16,12 +15,15 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final TokenDenylist tokenDenylist;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
-                                   CustomUserDetailsService userDetailsService) {
+                                   PrincipalCache principalCache,
+                                   TokenDenylist tokenDenylist) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.tokenDenylist = tokenDenylist;
     }
 
     @Override
@@ -35,10 +37,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
 
-            if (jwtUtil.isTokenValid(token)) {
-                String email = jwtUtil.extractEmail(token);
-                UserDetails userDetails =
-                        userDetailsService.loadUserByUsername(email);
+            UserDetails userDetails = jwtUtil.verify(token)
+                    .filter(claims -> !tokenDenylist.isRevoked(claims.getId()))
+                    .map(principalCache::resolve)
+                    .orElse(null);
+
+            if (userDetails != null && userDetails.isEnabled()) {
 
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(
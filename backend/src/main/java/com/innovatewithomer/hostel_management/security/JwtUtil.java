@@ -1,59 +1,139 @@
 package com.innovatewithomer.hostel_management.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.innovatewithomer.hostel_management.entities.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
 
+    public static final String USER_ID = "uid";
+    public static final String TOKEN_VERSION = "ver";
+    public static final String HOSTEL_ID = "hid";
+    public static final String ROLE = "role";
+    public static final String ACTIVE = "act";
+
     private static final String SECRET_KEY =
             "h7f9s8d7f9s8d7f9s8d7f9s8d7f9s8d7";
 
-    private static final long EXPIRATION_TIME =
-            1000L * 60 * 60 * 24;
+    private static final int VERIFIED_CACHE_SIZE = 10_000;
 
     private final SecretKey key =
             Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
 
-    public String generateToken(String email, String role) {
-        return Jwts.builder()
-                .setSubject(email)
-                .claim("role", role)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+    // Parsers are immutable and thread-safe, so one is enough
+    private final JwtParser parser = Jwts.parser()
+            .verifyWith(key)
+            .build();
+
+    // Digest of a recently verified token -> its claims, dropped when the token expires
+    private final Cache<String, Claims> verified = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_CACHE_SIZE)
+            .expireAfter(Expiry.<String, Claims>creating((digest, claims) ->
+                    Duration.ofMillis(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()))))
+            .build();
+
+    private final Duration accessTokenTtl;
+
+    public JwtUtil(@Value("${security.jwt.access-ttl:15m}") Duration accessTokenTtl) {
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public record AccessToken(String token, String id, Date expiresAt) {
+    }
+
+    public String generateToken(User user) {
+        return issueAccessToken(user).token();
+    }
+
+    public AccessToken issueAccessToken(User user) {
+        String id = UUID.randomUUID().toString();
+        Date expiresAt = new Date(System.currentTimeMillis() + accessTokenTtl.toMillis());
+
+        String token = Jwts.builder()
+                .id(id)
+                .subject(user.getEmail())
+                .claim(USER_ID, user.getId())
+                .claim(TOKEN_VERSION, user.getTokenVersion())
+                .claim(HOSTEL_ID, user.getHostel() != null ? user.getHostel().getId() : null)
+                .claim(ROLE, user.getRole().name())
+                .claim(ACTIVE, user.isActive())
+                .issuedAt(new Date())
+                .expiration(expiresAt)
                 .signWith(key)
                 .compact();
+
+        return new AccessToken(token, id, expiresAt);
+    }
+
+    /**
+     * Verifies the token once and returns all of its claims, or empty if it is invalid or expired.
+     * Tokens seen recently are answered from a cache instead of being verified again.
+     */
+    public Optional<Claims> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        String digest = digest(token);
+        Claims claims = verified.getIfPresent(digest);
+        if (claims != null) {
+            if (claims.getExpiration().after(new Date())) {
+                return Optional.of(claims);
+            }
+            verified.invalidate(digest);
+            return Optional.empty();
+        }
+
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        if (claims.getExpiration() == null) {
+            return Optional.empty();
+        }
+        verified.put(digest, claims);
+        return Optional.of(claims);
     }
 
     public String extractEmail(String token) {
-        return getClaims(token).getSubject();
+        return verify(token).map(Claims::getSubject).orElse(null);
     }
 
     public String extractRole(String token) {
-        return getClaims(token).get("role", String.class);
+        return verify(token).map(claims -> claims.get(ROLE, String.class)).orElse(null);
     }
 
     public boolean isTokenValid(String token) {
-        try {
-            Claims claims = getClaims(token);
-            return claims.getExpiration().after(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
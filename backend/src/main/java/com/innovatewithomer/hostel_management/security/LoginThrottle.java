@@ -0,0 +1,96 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket limits on login attempts, one bucket per client IP and one per email,
+ * checked before any password hashing happens.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Duration IDLE_BUCKET_EXPIRY = Duration.ofMinutes(30);
+    private static final long MAX_BUCKETS = 100_000;
+
+    private final Cache<String, TokenBucket> ipBuckets = buckets();
+    private final Cache<String, TokenBucket> emailBuckets = buckets();
+
+    private final int ipCapacity;
+    private final int ipPerMinute;
+    private final int emailCapacity;
+    private final int emailPerMinute;
+    private final LongSupplier clock;
+
+    private final Counter ipRejections;
+    private final Counter emailRejections;
+
+    @Autowired
+    public LoginThrottle(MeterRegistry meterRegistry,
+                         @Value("${security.login.ip.capacity:30}") int ipCapacity,
+                         @Value("${security.login.ip.per-minute:30}") int ipPerMinute,
+                         @Value("${security.login.email.capacity:5}") int emailCapacity,
+                         @Value("${security.login.email.per-minute:5}") int emailPerMinute) {
+        this(meterRegistry, ipCapacity, ipPerMinute, emailCapacity, emailPerMinute, System::nanoTime);
+    }
+
+    LoginThrottle(MeterRegistry meterRegistry, int ipCapacity, int ipPerMinute,
+                  int emailCapacity, int emailPerMinute, LongSupplier clock) {
+        this.ipCapacity = ipCapacity;
+        this.ipPerMinute = ipPerMinute;
+        this.emailCapacity = emailCapacity;
+        this.emailPerMinute = emailPerMinute;
+        this.clock = clock;
+        this.ipRejections = rejections(meterRegistry, "ip");
+        this.emailRejections = rejections(meterRegistry, "email");
+    }
+
+    /**
+     * @throws TooManyRequestsException if either the IP or the email has run out of attempts
+     */
+    public void check(String email, String ip) {
+        long now = clock.getAsLong();
+
+        long wait = ipBuckets.get(ip, key -> new TokenBucket(ipCapacity, ipPerMinute, now)).tryConsume(now);
+        if (wait > 0) {
+            ipRejections.increment();
+            throw new TooManyRequestsException("Too many login attempts, try again later", seconds(wait));
+        }
+
+        if (email == null) return;
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        wait = emailBuckets.get(key, k -> new TokenBucket(emailCapacity, emailPerMinute, now)).tryConsume(now);
+        if (wait > 0) {
+            emailRejections.increment();
+            throw new TooManyRequestsException("Too many login attempts, try again later", seconds(wait));
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.rejected")
+                .description("Login attempts refused before checking the password")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static Cache<String, TokenBucket> buckets() {
+        return Caffeine.newBuilder()
+                .maximumSize(MAX_BUCKETS)
+                .expireAfterAccess(IDLE_BUCKET_EXPIRY)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.innovatewithomer.hostel_management.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Small fixed pool for BCrypt checks, so a login burst cannot occupy the request threads.
+ * When every worker is busy and the queue is full, new checks are refused with a 429.
+ */
+@Component
+public class PasswordCheckExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer checkTimer;
+    private final Counter saturatedRejections;
+
+    public PasswordCheckExecutor(MeterRegistry meterRegistry,
+                                 @Value("${security.login.bcrypt-threads:4}") int threads,
+                                 @Value("${security.login.bcrypt-queue:64}") int queueSize) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-check-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.checkTimer = Timer.builder("auth.password.check")
+                .description("Time spent verifying a login password")
+                .register(meterRegistry);
+        this.saturatedRejections = Counter.builder("auth.login.rejected")
+                .description("Login attempts refused before checking the password")
+                .tag("reason", "saturated")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue", executor, e -> e.getQueue().size())
+                .description("Password checks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> check) {
+        try {
+            return CompletableFuture.supplyAsync(() -> checkTimer.record(check), executor);
+        } catch (RejectedExecutionException e) {
+            saturatedRejections.increment();
+            throw new TooManyRequestsException("Server is busy, try again shortly", 1);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,88 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.entities.Role;
+import com.innovatewithomer.hostel_management.services.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Turns verified token claims into a principal without a users lookup per request.
+ * <p>
+ * In {@code cache} mode principals are loaded once per (user id, token version) and kept for
+ * a short TTL; revoking a user evicts them here and bumps the version so older tokens stop
+ * resolving. In {@code claims} mode the principal is built from the signed claims alone,
+ * including whether the user was active when the token was issued, and the database is never
+ * consulted, so a revocation only takes effect when the token expires.
+ */
+@Component
+public class PrincipalCache {
+
+    public enum Mode {
+        CACHE,
+        CLAIMS
+    }
+
+    private record Key(Long userId, int tokenVersion) {
+    }
+
+    private final CustomUserDetailsService userDetailsService;
+    private final Mode mode;
+    private final Cache<Key, UserPrincipal> principals;
+
+    public PrincipalCache(CustomUserDetailsService userDetailsService,
+                          @Value("${security.principal.mode:cache}") Mode mode,
+                          @Value("${security.principal.cache-ttl:60s}") Duration ttl,
+                          @Value("${security.principal.cache-size:10000}") long maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.mode = mode;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @return the principal for the token, or null if the token no longer matches its user
+     */
+    public UserPrincipal resolve(Claims claims) {
+        Long userId = claims.get(JwtUtil.USER_ID, Long.class);
+        if (userId == null) {
+            // Issued before tokens carried the user id; the user may have been deleted or renamed since
+            try {
+                return (UserPrincipal) userDetailsService.loadUserByUsername(claims.getSubject());
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        }
+
+        int tokenVersion = claims.get(JwtUtil.TOKEN_VERSION, Integer.class);
+
+        Boolean active = claims.get(JwtUtil.ACTIVE, Boolean.class);
+
+        // Tokens issued before they carried the active flag are checked against the database
+        if (mode == Mode.CLAIMS && active != null) {
+            return new UserPrincipal(
+                    userId,
+                    claims.get(JwtUtil.HOSTEL_ID, Long.class),
+                    claims.getSubject(),
+                    null,
+                    Role.valueOf(claims.get(JwtUtil.ROLE, String.class)),
+                    active
+            );
+        }
+
+        return principals.get(new Key(userId, tokenVersion),
+                key -> userDetailsService.loadUserById(key.userId(), key.tokenVersion()).orElse(null));
+    }
+
+    public void evict(Long userId) {
+        principals.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+}
@@ -0,0 +1,35 @@
+package com.innovatewithomer.hostel_management.security;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills continuously.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, int tokensPerMinute, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerMinute / 60e9;
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes one token if there is one.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next one is available
+     */
+    synchronized long tryConsume(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,116 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.innovatewithomer.hostel_management.entities.RevokedToken;
+import com.innovatewithomer.hostel_management.repositories.RevokedTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access token ids (jti) that have been revoked before their expiry. Checked on every request
+ * without touching the database: a Bloom filter rules out almost every token in a few bit reads,
+ * and the exact set confirms the rare hit. The revoked_tokens table is the source of truth;
+ * it is loaded before the server accepts requests, so a restart never lets a revoked token
+ * through, and polled so revocations made on other nodes show up here too.
+ */
+@Slf4j
+@Component
+public class TokenDenylist implements SmartInitializingSingleton {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // jti -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(0);
+    private volatile LocalDateTime lastSync;
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository, PlatformTransactionManager transactionManager) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Records the revocation. Joins the caller's transaction if there is one and takes effect locally once it commits.
+     */
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null || !expiresAt.isAfter(LocalDateTime.now())) return;
+
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt, LocalDateTime.now()));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(jti, expiresAt);
+                }
+            });
+        } else {
+            add(jti, expiresAt);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    public synchronized void load() {
+        LocalDateTime now = LocalDateTime.now();
+        revoked.clear();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            revoked.put(token.getJti(), toMillis(token.getExpiresAt()));
+        }
+        lastSync = now;
+        rebuildFilter();
+        log.info("Token denylist loaded: {} revoked tokens", revoked.size());
+    }
+
+    // Picks up revocations from other nodes and forgets tokens that have expired on their own
+    @Scheduled(fixedDelayString = "${security.denylist.sync-interval:30s}")
+    public synchronized void sync() {
+        if (lastSync == null) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap the window a little so a slow commit on another node is not skipped
+        for (RevokedToken token : revokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(lastSync.minusSeconds(5), now)) {
+            add(token.getJti(), token.getExpiresAt());
+        }
+        lastSync = now;
+
+        long nowMillis = System.currentTimeMillis();
+        if (revoked.values().removeIf(expiry -> expiry <= nowMillis)) {
+            rebuildFilter();
+        }
+        transactionTemplate.executeWithoutResult(status -> revokedTokenRepository.deleteExpired(now));
+    }
+
+    private synchronized void add(String jti, LocalDateTime expiresAt) {
+        revoked.put(jti, toMillis(expiresAt));
+        filter.add(jti);
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(revoked.size() * 2);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,328 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.dto.AllocationStrategy;
+import com.innovatewithomer.hostel_management.dto.BulkAllocationResult;
+import com.innovatewithomer.hostel_management.entities.Allocation;
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
+import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import com.innovatewithomer.hostel_management.repositories.StudentRepository;
+import com.innovatewithomer.hostel_management.services.BedOccupancyIndex.RoomSnapshot;
+import com.innovatewithomer.hostel_management.services.BulkAllocationPlanner.Placement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Places students on beds so that concurrent admins can never hand out the same
+ * bed twice or give one student two active allocations.
+ *
+ * Inside one instance, allocations to the same room are serialized by a striped
+ * lock, always taken in ascending stripe order. Across instances the room row is
+ * locked with SELECT ... FOR UPDATE (again in ascending room id order) and the
+ * partial unique indexes from db/migration/V1__baseline.sql are the last line of
+ * defence: a bed conflict re-reads the room from the database and retries on the
+ * next free bed.
+ */
+@Slf4j
+@Service
+public class AllocationService {
+
+    static final String ACTIVE_BED_CONSTRAINT = "uk_allocations_active_bed";
+    static final String ACTIVE_STUDENT_CONSTRAINT = "uk_allocations_active_student";
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int BULK_ATTEMPTS = 3;
+    private static final int PLACE_ATTEMPTS = 3;
+
+    private final AllocationRepository allocationRepository;
+    private final RoomRepository roomRepository;
+    private final StudentRepository studentRepository;
+    private final BedOccupancyIndex bedOccupancyIndex;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock[] roomLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public AllocationService(AllocationRepository allocationRepository,
+                             RoomRepository roomRepository,
+                             StudentRepository studentRepository,
+                             BedOccupancyIndex bedOccupancyIndex,
+                             PlatformTransactionManager transactionManager) {
+        this.allocationRepository = allocationRepository;
+        this.roomRepository = roomRepository;
+        this.studentRepository = studentRepository;
+        this.bedOccupancyIndex = bedOccupancyIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            roomLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Allocates a specific bed, or the first free bed of the room when {@code bedNumber} is null.
+     */
+    public Allocation allocate(Long studentId, Long roomId, Integer bedNumber, Long hostelId) {
+        return withRoomLocks(roomId, roomId, () -> placeWithRetry(studentId, roomId, bedNumber, hostelId, null));
+    }
+
+    public Allocation transfer(Long studentId, Long roomId, Long hostelId) {
+        Long currentRoomId = allocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue(studentId, hostelId)
+                .map(a -> a.getRoom().getId())
+                .orElse(roomId);
+
+        return withRoomLocks(currentRoomId, roomId, () -> placeWithRetry(studentId, roomId, null, hostelId, currentRoomId));
+    }
+
+    public void deallocate(Long allocationId) {
+        Allocation allocation = allocationRepository.findById(allocationId)
+                .orElseThrow(() -> new RuntimeException("Allocation not found"));
+
+        Long roomId = allocation.getRoom().getId();
+        withRoomLocks(roomId, roomId, () -> transactionTemplate.execute(status -> {
+            roomRepository.findByIdForUpdate(roomId);
+            Allocation current = allocationRepository.findById(allocationId)
+                    .orElseThrow(() -> new RuntimeException("Allocation not found"));
+
+            if (current.isActive()) {
+                current.setActive(false);
+                allocationRepository.save(current);
+                bedOccupancyIndex.release(roomId, current.getBedNumber());
+            }
+            return current;
+        }));
+    }
+
+    /**
+     * Places a whole list of students in one transaction, using the given strategy over the
+     * hostel's current free beds. Every student gets a line in the result, placed or not.
+     */
+    public List<BulkAllocationResult> allocateBulk(List<Long> studentIds, AllocationStrategy strategy, String block, Long hostelId) {
+        for (int attempt = 1; ; attempt++) {
+            List<Long> roomIds = bedOccupancyIndex.roomsWithFreeBeds(hostelId, block, 1)
+                    .stream()
+                    .map(RoomSnapshot::roomId)
+                    .toList();
+
+            try {
+                return withRoomLocks(roomIds, () -> transactionTemplate.execute(status ->
+                        placeBulk(studentIds, strategy, roomIds, hostelId)));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Bulk allocation conflicted with a concurrent change (attempt {})", attempt);
+                for (Long roomId : roomIds) {
+                    bedOccupancyIndex.resync(roomId, allocationRepository.findActiveBedNumbers(roomId));
+                }
+                if (attempt == BULK_ATTEMPTS) {
+                    throw new RuntimeException("Bulk allocation conflicted with other allocations, please retry");
+                }
+            }
+        }
+    }
+
+    private List<BulkAllocationResult> placeBulk(List<Long> studentIds, AllocationStrategy strategy, List<Long> roomIds, Long hostelId) {
+        Map<Long, Room> rooms = new HashMap<>();
+        if (!roomIds.isEmpty()) {
+            for (Room room : roomRepository.findAllByIdForUpdate(roomIds)) {
+                rooms.put(room.getId(), room);
+            }
+        }
+
+        Map<Long, Student> students = new HashMap<>();
+        for (Student student : studentRepository.findAllById(studentIds)) {
+            students.put(student.getId(), student);
+        }
+        Set<Long> alreadyAllocated = students.isEmpty()
+                ? Set.of()
+                : new HashSet<>(allocationRepository.findActiveStudentIds(students.keySet()));
+
+        Map<Long, BulkAllocationResult> results = new LinkedHashMap<>();
+        List<Student> eligible = new ArrayList<>();
+
+        for (Long studentId : studentIds) {
+            if (results.containsKey(studentId)) continue;
+
+            BulkAllocationResult result = new BulkAllocationResult();
+            result.setStudentId(studentId);
+            results.put(studentId, result);
+
+            Student student = students.get(studentId);
+            if (student == null) {
+                result.setMessage("Student not found");
+            } else if (!student.getHostel().getId().equals(hostelId)) {
+                result.setRollNo(student.getRollNo());
+                result.setMessage("Student belongs to another hostel");
+            } else if (alreadyAllocated.contains(studentId)) {
+                result.setRollNo(student.getRollNo());
+                result.setMessage("Student already has an active allocation");
+            } else {
+                result.setRollNo(student.getRollNo());
+                eligible.add(student);
+            }
+        }
+
+        List<RoomSnapshot> snapshots = new ArrayList<>();
+        for (Long roomId : rooms.keySet()) {
+            bedOccupancyIndex.snapshot(roomId).ifPresent(snapshots::add);
+        }
+
+        Map<Long, Placement> placements = BulkAllocationPlanner.plan(eligible, snapshots, strategy);
+
+        List<Allocation> allocations = new ArrayList<>();
+        for (Student student : eligible) {
+            BulkAllocationResult result = results.get(student.getId());
+            Placement placement = placements.get(student.getId());
+
+            if (placement == null) {
+                result.setMessage("No free bed available");
+                continue;
+            }
+
+            Allocation allocation = new Allocation();
+            allocation.setStudent(student);
+            allocation.setRoom(rooms.get(placement.room().roomId()));
+            allocation.setBedNumber(placement.bedNumber());
+            allocation.setActive(true);
+            allocations.add(allocation);
+
+            result.setAllocated(true);
+            result.setRoomId(placement.room().roomId());
+            result.setBlock(placement.room().block());
+            result.setRoomNumber(placement.room().roomNumber());
+            result.setBedNumber(placement.bedNumber());
+            result.setMessage("Allocated");
+        }
+
+        allocationRepository.saveAll(allocations);
+        allocationRepository.flush();
+
+        for (Allocation allocation : allocations) {
+            bedOccupancyIndex.occupy(allocation.getRoom().getId(), allocation.getBedNumber());
+        }
+
+        return new ArrayList<>(results.values());
+    }
+
+    private Allocation placeWithRetry(Long studentId, Long roomId, Integer bedNumber, Long hostelId, Long releaseFromRoomId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> place(studentId, roomId, bedNumber, hostelId, releaseFromRoomId));
+            } catch (DataIntegrityViolationException e) {
+                String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+
+                if (cause.contains(ACTIVE_STUDENT_CONSTRAINT)) {
+                    throw new RuntimeException("Student already has an active allocation");
+                }
+                if (!cause.contains(ACTIVE_BED_CONSTRAINT)) {
+                    throw e;
+                }
+
+                // Another instance took the bed between our read and our insert
+                log.warn("Bed conflict in room {} (attempt {})", roomId, attempt);
+                bedOccupancyIndex.resync(roomId, allocationRepository.findActiveBedNumbers(roomId));
+
+                if (bedNumber != null || attempt == PLACE_ATTEMPTS) {
+                    throw new RuntimeException("Bed already occupied");
+                }
+            }
+        }
+    }
+
+    private Allocation place(Long studentId, Long roomId, Integer bedNumber, Long hostelId, Long releaseFromRoomId) {
+        lockRoomRows(roomId, releaseFromRoomId);
+
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new RuntimeException("Student not found"));
+
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new RuntimeException("Room not found"));
+
+        var existing = allocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue(studentId, hostelId);
+        if (existing.isPresent()) {
+            if (releaseFromRoomId == null) {
+                throw new RuntimeException("Student already has an active allocation");
+            }
+            Allocation previous = existing.get();
+            previous.setActive(false);
+            allocationRepository.saveAndFlush(previous);
+            bedOccupancyIndex.release(previous.getRoom().getId(), previous.getBedNumber());
+        }
+
+        int bed;
+        if (bedNumber != null) {
+            if (bedNumber < 1 || bedNumber > room.getCapacity()) {
+                throw new RuntimeException("Invalid bed number for this room");
+            }
+            if (bedOccupancyIndex.isOccupied(roomId, bedNumber)) {
+                throw new RuntimeException("Bed already occupied");
+            }
+            bed = bedNumber;
+        } else {
+            bed = bedOccupancyIndex.firstFreeBed(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room is full"));
+        }
+
+        Allocation allocation = new Allocation();
+        allocation.setStudent(student);
+        allocation.setRoom(room);
+        allocation.setBedNumber(bed);
+        allocation.setActive(true);
+
+        Allocation saved = allocationRepository.saveAndFlush(allocation);
+        bedOccupancyIndex.occupy(roomId, bed);
+        return saved;
+    }
+
+    private void lockRoomRows(Long roomId, Long otherRoomId) {
+        if (otherRoomId == null || otherRoomId.equals(roomId)) {
+            roomRepository.findByIdForUpdate(roomId);
+            return;
+        }
+        roomRepository.findByIdForUpdate(Math.min(roomId, otherRoomId));
+        roomRepository.findByIdForUpdate(Math.max(roomId, otherRoomId));
+    }
+
+    private <T> T withRoomLocks(Long firstRoomId, Long secondRoomId, Supplier<T> action) {
+        return withRoomLocks(List.of(firstRoomId, secondRoomId), action);
+    }
+
+    private <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> action) {
+        // Always lock stripes in ascending order so two callers can never wait on each other
+        TreeSet<Integer> stripes = new TreeSet<>();
+        for (Long roomId : roomIds) {
+            stripes.add(stripe(roomId));
+        }
+
+        List<ReentrantLock> held = new ArrayList<>();
+        try {
+            for (int stripe : stripes) {
+                ReentrantLock lock = roomLocks[stripe];
+                lock.lock();
+                held.add(lock);
+            }
+            return action.get();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private static int stripe(Long roomId) {
+        return (int) Math.floorMod(roomId, (long) LOCK_STRIPES);
+    }
+}
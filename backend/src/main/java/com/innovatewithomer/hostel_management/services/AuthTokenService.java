@@ -0,0 +1,177 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.dto.LoginResponse;
+import com.innovatewithomer.hostel_management.entities.RefreshToken;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.innovatewithomer.hostel_management.repositories.RefreshTokenRepository;
+import com.innovatewithomer.hostel_management.security.JwtUtil;
+import com.innovatewithomer.hostel_management.security.JwtUtil.AccessToken;
+import com.innovatewithomer.hostel_management.security.TokenDenylist;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Issues short-lived access tokens paired with rotating refresh tokens, and revokes them.
+ * Every refresh replaces the refresh token; presenting one that was already replaced ends
+ * all of the user's sessions, since it means the chain has been copied.
+ */
+@Slf4j
+@Service
+public class AuthTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JwtUtil jwtUtil;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenDenylist tokenDenylist;
+    private final Duration refreshTokenTtl;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuthTokenService(JwtUtil jwtUtil,
+                            RefreshTokenRepository refreshTokenRepository,
+                            TokenDenylist tokenDenylist,
+                            @Value("${security.jwt.refresh-ttl:14d}") Duration refreshTokenTtl,
+                            PlatformTransactionManager transactionManager) {
+        this.jwtUtil = jwtUtil;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenDenylist = tokenDenylist;
+        this.refreshTokenTtl = refreshTokenTtl;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public LoginResponse issue(User user) {
+        return transactionTemplate.execute(status -> issueTokens(user));
+    }
+
+    public LoginResponse refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+
+        LoginResponse response = transactionTemplate.execute(status -> {
+            RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                    .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+            User user = current.getUser();
+
+            if (current.getRevokedAt() != null) {
+                log.warn("Replaced refresh token presented again for user {}, revoking all sessions", user.getId());
+                revokeSessions(user.getId());
+                return null;
+            }
+            if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+                throw new RuntimeException("Refresh token expired");
+            }
+            if (!user.isActive()) {
+                throw new RuntimeException("Account is disabled");
+            }
+
+            current.setRevokedAt(LocalDateTime.now());
+            return issueTokens(user);
+        });
+
+        if (response == null) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        return response;
+    }
+
+    /**
+     * Ends one session: the access token stops working at once and its refresh token cannot be used again.
+     */
+    public void logout(Claims accessClaims, String refreshToken) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (accessClaims != null) {
+                tokenDenylist.revoke(accessClaims.getId(), toLocal(accessClaims.getExpiration()));
+            }
+            if (refreshToken != null && !refreshToken.isBlank()) {
+                refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                        .filter(token -> token.getRevokedAt() == null)
+                        .ifPresent(this::revoke);
+            }
+        });
+    }
+
+    /**
+     * Ends every session of the user, e.g. when they are deactivated or their role changes.
+     */
+    public void revokeAll(Long userId) {
+        transactionTemplate.executeWithoutResult(status -> revokeSessions(userId));
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void removeExpired() {
+        Integer removed = transactionTemplate.execute(status -> refreshTokenRepository.deleteExpired(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            log.info("Removed {} expired refresh tokens", removed);
+        }
+    }
+
+    private LoginResponse issueTokens(User user) {
+        AccessToken access = jwtUtil.issueAccessToken(user);
+        String refreshToken = newRefreshToken();
+        LocalDateTime now = LocalDateTime.now();
+
+        refreshTokenRepository.save(new RefreshToken(
+                null,
+                hash(refreshToken),
+                user,
+                now.plus(refreshTokenTtl),
+                now,
+                null,
+                access.id(),
+                toLocal(access.expiresAt())
+        ));
+
+        long expiresIn = Math.max(0, (access.expiresAt().getTime() - System.currentTimeMillis()) / 1000);
+        return new LoginResponse(access.token(), user.getRole().name(), refreshToken, expiresIn);
+    }
+
+    // A rotated refresh token is already revoked, but the access token issued with it still works until it expires
+    private void revokeSessions(Long userId) {
+        refreshTokenRepository.findSessions(userId, LocalDateTime.now()).forEach(this::revoke);
+    }
+
+    private void revoke(RefreshToken token) {
+        if (token.getRevokedAt() == null) {
+            token.setRevokedAt(LocalDateTime.now());
+        }
+        if (token.getAccessTokenId() != null) {
+            tokenDenylist.revoke(token.getAccessTokenId(), token.getAccessExpiresAt());
+        }
+    }
+
+    private static String newRefreshToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static LocalDateTime toLocal(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
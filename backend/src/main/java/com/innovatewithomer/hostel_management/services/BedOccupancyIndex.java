@@ -0,0 +1,235 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
+import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of which beds are taken, one bitset per room grouped by hostel.
+ * Loaded from active allocations before the server accepts requests and kept in step
+ * by the allocation and room endpoints, so bed lookups never have to touch the
+ * allocations table.
+ * <p>
+ * The index belongs to this JVM only. Allocations made through another instance are
+ * caught when placing a bed fails on the database's unique indexes, which resyncs the
+ * room, but beds another instance frees stay taken here until that room is resynced
+ * or the index is rebuilt.
+ */
+@Slf4j
+@Service
+public class BedOccupancyIndex implements SmartInitializingSingleton {
+
+    private final RoomRepository roomRepository;
+    private final AllocationRepository allocationRepository;
+
+    // Replaced as a whole by rebuild, so readers see either the old index or the new one
+    private volatile Rooms current = new Rooms();
+
+    public BedOccupancyIndex(RoomRepository roomRepository, AllocationRepository allocationRepository) {
+        this.roomRepository = roomRepository;
+        this.allocationRepository = allocationRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        Rooms loaded = new Rooms();
+        for (Room room : roomRepository.findAll()) {
+            loaded.put(room);
+        }
+
+        int beds = 0;
+        for (Object[] row : allocationRepository.findActiveBeds()) {
+            RoomSlot slot = loaded.rooms.get((Long) row[0]);
+            if (slot != null) {
+                slot.set((Integer) row[1], true);
+                beds++;
+            }
+        }
+
+        current = loaded;
+        log.info("Bed occupancy index loaded: {} rooms, {} occupied beds", loaded.rooms.size(), beds);
+    }
+
+    // Changes wait for a rebuild in progress, so they land in the index it swaps in
+    public void putRoom(Room room) {
+        afterCommit(() -> current.put(room));
+    }
+
+    public void removeRoom(Long roomId) {
+        afterCommit(() -> current.remove(roomId));
+    }
+
+    public void occupy(Long roomId, int bedNumber) {
+        afterCommit(() -> slot(roomId).ifPresent(s -> s.set(bedNumber, true)));
+    }
+
+    public void release(Long roomId, int bedNumber) {
+        afterCommit(() -> slot(roomId).ifPresent(s -> s.set(bedNumber, false)));
+    }
+
+    /**
+     * Replaces what the index believes about a room with the beds the database reports.
+     */
+    public synchronized void resync(Long roomId, List<Integer> occupiedBeds) {
+        slot(roomId).ifPresent(s -> s.reset(occupiedBeds));
+    }
+
+    public OptionalInt firstFreeBed(Long roomId) {
+        return slot(roomId).map(RoomSlot::firstFreeBed).orElse(OptionalInt.empty());
+    }
+
+    public boolean isOccupied(Long roomId, int bedNumber) {
+        return slot(roomId).map(s -> s.isSet(bedNumber)).orElse(false);
+    }
+
+    public Optional<RoomSnapshot> snapshot(Long roomId) {
+        return slot(roomId).map(RoomSlot::snapshot);
+    }
+
+    /**
+     * Rooms of a hostel with at least {@code minFree} empty beds, optionally limited to one block.
+     */
+    public List<RoomSnapshot> roomsWithFreeBeds(Long hostelId, String block, int minFree) {
+        Map<Long, RoomSlot> hostelRooms = current.byHostel.getOrDefault(hostelId, Map.of());
+        List<RoomSnapshot> result = new ArrayList<>();
+
+        for (RoomSlot slot : hostelRooms.values()) {
+            RoomSnapshot snapshot = slot.snapshot();
+            if (block != null && !block.equals(snapshot.block())) continue;
+            if (snapshot.freeBeds() >= minFree) {
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+
+    private Optional<RoomSlot> slot(Long roomId) {
+        return Optional.ofNullable(current.rooms.get(roomId));
+    }
+
+    // Only touch the index once the allocation is really in the database
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(action);
+                }
+            });
+        } else {
+            apply(action);
+        }
+    }
+
+    private synchronized void apply(Runnable action) {
+        action.run();
+    }
+
+    private static final class Rooms {
+        private final Map<Long, RoomSlot> rooms = new ConcurrentHashMap<>();
+        private final Map<Long, Map<Long, RoomSlot>> byHostel = new ConcurrentHashMap<>();
+
+        void put(Room room) {
+            Long hostelId = room.getHostel().getId();
+            RoomSlot slot = rooms.computeIfAbsent(room.getId(), id -> new RoomSlot(id, hostelId));
+            slot.update(room.getBlock(), room.getRoomNumber(), room.getCapacity());
+            byHostel.computeIfAbsent(hostelId, id -> new ConcurrentHashMap<>()).put(room.getId(), slot);
+        }
+
+        void remove(Long roomId) {
+            RoomSlot slot = rooms.remove(roomId);
+            if (slot != null) {
+                Map<Long, RoomSlot> hostelRooms = byHostel.get(slot.hostelId);
+                if (hostelRooms != null) {
+                    hostelRooms.remove(roomId);
+                }
+            }
+        }
+    }
+
+    public record RoomSnapshot(
+            Long roomId,
+            Long hostelId,
+            String block,
+            String roomNumber,
+            int capacity,
+            BitSet occupied
+    ) {
+        public int occupiedBeds() {
+            return occupied.cardinality();
+        }
+
+        public int freeBeds() {
+            return capacity - occupiedBeds();
+        }
+
+        public boolean isOccupied(int bedNumber) {
+            return occupied.get(bedNumber);
+        }
+    }
+
+    private static final class RoomSlot {
+        private final Long roomId;
+        private final Long hostelId;
+        private String block;
+        private String roomNumber;
+        private int capacity;
+        // bit i is bed number i, bit 0 is unused
+        private final BitSet occupied = new BitSet();
+
+        private RoomSlot(Long roomId, Long hostelId) {
+            this.roomId = roomId;
+            this.hostelId = hostelId;
+        }
+
+        synchronized void update(String block, String roomNumber, int capacity) {
+            this.block = block;
+            this.roomNumber = roomNumber;
+            this.capacity = capacity;
+        }
+
+        synchronized void set(int bedNumber, boolean value) {
+            if (bedNumber >= 1) {
+                occupied.set(bedNumber, value);
+            }
+        }
+
+        synchronized void reset(List<Integer> bedNumbers) {
+            occupied.clear();
+            for (Integer bedNumber : bedNumbers) {
+                set(bedNumber, true);
+            }
+        }
+
+        synchronized boolean isSet(int bedNumber) {
+            return occupied.get(bedNumber);
+        }
+
+        synchronized OptionalInt firstFreeBed() {
+            int bed = occupied.nextClearBit(1);
+            return bed <= capacity ? OptionalInt.of(bed) : OptionalInt.empty();
+        }
+
+        synchronized RoomSnapshot snapshot() {
+            BitSet beds = occupied.get(0, capacity + 1);
+            return new RoomSnapshot(roomId, hostelId, block, roomNumber, capacity, beds);
+        }
+    }
+}
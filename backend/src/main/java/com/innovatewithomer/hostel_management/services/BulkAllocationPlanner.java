@@ -0,0 +1,131 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.dto.AllocationStrategy;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.services.BedOccupancyIndex.RoomSnapshot;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Works out a whole intake placement in memory, against a snapshot of the free beds.
+ */
+public final class BulkAllocationPlanner {
+
+    // Room 2 comes before room 10, block B2 before block B10 and roll number R-2 before R-10
+    private static final Comparator<String> NATURAL_ORDER = BulkAllocationPlanner::compareNatural;
+
+    private static final Comparator<RoomSnapshot> ROOM_ORDER = Comparator
+            .comparing(RoomSnapshot::block, Comparator.nullsFirst(NATURAL_ORDER))
+            .thenComparing(RoomSnapshot::roomNumber, Comparator.nullsFirst(NATURAL_ORDER))
+            .thenComparing(RoomSnapshot::roomId);
+
+    private BulkAllocationPlanner() {
+    }
+
+    public record Placement(Student student, RoomSnapshot room, int bedNumber) {
+    }
+
+    /**
+     * Returns the bed chosen for each student that could be placed, keyed by student id.
+     */
+    public static Map<Long, Placement> plan(List<Student> students, List<RoomSnapshot> rooms, AllocationStrategy strategy) {
+        List<RoomSlots> slots = new ArrayList<>();
+        for (RoomSnapshot room : rooms) {
+            RoomSlots slot = new RoomSlots(room);
+            if (!slot.freeBeds.isEmpty()) {
+                slots.add(slot);
+            }
+        }
+        slots.sort(Comparator.comparing(s -> s.room, ROOM_ORDER));
+
+        List<Student> ordered = new ArrayList<>(students);
+        if (strategy == AllocationStrategy.ROLL_NUMBER) {
+            ordered.sort(Comparator.comparing(Student::getRollNo, Comparator.nullsLast(NATURAL_ORDER)));
+        }
+
+        Map<Long, Placement> placements = new HashMap<>();
+
+        if (strategy == AllocationStrategy.SPREAD_EVENLY) {
+            PriorityQueue<RoomSlots> queue = new PriorityQueue<>(Comparator
+                    .comparingInt((RoomSlots s) -> -s.freeBeds.size())
+                    .thenComparing(s -> s.room, ROOM_ORDER));
+            queue.addAll(slots);
+
+            for (Student student : ordered) {
+                RoomSlots slot = queue.poll();
+                if (slot == null) break;
+                placements.put(student.getId(), new Placement(student, slot.room, slot.freeBeds.poll()));
+                if (!slot.freeBeds.isEmpty()) {
+                    queue.add(slot);
+                }
+            }
+            return placements;
+        }
+
+        int current = 0;
+        for (Student student : ordered) {
+            while (current < slots.size() && slots.get(current).freeBeds.isEmpty()) {
+                current++;
+            }
+            if (current == slots.size()) break;
+
+            RoomSlots slot = slots.get(current);
+            placements.put(student.getId(), new Placement(student, slot.room, slot.freeBeds.poll()));
+        }
+        return placements;
+    }
+
+    private static int compareNatural(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                int startA = i;
+                int startB = j;
+                while (i < a.length() && Character.isDigit(a.charAt(i))) i++;
+                while (j < b.length() && Character.isDigit(b.charAt(j))) j++;
+                String digitsA = stripLeadingZeros(a.substring(startA, i));
+                String digitsB = stripLeadingZeros(b.substring(startB, j));
+                int cmp = digitsA.length() != digitsB.length()
+                        ? Integer.compare(digitsA.length(), digitsB.length())
+                        : digitsA.compareTo(digitsB);
+                if (cmp != 0) return cmp;
+            } else {
+                if (ca != cb) return Character.compare(ca, cb);
+                i++;
+                j++;
+            }
+        }
+        int remaining = Integer.compare(a.length() - i, b.length() - j);
+        return remaining != 0 ? remaining : a.compareTo(b);
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int k = 0;
+        while (k < digits.length() - 1 && digits.charAt(k) == '0') k++;
+        return digits.substring(k);
+    }
+
+    private static final class RoomSlots {
+        private final RoomSnapshot room;
+        private final Deque<Integer> freeBeds = new ArrayDeque<>();
+
+        private RoomSlots(RoomSnapshot room) {
+            this.room = room;
+            for (int bed = 1; bed <= room.capacity(); bed++) {
+                if (!room.isOccupied(bed)) {
+                    freeBeds.add(bed);
+                }
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     private final UserRepository userRepository;
@@ -21,6 +23,20 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(()-> new UsernameNotFoundException("User not found"));
 
+        return toPrincipal(user);
+    }
+
+    /**
+     * Principal for a token issued to the user at {@code tokenVersion}, or empty if the user is gone
+     * or the version has since been bumped.
+     */
+    public Optional<UserPrincipal> loadUserById(Long userId, int tokenVersion) {
+        return userRepository.findById(userId)
+                .filter(user -> user.getTokenVersion() == tokenVersion)
+                .map(this::toPrincipal);
+    }
+
+    private UserPrincipal toPrincipal(User user) {
         Long hostelId = user.getHostel() != null
                 ? user.getHostel().getId()
                 : null;
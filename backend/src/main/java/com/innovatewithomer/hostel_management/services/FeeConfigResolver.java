@@ -0,0 +1,159 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.repositories.FeeConfigRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Every hostel's fee configs as a timeline sorted by effective date, held in memory.
+ * "Config in force on a date" is the last entry starting on or before it, found by binary search,
+ * so pricing any month (current or backfilled) needs no query. Reloaded for a hostel whenever its
+ * configs change, and fully on a timer so other instances' changes show up too.
+ */
+@Slf4j
+@Service
+public class FeeConfigResolver {
+
+    private final FeeConfigRepository feeConfigRepository;
+
+    private volatile Map<Long, Timeline> timelines;
+
+    public FeeConfigResolver(FeeConfigRepository feeConfigRepository) {
+        this.feeConfigRepository = feeConfigRepository;
+    }
+
+    public record EffectiveConfig(Long id, Long hostelId, double monthlyAmount, int dueDay, LocalDate effectiveFrom) {
+    }
+
+    public Optional<EffectiveConfig> resolve(Long hostelId, LocalDate date) {
+        Timeline timeline = timelines().get(hostelId);
+        return timeline == null ? Optional.empty() : Optional.ofNullable(timeline.at(date));
+    }
+
+    /**
+     * The config a month is charged at: the one in force on its first day, as when fees were
+     * priced on the day the monthly run generated them. A config set part-way through a month
+     * applies from the next month.
+     */
+    public Optional<EffectiveConfig> resolve(Long hostelId, YearMonth month) {
+        return resolve(hostelId, month.atDay(1));
+    }
+
+    @Scheduled(fixedDelayString = "${fees.config-refresh:5m}")
+    public synchronized void reload() {
+        Map<Long, List<EffectiveConfig>> byHostel = new HashMap<>();
+        for (Object[] row : feeConfigRepository.findTimelineRows()) {
+            EffectiveConfig config = toConfig(row);
+            if (config != null) {
+                byHostel.computeIfAbsent(config.hostelId(), id -> new ArrayList<>()).add(config);
+            }
+        }
+
+        Map<Long, Timeline> loaded = new HashMap<>();
+        byHostel.forEach((hostelId, configs) -> loaded.put(hostelId, new Timeline(configs)));
+        timelines = Map.copyOf(loaded);
+        log.debug("Fee config timelines loaded for {} hostels", loaded.size());
+    }
+
+    // Only reload once the change is really in the database
+    public void refreshAfterCommit(Long hostelId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(hostelId);
+                }
+            });
+        } else {
+            refresh(hostelId);
+        }
+    }
+
+    synchronized void refresh(Long hostelId) {
+        if (timelines == null) {
+            reload();
+            return;
+        }
+
+        List<EffectiveConfig> configs = new ArrayList<>();
+        for (Object[] row : feeConfigRepository.findTimelineRows(hostelId)) {
+            EffectiveConfig config = toConfig(row);
+            if (config != null) {
+                configs.add(config);
+            }
+        }
+
+        Map<Long, Timeline> updated = new HashMap<>(timelines);
+        if (configs.isEmpty()) {
+            updated.remove(hostelId);
+        } else {
+            updated.put(hostelId, new Timeline(configs));
+        }
+        timelines = Map.copyOf(updated);
+    }
+
+    private Map<Long, Timeline> timelines() {
+        Map<Long, Timeline> current = timelines;
+        if (current == null) {
+            reload();
+            current = timelines;
+        }
+        return current;
+    }
+
+    // id, hostel id, monthly amount, due day, effective from; rows that cannot price a month are skipped
+    private static EffectiveConfig toConfig(Object[] row) {
+        if (row[3] == null || row[4] == null) {
+            return null;
+        }
+        return new EffectiveConfig((Long) row[0], (Long) row[1], (Double) row[2], (Integer) row[3], (LocalDate) row[4]);
+    }
+
+    private static final class Timeline {
+
+        private final LocalDate[] starts;
+        private final EffectiveConfig[] configs;
+
+        private Timeline(List<EffectiveConfig> unsorted) {
+            // Same-day configs: the later one (higher id) wins, so it must come last
+            List<EffectiveConfig> sorted = new ArrayList<>(unsorted);
+            sorted.sort(Comparator.comparing(EffectiveConfig::effectiveFrom).thenComparing(EffectiveConfig::id));
+
+            starts = new LocalDate[sorted.size()];
+            configs = new EffectiveConfig[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                starts[i] = sorted.get(i).effectiveFrom();
+                configs[i] = sorted.get(i);
+            }
+        }
+
+        // Last config starting on or before the date, or null if the first one starts later
+        private EffectiveConfig at(LocalDate date) {
+            int low = 0;
+            int high = starts.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid].isAfter(date)) {
+                    high = mid - 1;
+                } else {
+                    found = mid;
+                    low = mid + 1;
+                }
+            }
+            return found < 0 ? null : configs[found];
+        }
+    }
+}
@@ -1,79 +1,203 @@
 package com.innovatewithomer.hostel_management.services;
 
 import com.innovatewithomer.hostel_management.entities.*;
-import com.innovatewithomer.hostel_management.repositories.FeeConfigRepository;
+import com.innovatewithomer.hostel_management.repositories.FeeGenerationStateRepository;
 import com.innovatewithomer.hostel_management.repositories.FeeRepository;
 import com.innovatewithomer.hostel_management.repositories.HostelRepository;
+import com.innovatewithomer.hostel_management.repositories.JobChunkRepository;
 import com.innovatewithomer.hostel_management.repositories.StudentRepository;
+import com.innovatewithomer.hostel_management.services.FeeConfigResolver.EffectiveConfig;
+import com.innovatewithomer.hostel_management.services.jobs.ChunkPlan;
+import com.innovatewithomer.hostel_management.services.jobs.JobRunner;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class FeeGenerationService {
 
+    static final String JOB_NAME = "fee-generation";
+
+    // Student ids per chunk; each chunk is one INSERT ... SELECT and one commit
+    private static final long CHUNK_SIZE = 5_000;
+
     private final HostelRepository hostelRepository;
     private final StudentRepository studentRepository;
     private final FeeRepository feeRepository;
-    private final FeeConfigRepository feeConfigRepository;
+    private final FeeConfigResolver feeConfigResolver;
+    private final FeeGenerationStateRepository feeGenerationStateRepository;
+    private final JobChunkRepository jobChunkRepository;
+    private final FeeRollupService feeRollupService;
+    private final JobRunner jobRunner;
+    private final TransactionTemplate transactionTemplate;
 
     public FeeGenerationService(HostelRepository hostelRepository,
                                 StudentRepository studentRepository,
                                 FeeRepository feeRepository,
-                                FeeConfigRepository feeConfigRepository) {
+                                FeeConfigResolver feeConfigResolver,
+                                FeeGenerationStateRepository feeGenerationStateRepository,
+                                JobChunkRepository jobChunkRepository,
+                                FeeRollupService feeRollupService,
+                                JobRunner jobRunner,
+                                PlatformTransactionManager transactionManager) {
         this.hostelRepository = hostelRepository;
         this.studentRepository = studentRepository;
         this.feeRepository = feeRepository;
-        this.feeConfigRepository = feeConfigRepository;
+        this.feeConfigResolver = feeConfigResolver;
+        this.feeGenerationStateRepository = feeGenerationStateRepository;
+        this.jobChunkRepository = jobChunkRepository;
+        this.feeRollupService = feeRollupService;
+        this.jobRunner = jobRunner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Scheduled(cron = "0 * * * * ?")
-    @Transactional
     public void generateMonthlyFees() {
+        YearMonth month = YearMonth.now();
+        // Repeat triggers, on this instance or any other, return after one count against the
+        // watermarks. A hostel without a fee config has nothing to generate; setting one generates it
+        if (feeGenerationStateRepository.countHostelsToGenerate(month.toString(), month.atDay(1)) == 0) {
+            return;
+        }
 
-        List<Hostel> hostels = hostelRepository.findAll();
+        List<Long> hostelIds = hostelRepository.findAll().stream().map(Hostel::getId).toList();
+        runGeneration(month.toString(), month, hostelIds);
+    }
+
+    /**
+     * Generates the current month for one hostel, e.g. right after its fee config was set.
+     */
+    public void generateMonthlyFees(Long hostelId) {
+        YearMonth month = YearMonth.now();
+        if (!generatedHostels(month).contains(hostelId)) {
+            runGeneration(month + "/hostel-" + hostelId, month, List.of(hostelId));
+        }
+    }
 
-        for (Hostel hostel : hostels) {
+    /**
+     * Charges a newly admitted student for the current month, so they are not
+     * skipped until next month's run.
+     */
+    public void generateForStudent(Student student) {
+        YearMonth month = YearMonth.now();
+        EffectiveConfig config = feeConfigResolver.resolve(student.getHostel().getId(), month).orElse(null);
+        if (config == null) return;
+
+        LocalDate dueDate = dueDate(config, month);
+        FeeStatus initial = initialStatus(dueDate);
+        transactionTemplate.executeWithoutResult(status -> {
+            int inserted = feeRepository.generateStudentFee(
+                    student.getId(), month.toString(), config.monthlyAmount(), dueDate, initial.name());
+            feeRollupService.feesCreated(student.getHostel().getId(), month.toString(), initial,
+                    inserted, config.monthlyAmount());
+        });
+    }
 
-            FeeConfig config = feeConfigRepository
-                    .findTopByHostelAndEffectiveFromLessThanEqualOrderByEffectiveFromDesc(hostel, LocalDate.now());
+    private void runGeneration(String runKey, YearMonth month, List<Long> hostelIds) {
+        JobRun run = jobRunner.run(
+                JOB_NAME,
+                runKey,
+                () -> planChunks(month, hostelIds),
+                chunk -> generateChunk(chunk, month)
+        );
+        if (run != null) {
+            recordWatermarks(run, month);
+        }
+    }
 
-            if (config == null) continue;
+    // One chunk per CHUNK_SIZE student ids of every hostel that has a fee config and is not done yet
+    private List<ChunkPlan> planChunks(YearMonth month, List<Long> hostelIds) {
+        Set<Long> done = generatedHostels(month);
 
-            double amount = config.getMonthlyAmount();
-            int dueDay = config.getDueDay();
-            YearMonth month = YearMonth.now();
+        Map<Long, long[]> idRanges = new HashMap<>();
+        for (Object[] row : studentRepository.findIdRangesByHostel()) {
+            idRanges.put((Long) row[0], new long[]{(Long) row[1], (Long) row[2]});
+        }
 
-            LocalDate dueDate = month.atDay(
-                    Math.min(dueDay, month.lengthOfMonth())
-            );
+        List<ChunkPlan> plans = new ArrayList<>();
+        for (Long hostelId : hostelIds) {
+            if (done.contains(hostelId) || feeConfigResolver.resolve(hostelId, month).isEmpty()) continue;
 
+            long[] range = idRanges.get(hostelId);
+            if (range == null) {
+                // No students yet, still worth a chunk so the hostel gets its watermark
+                plans.add(new ChunkPlan(hostelId.toString(), 0, 0));
+                continue;
+            }
+            for (long from = range[0]; from <= range[1]; from += CHUNK_SIZE) {
+                plans.add(new ChunkPlan(hostelId.toString(), from, Math.min(from + CHUNK_SIZE - 1, range[1])));
+            }
+        }
+        return plans;
+    }
 
-            List<Student> students = studentRepository.findAllByHostel_Id(hostel.getId());
+    private long generateChunk(JobChunk chunk, YearMonth month) {
+        Long hostelId = Long.valueOf(chunk.getPartitionKey());
+        // The config was there at planning time. Completing the chunk with 0 rows would mark the
+        // hostel generated for the month, so fail it instead and leave it to the next trigger
+        EffectiveConfig config = feeConfigResolver.resolve(hostelId, month)
+                .orElseThrow(() -> new RuntimeException("No fee config for hostel " + hostelId + " in " + month));
+
+        LocalDate dueDate = dueDate(config, month);
+        FeeStatus initial = initialStatus(dueDate);
+        int inserted = feeRepository.generateHostelFees(
+                hostelId, chunk.getRangeStart(), chunk.getRangeEnd(),
+                month.toString(), config.monthlyAmount(), dueDate, initial.name());
+        feeRollupService.feesCreated(hostelId, month.toString(), initial, inserted, config.monthlyAmount());
+        return inserted;
+    }
 
-            for (Student student : students) {
+    // A hostel counts as generated once every one of its chunks in the run has committed
+    private void recordWatermarks(JobRun run, YearMonth month) {
+        Map<String, Boolean> complete = new HashMap<>();
+        for (JobChunk chunk : jobChunkRepository.findByJobRunId(run.getId())) {
+            complete.merge(chunk.getPartitionKey(), chunk.getStatus() == JobStatus.COMPLETED, Boolean::logicalAnd);
+        }
 
-                YearMonth currentMonth = YearMonth.now();
-                String monthStr = currentMonth.toString();
+        Set<Long> done = generatedHostels(month);
+        List<FeeGenerationState> states = new ArrayList<>();
+        complete.forEach((partitionKey, ok) -> {
+            Long hostelId = Long.valueOf(partitionKey);
+            if (ok && !done.contains(hostelId)) {
+                states.add(new FeeGenerationState(hostelId, month.toString(), LocalDateTime.now()));
+            }
+        });
 
-                boolean exists = feeRepository.existsByStudentAndMonth(student, monthStr);
-                if (exists) continue;
+        if (!states.isEmpty()) {
+            feeGenerationStateRepository.saveAll(states);
+            log.info("Fees for {} generated for hostels {}", month,
+                    states.stream().map(FeeGenerationState::getHostelId).toList());
+        }
+    }
 
-                Fee fee = new Fee();
-                fee.setStudent(student);
-                fee.setAmount(amount);
-                fee.setMonth(monthStr);
-                fee.setHostel(hostel);
-                fee.setDueDate(dueDate);
-                fee.setStatus(FeeStatus.UNPAID);
-                feeRepository.save(fee);
+    private Set<Long> generatedHostels(YearMonth month) {
+        Set<Long> done = new HashSet<>();
+        for (FeeGenerationState state : feeGenerationStateRepository.findAll()) {
+            if (month.toString().equals(state.getLastGeneratedMonth())) {
+                done.add(state.getHostelId());
             }
         }
+        return done;
+    }
+
+    // Fees generated after their due day (late catch-up, mid-month admission) start out overdue;
+    // the sweep would catch them too, but it only runs once a day, shortly after midnight
+    private static FeeStatus initialStatus(LocalDate dueDate) {
+        return dueDate.isBefore(LocalDate.now()) ? FeeStatus.OVERDUE : FeeStatus.UNPAID;
+    }
+
+    private static LocalDate dueDate(EffectiveConfig config, YearMonth month) {
+        return month.atDay(Math.min(config.dueDay(), month.lengthOfMonth()));
     }
 }
@@ -4,96 +4,238 @@ import com.innovatewithomer.hostel_management.entities.Fee;
 import com.innovatewithomer.hostel_management.entities.FeeStatus;
 import com.innovatewithomer.hostel_management.entities.Student;
 import com.lowagie.text.*;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.ColumnText;
 import com.lowagie.text.pdf.PdfContentByte;
 import com.lowagie.text.pdf.PdfGState;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfStamper;
 import com.lowagie.text.pdf.PdfWriter;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.time.LocalDate;
-
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Receipts are stamped onto one of two pre-rendered templates (with and without the PAID stamp)
+ * that already hold the header, labels, dividers and footer. Only the fee's own values are
+ * written per call, with fonts resolved once.
+ */
 @Service
 public class FeeReceiptPdfService {
 
-    public byte[] generateFeeReceipt(Fee fee) {
+    private static final float WIDTH = 80f * 2.83f;
+    private static final float HEIGHT = 150f * 2.83f;
+    private static final float LEFT = 20;
+    private static final float LINE = 13.5f;
+    private static final float TEXT_SIZE = 9;
+    private static final float MIN_SIZE = 6;
+
+    // Bump when the layout changes, so stored receipts are rendered again
+    private static final String TEMPLATE_VERSION = "receipt-v4";
+
+    private static final String DIVIDER = "--------------------------------";
+
+    // Baselines, top to bottom
+    private static final float Y_TITLE = HEIGHT - 15 - 12;
+    private static final float Y_SUBTITLE = Y_TITLE - 16;
+    private static final float Y_DIVIDER_1 = Y_SUBTITLE - LINE;
+    private static final float Y_STUDENT = Y_DIVIDER_1 - LINE;
+    private static final float Y_NAME = Y_STUDENT - LINE;
+    private static final float Y_ROLL = Y_NAME - LINE;
+    private static final float Y_DIVIDER_2 = Y_ROLL - LINE;
+    private static final float Y_FEE = Y_DIVIDER_2 - LINE;
+    private static final float Y_MONTH = Y_FEE - LINE;
+    private static final float Y_AMOUNT = Y_MONTH - LINE;
+    private static final float Y_DUE = Y_AMOUNT - LINE;
+    private static final float Y_STATUS = Y_DUE - LINE;
+    private static final float Y_DIVIDER_3 = Y_STATUS - LINE;
+    private static final float Y_PAID_ON = Y_DIVIDER_3 - LINE;
+    private static final float Y_FOOTER = Y_PAID_ON - LINE;
+
+    private enum Field {
+        NAME("Name: ", Y_NAME),
+        ROLL("Roll: ", Y_ROLL),
+        MONTH("Month: ", Y_MONTH),
+        AMOUNT("Amount: Rs ", Y_AMOUNT),
+        DUE("Due: ", Y_DUE),
+        STATUS("Status: ", Y_STATUS),
+        PAID_ON("Paid on: ", Y_PAID_ON);
+
+        private final String label;
+        private final float y;
+
+        Field(String label, float y) {
+            this.label = label;
+            this.y = y;
+        }
+    }
 
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final BaseFont boldFont;
+    private final BaseFont textFont;
+    private final float[] valueX = new float[Field.values().length];
+    private final byte[] paidTemplate;
+    private final byte[] plainTemplate;
 
-        float width = 80f * 2.83f;
-        float height = 150f * 2.83f;
+    public FeeReceiptPdfService() {
+        try {
+            boldFont = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+            textFont = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
 
-        Rectangle pageSize = new Rectangle(width, height);
-        Document document = new Document(pageSize, 20, 20, 15, 15);
+            for (Field field : Field.values()) {
+                valueX[field.ordinal()] = LEFT + textFont.getWidthPoint(field.label, 9);
+            }
 
-        try {
-            PdfWriter writer = PdfWriter.getInstance(document, out);
-            document.open();
+            Image stamp = Image.getInstance(new ClassPathResource("static/images/stamp.png").getURL());
+            paidTemplate = renderTemplate(stamp);
+            plainTemplate = renderTemplate(null);
+        } catch (Exception e) {
+            throw new RuntimeException("Receipt template could not be built", e);
+        }
+    }
 
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
-            Font sectionFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
-            Font textFont = FontFactory.getFont(FontFactory.HELVETICA, 9);
+    public byte[] generateFeeReceipt(Fee fee) {
 
-            Paragraph hostelName = new Paragraph("OFFICERS HOSTEL MANDRA", titleFont);
-            hostelName.setAlignment(Element.ALIGN_CENTER);
-            document.add(hostelName);
+        byte[] template = fee.getStatus() == FeeStatus.PAID ? paidTemplate : plainTemplate;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(template.length + 1024);
 
-            Paragraph receiptTitle = new Paragraph("FEE RECEIPT", sectionFont);
-            receiptTitle.setAlignment(Element.ALIGN_CENTER);
-            document.add(receiptTitle);
+        try {
+            PdfReader reader = new PdfReader(template);
+            PdfStamper stamper = new PdfStamper(reader, out);
+            PdfContentByte canvas = stamper.getOverContent(1);
 
-            document.add(new Paragraph("--------------------------------", textFont));
+            String[] values = values(fee);
+            for (Field field : Field.values()) {
+                writeValue(canvas, field, values[field.ordinal()]);
+            }
 
-            Student s = fee.getStudent();
+            stamper.close();
+            reader.close();
 
-            document.add(new Paragraph("Student", sectionFont));
-            document.add(new Paragraph("Name: " + s.getUser().getName(), textFont));
-            document.add(new Paragraph("Roll: " + s.getRollNo(), textFont));
+        } catch (Exception e) {
+            throw new RuntimeException("PDF generation failed", e);
+        }
 
-            document.add(new Paragraph("--------------------------------", textFont));
+        return out.toByteArray();
+    }
 
-            document.add(new Paragraph("Fee", sectionFont));
-            document.add(new Paragraph("Month: " + fee.getMonth(), textFont));
-            document.add(new Paragraph("Amount: Rs " + fee.getAmount(), textFont));
-            document.add(new Paragraph("Due: " + fee.getDueDate(), textFont));
-            document.add(new Paragraph("Status: " + fee.getStatus(), textFont));
+    // Shrinks a value that is too wide for its line, and wraps it inside the line's band if
+    // even MIN_SIZE is too wide, so long names and roll numbers are never cut off at the edge
+    private void writeValue(PdfContentByte canvas, Field field, String value) throws DocumentException {
+        float x = valueX[field.ordinal()];
+        float room = WIDTH - LEFT - x;
+        float size = Math.min(TEXT_SIZE, TEXT_SIZE * room / Math.max(textFont.getWidthPoint(value, TEXT_SIZE), 1));
+
+        if (size >= MIN_SIZE) {
+            canvas.beginText();
+            canvas.setFontAndSize(textFont, size);
+            canvas.showTextAligned(Element.ALIGN_LEFT, value, x, field.y, 0);
+            canvas.endText();
+            return;
+        }
 
-            document.add(new Paragraph("--------------------------------", textFont));
+        for (size = MIN_SIZE; size > 1; size -= 0.5f) {
+            if (!ColumnText.hasMoreText(wrapped(canvas, field, x, value, size).go(true))) {
+                break;
+            }
+        }
+        wrapped(canvas, field, x, value, size).go();
+    }
 
-            document.add(new Paragraph(
-                    "Paid on: " + LocalDate.now(), textFont
-            ));
+    private ColumnText wrapped(PdfContentByte canvas, Field field, float x, String value, float size) {
+        ColumnText column = new ColumnText(canvas);
+        column.setSimpleColumn(new Phrase(value, new Font(textFont, size)),
+                x, field.y - 4, WIDTH - LEFT, field.y + LINE - 4, size * 1.1f, Element.ALIGN_LEFT);
+        return column;
+    }
 
-            if (fee.getStatus() == FeeStatus.PAID) {
-                addPaidStamp(writer);
+    /**
+     * Hash of everything printed on the fee's receipt. Two receipts with the same hash are the same document.
+     */
+    public String contentHash(Fee fee) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(TEMPLATE_VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) (fee.getStatus() == FeeStatus.PAID ? 1 : 0));
+            for (String value : values(fee)) {
+                digest.update((byte) '\n');
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
             }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            Paragraph footer = new Paragraph(
-                    "Official receipt. No signature required.", textFont
-            );
-            footer.setAlignment(Element.ALIGN_CENTER);
-            document.add(footer);
+    private static String[] values(Fee fee) {
+        Student s = fee.getStudent();
+        String[] values = new String[Field.values().length];
+        values[Field.NAME.ordinal()] = String.valueOf(s.getUser().getName());
+        values[Field.ROLL.ordinal()] = String.valueOf(s.getRollNo());
+        values[Field.MONTH.ordinal()] = String.valueOf(fee.getMonth());
+        values[Field.AMOUNT.ordinal()] = String.valueOf(fee.getAmount());
+        values[Field.DUE.ordinal()] = String.valueOf(fee.getDueDate());
+        values[Field.STATUS.ordinal()] = String.valueOf(fee.getStatus());
+        values[Field.PAID_ON.ordinal()] = paidOn(fee);
+        return values;
+    }
 
-            document.close();
+    // Nothing here may depend on the clock, or the hash (and the stored receipt) would change daily
+    private static String paidOn(Fee fee) {
+        if (fee.getPaidOn() != null) {
+            return fee.getPaidOn().toString();
+        }
+        // Fees marked PAID before paid_on was recorded; the due date is not when they were paid
+        return fee.getStatus() == FeeStatus.PAID ? "Not recorded" : "-";
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("PDF generation failed", e);
+    // Everything on the receipt that does not depend on the fee
+    private byte[] renderTemplate(Image stamp) throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(WIDTH, HEIGHT), LEFT, LEFT, 15, 15);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+
+        PdfContentByte canvas = writer.getDirectContent();
+        float center = WIDTH / 2;
+
+        canvas.beginText();
+        canvas.setFontAndSize(boldFont, 12);
+        canvas.showTextAligned(Element.ALIGN_CENTER, "OFFICERS HOSTEL MANDRA", center, Y_TITLE, 0);
+
+        canvas.setFontAndSize(boldFont, 9);
+        canvas.showTextAligned(Element.ALIGN_CENTER, "FEE RECEIPT", center, Y_SUBTITLE, 0);
+        canvas.showTextAligned(Element.ALIGN_LEFT, "Student", LEFT, Y_STUDENT, 0);
+        canvas.showTextAligned(Element.ALIGN_LEFT, "Fee", LEFT, Y_FEE, 0);
+
+        canvas.setFontAndSize(textFont, 9);
+        for (float y : new float[]{Y_DIVIDER_1, Y_DIVIDER_2, Y_DIVIDER_3}) {
+            canvas.showTextAligned(Element.ALIGN_LEFT, DIVIDER, LEFT, y, 0);
+        }
+        for (Field field : Field.values()) {
+            canvas.showTextAligned(Element.ALIGN_LEFT, field.label, LEFT, field.y, 0);
         }
+        canvas.showTextAligned(Element.ALIGN_CENTER, "Official receipt. No signature required.", center, Y_FOOTER, 0);
+        canvas.endText();
 
+        if (stamp != null) {
+            addPaidStamp(canvas, stamp);
+        }
+
+        document.close();
         return out.toByteArray();
     }
 
-    private void addPaidStamp(PdfWriter writer) throws Exception {
-
-        ClassPathResource resource =
-                new ClassPathResource("static/images/stamp.png");
-
-        Image stamp = Image.getInstance(resource.getURL());
+    private void addPaidStamp(PdfContentByte canvas, Image stamp) throws Exception {
 
         stamp.scaleToFit(100, 100);
         stamp.setAbsolutePosition(40, 120);
 
-        PdfContentByte canvas = writer.getDirectContent();
         PdfGState state = new PdfGState();
         state.setFillOpacity(0.25f);
 
@@ -0,0 +1,82 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.repositories.FeeRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Keeps fee_rollups in step with fees. Every method joins the caller's transaction,
+ * so the rollup can never drift from the fee change that caused it.
+ */
+@Slf4j
+@Service
+public class FeeRollupService {
+
+    private final FeeRollupRepository feeRollupRepository;
+
+    public FeeRollupService(FeeRollupRepository feeRollupRepository) {
+        this.feeRollupRepository = feeRollupRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void feesCreated(Long hostelId, String month, FeeStatus status, long count, double amountEach) {
+        if (count > 0) {
+            feeRollupRepository.applyDelta(hostelId, month, status.name(), count, count * amountEach);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void feeCreated(Fee fee) {
+        feesCreated(fee.getHostel().getId(), fee.getMonth(), fee.getStatus(), 1, fee.getAmount());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Fee fee, FeeStatus from) {
+        if (from == fee.getStatus()) return;
+
+        Long hostelId = fee.getHostel().getId();
+        if (from != null) {
+            feeRollupRepository.applyDelta(hostelId, fee.getMonth(), from.name(), -1, -fee.getAmount());
+        }
+        feeRollupRepository.applyDelta(hostelId, fee.getMonth(), fee.getStatus().name(), 1, fee.getAmount());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void feesMoved(Long hostelId, String month, FeeStatus from, FeeStatus to, long count, double amount) {
+        if (count > 0) {
+            feeRollupRepository.applyDelta(hostelId, month, from.name(), -count, -amount);
+            feeRollupRepository.applyDelta(hostelId, month, to.name(), count, amount);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void feeDeleted(Fee fee) {
+        if (fee.getStatus() != null) {
+            feeRollupRepository.applyDelta(fee.getHostel().getId(), fee.getMonth(), fee.getStatus().name(), -1, -fee.getAmount());
+        }
+    }
+
+    public double totalAmount(Long hostelId, FeeStatus... statuses) {
+        return feeRollupRepository.sumAmount(hostelId, List.of(statuses));
+    }
+
+    /**
+     * Recomputes every rollup from the fees table. The table lock first waits for every fee write
+     * that has already applied its delta, and holds back the ones that have not, so each fee
+     * change lands either in the recount or as a delta on top of it, never both or neither.
+     */
+    @Transactional
+    public int rebuild() {
+        feeRollupRepository.lockAgainstDeltas();
+        feeRollupRepository.clear();
+        int rows = feeRollupRepository.rebuildFromFees();
+        log.info("Fee rollups rebuilt: {} rows", rows);
+        return rows;
+    }
+}
@@ -1,34 +1,50 @@
 package com.innovatewithomer.hostel_management.services;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import com.innovatewithomer.hostel_management.entities.OutboxEmail;
+import com.innovatewithomer.hostel_management.entities.OutboxStatus;
+import com.innovatewithomer.hostel_management.repositories.OutboxEmailRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
+/**
+ * Queues emails in the outbox as part of the caller's transaction, so a message exists exactly
+ * when the change it describes was committed. OutboxMailSender delivers them.
+ */
 @Service
 public class MailService {
 
-    @Autowired
-    private final JavaMailSender mailSender;
+    private final OutboxEmailRepository outboxEmailRepository;
 
-    public MailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public MailService(OutboxEmailRepository outboxEmailRepository) {
+        this.outboxEmailRepository = outboxEmailRepository;
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendVerificationEmail(String email, String token) {
         String link =
                 "http://localhost:5173/verify-email?token=" + token;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        message.setSubject("Verify your email");
-        message.setText(
+        enqueue(email, "Verify your email",
                 "Click the link below to verify your email:\n\n" +
                         link + "\n\n" +
-                        "This link expires in 24 hours."
-        );
-
-        mailSender.send(message);
+                        "This link expires in 24 hours.");
     }
 
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(recipient);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setStatus(OutboxStatus.PENDING);
+        email.setCreatedAt(now);
+        email.setNextAttemptAt(now);
+
+        outboxEmailRepository.save(email);
+    }
 }
@@ -0,0 +1,85 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.entities.SweepWatermark;
+import com.innovatewithomer.hostel_management.repositories.FeeRepository;
+import com.innovatewithomer.hostel_management.repositories.SweepWatermarkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves UNPAID fees whose due date has passed to OVERDUE, in batches that each commit on their
+ * own. The watermark only stops a second run on the same day: every run looks at all UNPAID
+ * fees due before today, which idx_fees_status_due_date keeps to the fees that actually move,
+ * so fees that were locked or backfilled with an older due date are still picked up.
+ */
+@Slf4j
+@Service
+public class OverdueFeeSweeper {
+
+    static final String WATERMARK = "overdue-fees";
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private final FeeRepository feeRepository;
+    private final SweepWatermarkRepository sweepWatermarkRepository;
+    private final FeeRollupService feeRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    public OverdueFeeSweeper(FeeRepository feeRepository,
+                             SweepWatermarkRepository sweepWatermarkRepository,
+                             FeeRollupService feeRollupService,
+                             PlatformTransactionManager transactionManager) {
+        this.feeRepository = feeRepository;
+        this.sweepWatermarkRepository = sweepWatermarkRepository;
+        this.feeRollupService = feeRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @return number of fees moved to OVERDUE
+     */
+    public synchronized long sweep() {
+        LocalDate today = LocalDate.now();
+        boolean sweptToday = sweepWatermarkRepository.findById(WATERMARK)
+                .map(watermark -> !watermark.getSweptUntil().isBefore(today))
+                .orElse(false);
+        if (sweptToday) {
+            return 0;
+        }
+
+        // A fee paid while the sweep waited on its lock drops out of a batch, so a short batch
+        // does not mean the sweep is done; stop on an empty one
+        long moved = 0;
+        long batch;
+        do {
+            batch = transactionTemplate.execute(status -> sweepBatch(today));
+            moved += batch;
+        } while (batch > 0);
+
+        sweepWatermarkRepository.save(new SweepWatermark(WATERMARK, today, LocalDateTime.now()));
+        log.info("Overdue sweep before {}: {} fees marked OVERDUE", today, moved);
+        return moved;
+    }
+
+    private long sweepBatch(LocalDate before) {
+        long moved = 0;
+        List<Object[]> groups = feeRepository.markOverdue(before, BATCH_SIZE);
+        for (Object[] row : groups) {
+            Long hostelId = ((Number) row[0]).longValue();
+            String month = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+            double amount = ((Number) row[3]).doubleValue();
+
+            feeRollupService.feesMoved(hostelId, month, FeeStatus.UNPAID, FeeStatus.OVERDUE, count, amount);
+            moved += count;
+        }
+        return moved;
+    }
+}
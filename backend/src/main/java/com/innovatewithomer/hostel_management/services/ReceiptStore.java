@@ -0,0 +1,164 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.Fee;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Rendered receipts on local disk, stored as {@code <fee id % 256>/<fee id>-<content hash>.pdf}.
+ * The hash covers everything printed on the receipt, so a changed fee maps to a new file and
+ * the stored copy is reused for as long as the receipt would come out the same.
+ */
+@Slf4j
+@Service
+public class ReceiptStore {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FeeReceiptPdfService feeReceiptPdfService;
+    private final Path root;
+
+    public ReceiptStore(FeeReceiptPdfService feeReceiptPdfService,
+                        @Value("${receipts.dir:${java.io.tmpdir}/hostel-receipts}") String root) throws IOException {
+        this.feeReceiptPdfService = feeReceiptPdfService;
+        this.root = Files.createDirectories(Path.of(root));
+    }
+
+    public record StoredReceipt(Path file, String etag, long size) {
+    }
+
+    public StoredReceipt get(Fee fee) throws IOException {
+        String hash = feeReceiptPdfService.contentHash(fee);
+        String etag = "\"" + hash + "\"";
+        Path dir = shard(fee.getId());
+        Path file = dir.resolve(fee.getId() + "-" + hash + ".pdf");
+
+        try {
+            return new StoredReceipt(file, etag, Files.size(file));
+        } catch (NoSuchFileException e) {
+            // Not rendered yet, or invalidated since
+        }
+
+        byte[] pdf = feeReceiptPdfService.generateFeeReceipt(fee);
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, fee.getId() + "-", ".tmp");
+        try {
+            Files.write(tmp, pdf);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        deleteVersions(fee.getId(), file);
+        return new StoredReceipt(file, etag, pdf.length);
+    }
+
+    /**
+     * Drops every stored copy of the fee's receipt, once the change to the fee is committed.
+     */
+    public void invalidate(Long feeId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteAll(feeId);
+                }
+            });
+        } else {
+            deleteAll(feeId);
+        }
+    }
+
+    /**
+     * Writes the fee's receipt as the response, or 304 if the client already has this version.
+     */
+    public void serve(Fee fee, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StoredReceipt receipt = get(fee);
+
+        if (new ServletWebRequest(request, response).checkNotModified(receipt.etag())) {
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=fee-receipt-" + fee.getId() + ".pdf");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        // Tomcat can hand the file straight to the socket with sendfile
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            response.setContentLengthLong(receipt.size());
+            request.setAttribute(SENDFILE_FILENAME, receipt.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, receipt.size());
+            return;
+        }
+
+        // Once open, the file can be read to the end even if it is invalidated meanwhile
+        try (FileChannel channel = open(fee, receipt)) {
+            long size = channel.size();
+            response.setContentLengthLong(size);
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            out.flush();
+        }
+    }
+
+    private FileChannel open(Fee fee, StoredReceipt receipt) throws IOException {
+        try {
+            return FileChannel.open(receipt.file(), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // Invalidated between get() and here
+            return FileChannel.open(get(fee).file(), StandardOpenOption.READ);
+        }
+    }
+
+    private void deleteAll(Long feeId) {
+        try {
+            deleteVersions(feeId, null);
+        } catch (IOException e) {
+            log.warn("Could not invalidate stored receipt for fee {}", feeId, e);
+        }
+    }
+
+    private Path shard(Long feeId) {
+        return root.resolve(String.format("%02x", feeId & 0xff));
+    }
+
+    private void deleteVersions(Long feeId, Path keep) throws IOException {
+        Path dir = shard(feeId);
+        if (!Files.isDirectory(dir)) return;
+
+        try (DirectoryStream<Path> versions = Files.newDirectoryStream(dir, feeId + "-*.pdf")) {
+            for (Path version : versions) {
+                if (!version.equals(keep)) {
+                    Files.deleteIfExists(version);
+                }
+            }
+        }
+    }
+}
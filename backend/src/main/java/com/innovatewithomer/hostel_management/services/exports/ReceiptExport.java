@@ -0,0 +1,63 @@
+package com.innovatewithomer.hostel_management.services.exports;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One ZIP export of a hostel's receipts for a month, as seen by the status endpoint.
+ */
+@Getter
+public class ReceiptExport {
+
+    private final String id;
+    private final Long hostelId;
+    private final String month;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile JobStatus status = JobStatus.PENDING;
+    private volatile int totalReceipts;
+    private final AtomicInteger writtenReceipts = new AtomicInteger();
+    private volatile long sizeBytes;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+
+    @JsonIgnore
+    private volatile Path file;
+
+    ReceiptExport(String id, Long hostelId, String month) {
+        this.id = id;
+        this.hostelId = hostelId;
+        this.month = month;
+    }
+
+    public int getWrittenReceipts() {
+        return writtenReceipts.get();
+    }
+
+    void started(int totalReceipts) {
+        this.totalReceipts = totalReceipts;
+        this.status = JobStatus.RUNNING;
+    }
+
+    void receiptWritten() {
+        writtenReceipts.incrementAndGet();
+    }
+
+    void completed(Path file, long sizeBytes) {
+        this.file = file;
+        this.sizeBytes = sizeBytes;
+        this.finishedAt = LocalDateTime.now();
+        this.status = JobStatus.COMPLETED;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = JobStatus.FAILED;
+    }
+}
@@ -0,0 +1,165 @@
+package com.innovatewithomer.hostel_management.services.exports;
+
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import com.innovatewithomer.hostel_management.repositories.FeeRepository;
+import com.innovatewithomer.hostel_management.services.FeeReceiptPdfService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes every receipt of a hostel and month into one ZIP on disk. Receipts are rendered on a
+ * fixed worker pool and written to the ZIP in fee id order by a single writer, with at most
+ * a few receipts per worker held in memory at once.
+ */
+@Slf4j
+@Service
+public class ReceiptExportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int RECEIPTS_IN_FLIGHT_PER_WORKER = 4;
+    private static final long RETENTION_HOURS = 24;
+
+    private final FeeRepository feeRepository;
+    private final FeeReceiptPdfService feeReceiptPdfService;
+    private final Path exportDir;
+    private final int maxInFlight;
+    private final ExecutorService renderers;
+
+    private final Map<String, ReceiptExport> exports = new ConcurrentHashMap<>();
+
+    public ReceiptExportService(FeeRepository feeRepository,
+                                FeeReceiptPdfService feeReceiptPdfService,
+                                @Value("${exports.dir:${java.io.tmpdir}/hostel-exports}") String exportDir,
+                                @Value("${exports.workers:4}") int workers) throws IOException {
+        this.feeRepository = feeRepository;
+        this.feeReceiptPdfService = feeReceiptPdfService;
+        this.exportDir = Files.createDirectories(Path.of(exportDir));
+        this.maxInFlight = workers * RECEIPTS_IN_FLIGHT_PER_WORKER;
+        this.renderers = Executors.newFixedThreadPool(workers);
+    }
+
+    public ReceiptExport start(Long hostelId, String month) {
+        ReceiptExport export = new ReceiptExport(UUID.randomUUID().toString(), hostelId, month);
+        exports.put(export.getId(), export);
+        Thread.ofVirtual().name("receipt-export-" + export.getId()).start(() -> run(export));
+        return export;
+    }
+
+    public Optional<ReceiptExport> find(String id, Long hostelId) {
+        return Optional.ofNullable(exports.get(id))
+                .filter(export -> export.getHostelId().equals(hostelId));
+    }
+
+    private void run(ReceiptExport export) {
+        Path part = exportDir.resolve(export.getId() + ".zip.part");
+        Deque<Future<RenderedReceipt>> inFlight = new ArrayDeque<>();
+
+        try {
+            export.started((int) feeRepository.countByHostel_IdAndMonth(export.getHostelId(), export.getMonth()));
+
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(part), 64 * 1024))) {
+                // PDFs are mostly compressed already
+                zip.setLevel(Deflater.BEST_SPEED);
+
+                long afterId = 0;
+                List<Fee> batch;
+                do {
+                    batch = feeRepository.findReceiptBatch(
+                            export.getHostelId(), export.getMonth(), afterId, PageRequest.of(0, BATCH_SIZE));
+
+                    for (Fee fee : batch) {
+                        if (inFlight.size() >= maxInFlight) {
+                            writeNext(zip, inFlight, export);
+                        }
+                        inFlight.add(renderers.submit(() ->
+                                new RenderedReceipt(fee.getId(), feeReceiptPdfService.generateFeeReceipt(fee))));
+                        afterId = fee.getId();
+                    }
+                } while (batch.size() == BATCH_SIZE);
+
+                while (!inFlight.isEmpty()) {
+                    writeNext(zip, inFlight, export);
+                }
+            }
+
+            Path file = exportDir.resolve(export.getId() + ".zip");
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            export.completed(file, Files.size(file));
+            log.info("Receipt export {} for hostel {} {}: {} receipts", export.getId(),
+                    export.getHostelId(), export.getMonth(), export.getWrittenReceipts());
+
+        } catch (Exception e) {
+            inFlight.forEach(future -> future.cancel(true));
+            deleteQuietly(part);
+            export.failed(e.getMessage());
+            log.error("Receipt export {} failed", export.getId(), e);
+        }
+    }
+
+    private void writeNext(ZipOutputStream zip, Deque<Future<RenderedReceipt>> inFlight, ReceiptExport export)
+            throws IOException, InterruptedException, ExecutionException {
+        RenderedReceipt receipt = inFlight.poll().get();
+        zip.putNextEntry(new ZipEntry("fee-receipt-" + receipt.feeId() + ".pdf"));
+        zip.write(receipt.pdf());
+        zip.closeEntry();
+        export.receiptWritten();
+    }
+
+    // Exports are meant to be downloaded soon after they finish
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void removeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(RETENTION_HOURS);
+        exports.values().removeIf(export -> {
+            boolean expired = export.getStatus() != JobStatus.RUNNING
+                    && export.getStatus() != JobStatus.PENDING
+                    && export.getFinishedAt() != null
+                    && export.getFinishedAt().isBefore(cutoff);
+            if (expired && export.getFile() != null) {
+                deleteQuietly(export.getFile());
+            }
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderers.shutdownNow();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private record RenderedReceipt(Long feeId, byte[] pdf) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.innovatewithomer.hostel_management.services.jobs;
+
+import com.innovatewithomer.hostel_management.entities.JobChunk;
+
+/**
+ * Processes one chunk inside its own transaction and returns how many rows it handled.
+ * Must be safe to repeat, since a chunk interrupted by a crash runs again on resume.
+ */
+@FunctionalInterface
+public interface ChunkHandler {
+    long process(JobChunk chunk);
+}
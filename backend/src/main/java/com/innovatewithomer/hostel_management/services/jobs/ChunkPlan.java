@@ -0,0 +1,7 @@
+package com.innovatewithomer.hostel_management.services.jobs;
+
+/**
+ * One unit of work of a job: a partition (e.g. a hostel) and an inclusive id range inside it.
+ */
+public record ChunkPlan(String partitionKey, long rangeStart, long rangeEnd) {
+}
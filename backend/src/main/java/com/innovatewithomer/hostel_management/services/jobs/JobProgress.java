@@ -0,0 +1,19 @@
+package com.innovatewithomer.hostel_management.services.jobs;
+
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+
+import java.time.LocalDateTime;
+
+public record JobProgress(
+        Long runId,
+        String jobName,
+        String runKey,
+        JobStatus status,
+        int totalChunks,
+        long completedChunks,
+        long failedChunks,
+        long processed,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {
+}
@@ -0,0 +1,214 @@
+package com.innovatewithomer.hostel_management.services.jobs;
+
+import com.innovatewithomer.hostel_management.entities.JobChunk;
+import com.innovatewithomer.hostel_management.entities.JobRun;
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import com.innovatewithomer.hostel_management.repositories.JobChunkRepository;
+import com.innovatewithomer.hostel_management.repositories.JobRunRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs a job as a set of checkpointed chunks.
+ *
+ * The first call for a (job, run key) pair plans the chunks and stores them. Every chunk
+ * is then processed on a virtual thread, at most {@code jobs.max-concurrency} at a time,
+ * and committed together with its own COMPLETED checkpoint. A failed chunk only fails
+ * itself. Calling run again with the same key (after a crash, or from the next trigger)
+ * picks up whatever is not COMPLETED yet.
+ *
+ * FAILED chunks are not retried on a timer: only a later call with the same key runs them
+ * again. A job that moves on to a new key (say, next month's) leaves them FAILED, visible
+ * under /actuator/jobs.
+ *
+ * A run can be told to pause, which is checked before each chunk starts. Chunks already
+ * started finish, the rest stay PENDING, and the run is left PENDING for the same key to
+ * pick up later; nothing is recorded as a failure.
+ */
+@Slf4j
+@Service
+public class JobRunner {
+
+    private final JobRunRepository jobRunRepository;
+    private final JobChunkRepository jobChunkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxConcurrency;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public JobRunner(JobRunRepository jobRunRepository,
+                     JobChunkRepository jobChunkRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${jobs.max-concurrency:4}") int maxConcurrency) {
+        this.jobRunRepository = jobRunRepository;
+        this.jobChunkRepository = jobChunkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public JobRun run(String jobName, String runKey, Supplier<List<ChunkPlan>> planner, ChunkHandler handler) {
+        return run(jobName, runKey, planner, handler, () -> false);
+    }
+
+    public JobRun run(String jobName, String runKey, Supplier<List<ChunkPlan>> planner, ChunkHandler handler,
+                      BooleanSupplier paused) {
+        String key = jobName + ":" + runKey;
+        if (!running.add(key)) {
+            log.info("Job {} is already running", key);
+            return jobRunRepository.findByJobNameAndRunKey(jobName, runKey).orElse(null);
+        }
+
+        try {
+            JobRun run = start(jobName, runKey, planner);
+            if (run.getStatus() == JobStatus.COMPLETED) {
+                return run;
+            }
+
+            List<JobChunk> pending = jobChunkRepository.findByJobRunIdAndStatusNot(run.getId(), JobStatus.COMPLETED);
+            log.info("Job {}: {} of {} chunks to process", key, pending.size(), run.getTotalChunks());
+
+            Semaphore permits = new Semaphore(maxConcurrency);
+            boolean stopped = false;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (JobChunk chunk : pending) {
+                    permits.acquireUninterruptibly();
+                    if (paused.getAsBoolean()) {
+                        permits.release();
+                        stopped = true;
+                        log.info("Job {} paused, leaving the remaining chunks pending", key);
+                        break;
+                    }
+                    executor.submit(() -> {
+                        try {
+                            runChunk(key, chunk, handler);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                }
+            }
+
+            return finish(run.getId(), stopped);
+        } finally {
+            running.remove(key);
+        }
+    }
+
+    public List<JobProgress> recentProgress() {
+        List<JobRun> runs = jobRunRepository.findTop20ByOrderByIdDesc();
+        if (runs.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, long[]> counts = new HashMap<>(); // completed, failed, processed
+        for (Object[] row : jobChunkRepository.summarize(runs.stream().map(JobRun::getId).toList())) {
+            long[] c = counts.computeIfAbsent((Long) row[0], id -> new long[3]);
+            JobStatus status = (JobStatus) row[1];
+            if (status == JobStatus.COMPLETED) c[0] += (Long) row[2];
+            if (status == JobStatus.FAILED) c[1] += (Long) row[2];
+            c[2] += ((Number) row[3]).longValue();
+        }
+
+        List<JobProgress> progress = new ArrayList<>();
+        for (JobRun run : runs) {
+            long[] c = counts.getOrDefault(run.getId(), new long[3]);
+            progress.add(new JobProgress(
+                    run.getId(), run.getJobName(), run.getRunKey(), run.getStatus(),
+                    run.getTotalChunks(), c[0], c[1], c[2], run.getStartedAt(), run.getFinishedAt()));
+        }
+        return progress;
+    }
+
+    private JobRun start(String jobName, String runKey, Supplier<List<ChunkPlan>> planner) {
+        return transactionTemplate.execute(status -> {
+            JobRun existing = jobRunRepository.findByJobNameAndRunKey(jobName, runKey).orElse(null);
+            if (existing != null) {
+                if (existing.getStatus() != JobStatus.COMPLETED) {
+                    existing.setStatus(JobStatus.RUNNING);
+                    existing.setFinishedAt(null);
+                }
+                return existing;
+            }
+
+            List<ChunkPlan> plans = planner.get();
+
+            JobRun run = new JobRun();
+            run.setJobName(jobName);
+            run.setRunKey(runKey);
+            run.setStatus(plans.isEmpty() ? JobStatus.COMPLETED : JobStatus.RUNNING);
+            run.setTotalChunks(plans.size());
+            run.setStartedAt(LocalDateTime.now());
+            if (plans.isEmpty()) {
+                run.setFinishedAt(run.getStartedAt());
+            }
+            jobRunRepository.save(run);
+
+            List<JobChunk> chunks = new ArrayList<>();
+            for (ChunkPlan plan : plans) {
+                JobChunk chunk = new JobChunk();
+                chunk.setJobRun(run);
+                chunk.setPartitionKey(plan.partitionKey());
+                chunk.setRangeStart(plan.rangeStart());
+                chunk.setRangeEnd(plan.rangeEnd());
+                chunk.setStatus(JobStatus.PENDING);
+                chunk.setUpdatedAt(run.getStartedAt());
+                chunks.add(chunk);
+            }
+            jobChunkRepository.saveAll(chunks);
+            return run;
+        });
+    }
+
+    private void runChunk(String key, JobChunk chunk, ChunkHandler handler) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long processed = handler.process(chunk);
+                jobChunkRepository.markCompleted(chunk.getId(), processed, LocalDateTime.now());
+            });
+        } catch (RuntimeException e) {
+            log.error("Job {}: chunk {} ({} {}-{}) failed", key, chunk.getId(),
+                    chunk.getPartitionKey(), chunk.getRangeStart(), chunk.getRangeEnd(), e);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jobChunkRepository.markFailed(chunk.getId(), truncate(String.valueOf(e.getMessage())), LocalDateTime.now()));
+            } catch (RuntimeException markFailed) {
+                log.error("Job {}: could not record the failure of chunk {}", key, chunk.getId(), markFailed);
+            }
+        }
+    }
+
+    // SQL errors can carry the whole statement and its values, past what job_chunks.error holds
+    private static String truncate(String message) {
+        return message.length() > 2000 ? message.substring(0, 2000) : message;
+    }
+
+    private JobRun finish(Long runId, boolean stopped) {
+        return transactionTemplate.execute(status -> {
+            JobRun run = jobRunRepository.findById(runId).orElseThrow();
+            long unfinished = jobChunkRepository.countByJobRunIdAndStatusNot(runId, JobStatus.COMPLETED);
+            if (unfinished > 0 && stopped) {
+                run.setStatus(JobStatus.PENDING);
+                return jobRunRepository.save(run);
+            }
+            run.setStatus(unfinished == 0 ? JobStatus.COMPLETED : JobStatus.FAILED);
+            run.setFinishedAt(LocalDateTime.now());
+            return jobRunRepository.save(run);
+        });
+    }
+}
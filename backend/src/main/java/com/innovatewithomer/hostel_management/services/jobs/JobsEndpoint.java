@@ -0,0 +1,24 @@
+package com.innovatewithomer.hostel_management.services.jobs;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/jobs
+@Component
+@Endpoint(id = "jobs")
+public class JobsEndpoint {
+
+    private final JobRunner jobRunner;
+
+    public JobsEndpoint(JobRunner jobRunner) {
+        this.jobRunner = jobRunner;
+    }
+
+    @ReadOperation
+    public List<JobProgress> jobs() {
+        return jobRunner.recentProgress();
+    }
+}
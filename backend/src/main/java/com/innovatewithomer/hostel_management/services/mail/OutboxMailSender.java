@@ -0,0 +1,204 @@
+package com.innovatewithomer.hostel_management.services.mail;
+
+import com.innovatewithomer.hostel_management.entities.OutboxEmail;
+import com.innovatewithomer.hostel_management.entities.OutboxStatus;
+import com.innovatewithomer.hostel_management.repositories.OutboxEmailRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drains the email outbox. Due messages are claimed in batches and each batch goes out over
+ * a single SMTP connection. Failed messages are retried with exponential backoff until they
+ * run out of attempts, and a circuit breaker pauses sending while the server keeps failing;
+ * when it lets a trial through, that trial is a single message rather than a whole batch.
+ * Sending never goes faster than the provider's per-minute quota.
+ */
+@Slf4j
+@Service
+public class OutboxMailSender {
+
+    private static final Duration KEEP_SENT = Duration.ofDays(7);
+    private static final Duration INTERRUPTED_AFTER = Duration.ofMinutes(15);
+
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final SendQuota sendQuota;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+
+    @Autowired
+    public OutboxMailSender(OutboxEmailRepository outboxEmailRepository,
+                            JavaMailSender mailSender,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${mail.outbox.batch-size:50}") int batchSize,
+                            @Value("${mail.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${mail.outbox.base-backoff:30s}") Duration baseBackoff,
+                            @Value("${mail.outbox.max-backoff:1h}") Duration maxBackoff,
+                            @Value("${mail.outbox.breaker.failure-threshold:3}") int failureThreshold,
+                            @Value("${mail.outbox.breaker.open-for:1m}") Duration openFor,
+                            @Value("${mail.outbox.rate-per-minute:100}") int ratePerMinute) {
+        this(outboxEmailRepository, mailSender, transactionManager, batchSize, maxAttempts, baseBackoff, maxBackoff,
+                new CircuitBreaker(failureThreshold, openFor), new SendQuota(ratePerMinute));
+    }
+
+    OutboxMailSender(OutboxEmailRepository outboxEmailRepository,
+                     JavaMailSender mailSender,
+                     PlatformTransactionManager transactionManager,
+                     int batchSize, int maxAttempts, Duration baseBackoff, Duration maxBackoff,
+                     CircuitBreaker circuitBreaker, SendQuota sendQuota) {
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.circuitBreaker = circuitBreaker;
+        this.sendQuota = sendQuota;
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval:2s}")
+    public void drain() {
+        while (circuitBreaker.allowRequest()) {
+            boolean trial = circuitBreaker.state() == CircuitBreaker.State.HALF_OPEN;
+            int allowed = sendQuota.take(trial ? 1 : batchSize);
+            if (allowed == 0) {
+                circuitBreaker.releaseTrial();
+                return;
+            }
+
+            // Claiming commits first, so nothing is locked while SMTP is talked to
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEmail> batch = transactionTemplate.execute(status -> outboxEmailRepository.claimDue(now, allowed));
+            if (batch == null || batch.isEmpty()) {
+                sendQuota.giveBack(allowed);
+                circuitBreaker.releaseTrial();
+                return;
+            }
+            sendQuota.giveBack(allowed - batch.size());
+
+            send(batch, now);
+            transactionTemplate.executeWithoutResult(status -> outboxEmailRepository.saveAll(batch));
+
+            if (batch.size() < allowed && !trial) {
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void removeSent() {
+        Integer removed = transactionTemplate.execute(status ->
+                outboxEmailRepository.deleteSentBefore(LocalDateTime.now().minus(KEEP_SENT)));
+        if (removed != null && removed > 0) {
+            log.info("Removed {} sent emails from the outbox", removed);
+        }
+    }
+
+    @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 60 * 1000)
+    public void recoverInterrupted() {
+        LocalDateTime before = LocalDateTime.now().minus(INTERRUPTED_AFTER);
+        transactionTemplate.executeWithoutResult(status -> {
+            int failed = outboxEmailRepository.failInterruptedCampaignEmails(before);
+            int released = outboxEmailRepository.releaseInterrupted(before);
+            if (failed + released > 0) {
+                log.warn("Found {} outbox emails interrupted while sending: {} retried, {} campaign emails not retried",
+                        failed + released, released, failed);
+            }
+        });
+    }
+
+    private void send(List<OutboxEmail> batch, LocalDateTime now) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        MailException batchError = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+            batchError = e;
+        } catch (MailException e) {
+            batchError = e;
+        }
+
+        int failures = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEmail email = batch.get(i);
+            Exception error = failed.isEmpty() ? batchError : failed.get(messages[i]);
+            if (error == null) {
+                email.setStatus(OutboxStatus.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+            } else {
+                failures++;
+                retryLater(email, error, now);
+            }
+        }
+
+        // A batch where nothing got through means the server is the problem, not the messages
+        if (failures == batch.size()) {
+            circuitBreaker.recordFailure();
+            log.warn("Sending {} outbox emails failed: {}", batch.size(), batchError.getMessage());
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+    }
+
+    private void retryLater(OutboxEmail email, Exception error, LocalDateTime now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(String.valueOf(error.getMessage())));
+
+        email.setStatus(OutboxStatus.PENDING);
+        if (attempts >= maxAttempts) {
+            email.setStatus(OutboxStatus.FAILED);
+            log.error("Giving up on outbox email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts);
+            return;
+        }
+        email.setNextAttemptAt(now.plus(backoff(attempts)));
+    }
+
+    // base * 2^(attempts - 1), capped, with up to 20% jitter so retries from one outage spread out
+    Duration backoff(int attempts) {
+        long millis = baseBackoff.toMillis() << Math.min(attempts - 1, 30);
+        if (millis <= 0 || millis > maxBackoff.toMillis()) {
+            millis = maxBackoff.toMillis();
+        }
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis / 5 + 1));
+    }
+
+    private static SimpleMailMessage toMessage(OutboxEmail email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
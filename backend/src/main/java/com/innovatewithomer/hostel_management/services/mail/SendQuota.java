@@ -0,0 +1,47 @@
+package com.innovatewithomer.hostel_management.services.mail;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps sending under the SMTP provider's per-minute quota. Allowance builds up continuously,
+ * up to one minute's worth, and is taken a batch at a time.
+ */
+public class SendQuota {
+
+    private final double perMinute;
+    private final double perNano;
+    private final LongSupplier clock;
+
+    private double available;
+    private long lastRefill;
+
+    public SendQuota(int perMinute) {
+        this(perMinute, System::nanoTime);
+    }
+
+    SendQuota(int perMinute, LongSupplier clock) {
+        this.perMinute = perMinute;
+        this.perNano = perMinute / 60e9;
+        this.clock = clock;
+        this.available = perMinute;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Takes up to {@code wanted} sends and returns how many were granted, possibly zero.
+     */
+    public synchronized int take(int wanted) {
+        long now = clock.getAsLong();
+        available = Math.min(perMinute, available + (now - lastRefill) * perNano);
+        lastRefill = now;
+
+        int granted = (int) Math.min(wanted, Math.floor(available));
+        available -= granted;
+        return granted;
+    }
+
+    // Returns sends that were granted but not used
+    public synchronized void giveBack(int unused) {
+        available = Math.min(perMinute, available + unused);
+    }
+}
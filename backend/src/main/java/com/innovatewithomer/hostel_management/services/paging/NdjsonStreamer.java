@@ -0,0 +1,60 @@
+package com.innovatewithomer.hostel_management.services.paging;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a repository stream as newline-delimited JSON, one row at a time. The stream is
+ * opened in its own read-only transaction on the response thread, so the driver can use a
+ * server-side cursor and nothing but the current row is held in memory.
+ */
+@Component
+public class NdjsonStreamer {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final ObjectWriter writer;
+    private final TransactionTemplate transactionTemplate;
+
+    public NdjsonStreamer(JsonMapper jsonMapper, PlatformTransactionManager transactionManager) {
+        this.writer = jsonMapper.writer();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(Supplier<Stream<T>> rows) {
+        StreamingResponseBody body = out -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> stream = rows.get()) {
+                write(stream.iterator(), out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void write(Iterator<?> rows, OutputStream out) throws IOException {
+        int written = 0;
+        while (rows.hasNext()) {
+            out.write(writer.writeValueAsBytes(rows.next()));
+            out.write('\n');
+            if (++written % FLUSH_EVERY == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,71 @@
+package com.innovatewithomer.hostel_management.services.paging;
+
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import lombok.Getter;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination shared by the list endpoints. Rows are ordered by id and a page
+ * starts after the last id of the previous one, so deep pages cost the same as the first.
+ * The cursor handed to clients is opaque; filters travel as ordinary request parameters
+ * and must stay the same while following a cursor.
+ */
+@Getter
+public final class PageQuery {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final String PREFIX = "id:";
+
+    private final long afterId;
+    private final int limit;
+
+    private PageQuery(long afterId, int limit) {
+        this.afterId = afterId;
+        this.limit = limit;
+    }
+
+    public static PageQuery of(String cursor, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new RuntimeException("Limit must be at least 1");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        return new PageQuery(cursor == null || cursor.isBlank() ? 0 : decode(cursor), size);
+    }
+
+    // One row more than the page, to tell whether another page follows without a count query
+    public Limit fetchLimit() {
+        return Limit.of(limit + 1);
+    }
+
+    public <T> CursorPage<T> page(List<T> rows, Function<T, Long> id) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(List.copyOf(items), encode(id.apply(items.get(limit - 1))));
+    }
+
+    static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
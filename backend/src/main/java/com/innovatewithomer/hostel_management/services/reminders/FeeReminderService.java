@@ -0,0 +1,256 @@
+package com.innovatewithomer.hostel_management.services.reminders;
+
+import com.innovatewithomer.hostel_management.dto.ReminderCampaignProgress;
+import com.innovatewithomer.hostel_management.entities.*;
+import com.innovatewithomer.hostel_management.repositories.FeeRepository;
+import com.innovatewithomer.hostel_management.repositories.HostelRepository;
+import com.innovatewithomer.hostel_management.repositories.OutboxEmailRepository;
+import com.innovatewithomer.hostel_management.repositories.ReminderCampaignRepository;
+import com.innovatewithomer.hostel_management.services.jobs.ChunkPlan;
+import com.innovatewithomer.hostel_management.services.jobs.JobRunner;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends fee reminders to every student with an unpaid (or overdue) fee, across all hostels.
+ *
+ * Recipients are read per hostel and fee id range through a JDBC cursor, rendered against the
+ * hostel's template and written to the email outbox, which does the rate-limited sending. Each
+ * range commits with its JobRunner checkpoint, so an interrupted campaign picks up where it
+ * stopped. The outbox holds at most one email per campaign and fee, so running a range again
+ * cannot queue a second copy. Pausing stops the ranges not yet started; resuming queues them.
+ */
+@Slf4j
+@Service
+public class FeeReminderService {
+
+    static final String JOB_NAME = "fee-reminders";
+
+    private static final long CHUNK_SIZE = 5_000;
+    private static final int FETCH_SIZE = 500;
+
+    private static final String RECIPIENTS_SQL = """
+            SELECT f.id, u.email, u.name, f.month, f.amount, f.due_date
+            FROM fees f
+            JOIN students s ON s.id = f.student_id
+            JOIN users u ON u.user_id = s.user_id
+            WHERE f.hostel_id = ? AND f.status = ? AND f.id BETWEEN ? AND ? AND u.active
+            ORDER BY f.id
+            """;
+
+    private static final String QUEUE_SQL = """
+            INSERT INTO email_outbox (recipient, subject, body, status, attempts, next_attempt_at, created_at, campaign_id, fee_id)
+            VALUES (?, ?, ?, 'PENDING', 0, ?, ?, ?, ?)
+            ON CONFLICT (campaign_id, fee_id) DO NOTHING
+            """;
+
+    private static final Map<ReminderKind, ReminderTemplate> SUBJECTS = Map.of(
+            ReminderKind.DUE, ReminderTemplate.compile("Fee reminder: ${month} fee due on ${due}"),
+            ReminderKind.OVERDUE, ReminderTemplate.compile("Overdue fee: ${month}")
+    );
+
+    private static final Map<ReminderKind, ReminderTemplate> BODIES = Map.of(
+            ReminderKind.DUE, ReminderTemplate.compile(
+                    "Dear ${name},\n\n" +
+                            "This is a reminder from ${hostel} that your hostel fee of Rs ${amount} " +
+                            "for ${month} is due on ${due}.\n\n" +
+                            "Please pay before the due date to avoid it being marked overdue."),
+            ReminderKind.OVERDUE, ReminderTemplate.compile(
+                    "Dear ${name},\n\n" +
+                            "Your hostel fee of Rs ${amount} for ${month} at ${hostel} was due on ${due} " +
+                            "and is now overdue.\n\n" +
+                            "Please pay it as soon as possible.")
+    );
+
+    private final ReminderCampaignRepository campaignRepository;
+    private final FeeRepository feeRepository;
+    private final HostelRepository hostelRepository;
+    private final OutboxEmailRepository outboxEmailRepository;
+    private final JobRunner jobRunner;
+    private final JdbcTemplate cursor;
+    private final TransactionTemplate transactionTemplate;
+
+    public FeeReminderService(ReminderCampaignRepository campaignRepository,
+                              FeeRepository feeRepository,
+                              HostelRepository hostelRepository,
+                              OutboxEmailRepository outboxEmailRepository,
+                              JobRunner jobRunner,
+                              DataSource dataSource,
+                              PlatformTransactionManager transactionManager) {
+        this.campaignRepository = campaignRepository;
+        this.feeRepository = feeRepository;
+        this.hostelRepository = hostelRepository;
+        this.outboxEmailRepository = outboxEmailRepository;
+        this.jobRunner = jobRunner;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // A fetch size inside a transaction makes the driver stream rows instead of loading them all
+        this.cursor = new JdbcTemplate(dataSource);
+        this.cursor.setFetchSize(FETCH_SIZE);
+    }
+
+    public ReminderCampaign start(ReminderKind kind) {
+        ReminderCampaign campaign = transactionTemplate.execute(status -> {
+            ReminderCampaign c = new ReminderCampaign();
+            c.setKind(kind);
+            c.setStatus(CampaignStatus.RUNNING);
+            c.setCreatedAt(LocalDateTime.now());
+            return campaignRepository.save(c);
+        });
+        queueInBackground(campaign);
+        return campaign;
+    }
+
+    public ReminderCampaign pause(Long campaignId) {
+        return transactionTemplate.execute(status -> {
+            ReminderCampaign campaign = find(campaignId);
+            campaign.setStatus(CampaignStatus.PAUSED);
+            return campaign;
+        });
+    }
+
+    public ReminderCampaign resume(Long campaignId) {
+        ReminderCampaign campaign = transactionTemplate.execute(status -> {
+            ReminderCampaign c = find(campaignId);
+            c.setStatus(CampaignStatus.RUNNING);
+            return c;
+        });
+        if (campaign.getQueuedAt() == null) {
+            queueInBackground(campaign);
+        }
+        return campaign;
+    }
+
+    public ReminderCampaignProgress progress(Long campaignId) {
+        ReminderCampaign campaign = find(campaignId);
+
+        ReminderCampaignProgress progress = new ReminderCampaignProgress();
+        progress.setId(campaign.getId());
+        progress.setKind(campaign.getKind());
+        progress.setStatus(campaign.getStatus());
+        progress.setCreatedAt(campaign.getCreatedAt());
+        progress.setQueuedAt(campaign.getQueuedAt());
+
+        for (Object[] row : outboxEmailRepository.countByStatus(campaignId)) {
+            long count = (Long) row[1];
+            switch ((OutboxStatus) row[0]) {
+                case PENDING, SENDING -> progress.setPending(progress.getPending() + count);
+                case SENT -> progress.setSent(count);
+                case FAILED -> progress.setFailed(count);
+            }
+        }
+        return progress;
+    }
+
+    // Campaigns that were still queueing when the application stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (ReminderCampaign campaign : campaignRepository.findByStatusAndQueuedAtIsNull(CampaignStatus.RUNNING)) {
+            log.info("Resuming reminder campaign {}", campaign.getId());
+            queueInBackground(campaign);
+        }
+    }
+
+    private void queueInBackground(ReminderCampaign campaign) {
+        Thread.ofVirtual()
+                .name("fee-reminders-" + campaign.getId())
+                .start(() -> queue(campaign.getId(), campaign.getKind()));
+    }
+
+    void queue(Long campaignId, ReminderKind kind) {
+        JobRun run = jobRunner.run(
+                JOB_NAME,
+                "campaign-" + campaignId,
+                () -> planChunks(kind),
+                chunk -> queueChunk(campaignId, kind, chunk),
+                () -> find(campaignId).getStatus() == CampaignStatus.PAUSED
+        );
+        if (run == null || run.getStatus() != JobStatus.COMPLETED) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ReminderCampaign campaign = find(campaignId);
+            if (campaign.getQueuedAt() == null) {
+                campaign.setQueuedAt(LocalDateTime.now());
+                log.info("Reminder campaign {} queued", campaignId);
+            }
+        });
+    }
+
+    private List<ChunkPlan> planChunks(ReminderKind kind) {
+        List<ChunkPlan> plans = new ArrayList<>();
+        for (Object[] row : feeRepository.findIdRangesByHostelAndStatus(feeStatus(kind))) {
+            long first = (Long) row[1];
+            long last = (Long) row[2];
+            for (long from = first; from <= last; from += CHUNK_SIZE) {
+                plans.add(new ChunkPlan(row[0].toString(), from, Math.min(from + CHUNK_SIZE - 1, last)));
+            }
+        }
+        return plans;
+    }
+
+    private long queueChunk(Long campaignId, ReminderKind kind, JobChunk chunk) {
+        Long hostelId = Long.valueOf(chunk.getPartitionKey());
+        Hostel hostel = hostelRepository.findById(hostelId).orElse(null);
+        if (hostel == null) return 0;
+
+        // Rendered once for the hostel; only the per-student values are filled in below
+        ReminderTemplate subject = SUBJECTS.get(kind).with("hostel", hostel.getName());
+        ReminderTemplate body = BODIES.get(kind).with("hostel", hostel.getName());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(FETCH_SIZE);
+        long[] queued = {0};
+
+        cursor.query(RECIPIENTS_SQL, rs -> {
+            Date due = rs.getDate(6);
+            Map<String, String> values = Map.of(
+                    "name", String.valueOf(rs.getString(3)),
+                    "month", rs.getString(4),
+                    "amount", String.valueOf(rs.getDouble(5)),
+                    "due", due != null ? due.toLocalDate().toString() : "-"
+            );
+            batch.add(new Object[]{
+                    rs.getString(2), subject.render(values), body.render(values), now, now, campaignId, rs.getLong(1)
+            });
+
+            if (batch.size() == FETCH_SIZE) {
+                queued[0] += flush(batch);
+            }
+        }, hostelId, feeStatus(kind).name(), chunk.getRangeStart(), chunk.getRangeEnd());
+
+        queued[0] += flush(batch);
+        return queued[0];
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) return 0;
+        cursor.batchUpdate(QUEUE_SQL, batch);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private ReminderCampaign find(Long campaignId) {
+        return campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new RuntimeException("Campaign not found"));
+    }
+
+    private static FeeStatus feeStatus(ReminderKind kind) {
+        return kind == ReminderKind.OVERDUE ? FeeStatus.OVERDUE : FeeStatus.UNPAID;
+    }
+}
@@ -0,0 +1,59 @@
+package com.innovatewithomer.hostel_management.services.reminders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text with ${name} placeholders, split up front into literal and placeholder parts.
+ * Placeholders that are the same for many emails can be bound once with {@link #with}.
+ */
+final class ReminderTemplate {
+
+    // Even indexes are literal text, odd indexes are placeholder names
+    private final List<String> parts;
+
+    private ReminderTemplate(List<String> parts) {
+        this.parts = parts;
+    }
+
+    static ReminderTemplate compile(String text) {
+        List<String> parts = new ArrayList<>();
+        int at = 0;
+        while (true) {
+            int open = text.indexOf("${", at);
+            int close = open < 0 ? -1 : text.indexOf('}', open);
+            if (close < 0) {
+                parts.add(text.substring(at));
+                return new ReminderTemplate(List.copyOf(parts));
+            }
+            parts.add(text.substring(at, open));
+            parts.add(text.substring(open + 2, close));
+            at = close + 1;
+        }
+    }
+
+    ReminderTemplate with(String name, String value) {
+        List<String> bound = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(parts.get(0));
+        for (int i = 1; i < parts.size(); i += 2) {
+            if (parts.get(i).equals(name)) {
+                literal.append(value).append(parts.get(i + 1));
+            } else {
+                bound.add(literal.toString());
+                bound.add(parts.get(i));
+                literal = new StringBuilder(parts.get(i + 1));
+            }
+        }
+        bound.add(literal.toString());
+        return new ReminderTemplate(List.copyOf(bound));
+    }
+
+    String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(parts.get(0));
+        for (int i = 1; i < parts.size(); i += 2) {
+            out.append(values.getOrDefault(parts.get(i), "")).append(parts.get(i + 1));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,299 @@
+-- The schema migrations start from. On an empty database this creates everything. A database
+-- that Hibernate created with ddl-auto=update before migrations took over is baselined at V0,
+-- so this script runs on it too: objects it already has are skipped and the statements below
+-- bring its tables up to date.
+
+create sequence if not exists allocations_seq start with 1 increment by 50;
+
+create sequence if not exists fees_seq start with 1 increment by 50;
+
+create sequence if not exists kitchen_inventory_seq start with 1 increment by 50;
+
+create sequence if not exists students_seq start with 1 increment by 50;
+
+create table if not exists allocations (
+    active boolean not null,
+    bed_number integer not null,
+    allocated_at timestamp(6),
+    id bigint not null,
+    room_id bigint not null,
+    student_id bigint not null,
+    primary key (id)
+);
+
+create table if not exists email_outbox (
+    attempts integer not null,
+    campaign_id bigint,
+    claimed_at timestamp(6),
+    created_at timestamp(6),
+    fee_id bigint,
+    id bigint generated by default as identity,
+    next_attempt_at timestamp(6) not null,
+    sent_at timestamp(6),
+    status varchar(16) not null check ((status in ('PENDING','SENDING','SENT','FAILED'))),
+    last_error varchar(500),
+    body TEXT not null,
+    recipient varchar(255) not null,
+    subject varchar(255) not null,
+    primary key (id),
+    constraint uk_email_outbox_campaign_fee unique (campaign_id, fee_id)
+);
+
+create table if not exists email_verification_token (
+    expires_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    user_user_id bigint unique,
+    token varchar(255) not null unique,
+    primary key (id)
+);
+
+create table if not exists fee_config (
+    active boolean not null,
+    due_day integer,
+    effective_from date,
+    monthly_amount float(53) not null,
+    hostel_id bigint,
+    id bigint generated by default as identity,
+    primary key (id)
+);
+
+create table if not exists fee_generation_state (
+    generated_at timestamp(6),
+    hostel_id bigint not null,
+    last_generated_month varchar(255) not null,
+    primary key (hostel_id)
+);
+
+create table if not exists fee_rollups (
+    total_amount float(53) not null,
+    fee_count bigint not null,
+    hostel_id bigint not null,
+    month varchar(255) not null,
+    status varchar(255) not null check ((status in ('PAID','UNPAID','OVERDUE'))),
+    primary key (hostel_id, month, status)
+);
+
+create table if not exists fees (
+    amount float(53) not null,
+    due_date date,
+    paid_on date,
+    hostel_id bigint not null,
+    id bigint not null,
+    student_id bigint,
+    month varchar(255) not null,
+    status varchar(255) check ((status in ('PAID','UNPAID','OVERDUE'))),
+    primary key (id)
+);
+
+create table if not exists hostel (
+    active boolean not null,
+    id bigint generated by default as identity,
+    name varchar(255) not null unique,
+    primary key (id)
+);
+
+create table if not exists job_chunks (
+    attempts integer not null,
+    id bigint generated by default as identity,
+    job_run_id bigint not null,
+    processed bigint not null,
+    range_end bigint not null,
+    range_start bigint not null,
+    updated_at timestamp(6),
+    error varchar(2000),
+    partition_key varchar(255),
+    status varchar(255) check ((status in ('PENDING','RUNNING','COMPLETED','FAILED'))),
+    primary key (id)
+);
+
+create table if not exists job_runs (
+    total_chunks integer not null,
+    finished_at timestamp(6),
+    id bigint generated by default as identity,
+    started_at timestamp(6),
+    job_name varchar(255) not null,
+    run_key varchar(255) not null,
+    status varchar(255) check ((status in ('PENDING','RUNNING','COMPLETED','FAILED'))),
+    primary key (id),
+    unique (job_name, run_key)
+);
+
+create table if not exists kitchen_inventory (
+    quantity float(53) not null,
+    hostel_id bigint not null,
+    id bigint not null,
+    last_updated timestamp(6),
+    item_name varchar(255),
+    unit varchar(255),
+    primary key (id)
+);
+
+create table if not exists notices (
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    message varchar(2000),
+    title varchar(255),
+    primary key (id)
+);
+
+create table if not exists refresh_tokens (
+    access_expires_at timestamp(6),
+    created_at timestamp(6),
+    expires_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    revoked_at timestamp(6),
+    user_id bigint not null,
+    token_hash varchar(64) not null unique,
+    access_token_id varchar(255),
+    primary key (id)
+);
+
+create table if not exists reminder_campaigns (
+    created_at timestamp(6),
+    id bigint generated by default as identity,
+    queued_at timestamp(6),
+    kind varchar(16) not null check ((kind in ('DUE','OVERDUE'))),
+    status varchar(16) not null check ((status in ('RUNNING','PAUSED'))),
+    primary key (id)
+);
+
+create table if not exists revoked_tokens (
+    expires_at timestamp(6) not null,
+    revoked_at timestamp(6) not null,
+    jti varchar(255) not null,
+    primary key (jti)
+);
+
+create table if not exists rooms (
+    capacity integer not null,
+    hostel_id bigint not null,
+    id bigint generated by default as identity,
+    block varchar(255),
+    room_number varchar(255),
+    primary key (id)
+);
+
+create table if not exists students (
+    hostel_id bigint not null,
+    id bigint not null,
+    user_id bigint not null unique,
+    guardian_name varchar(255),
+    guardian_phone varchar(255),
+    phone varchar(255),
+    roll_no varchar(255),
+    primary key (id)
+);
+
+create table if not exists sweep_watermarks (
+    swept_until date not null,
+    swept_at timestamp(6),
+    name varchar(255) not null,
+    primary key (name)
+);
+
+create table if not exists users (
+    active boolean not null,
+    email_verified boolean not null,
+    token_version integer default 0 not null,
+    hostel_id bigint,
+    user_id bigint generated by default as identity,
+    email varchar(255) not null unique,
+    name varchar(255),
+    password varchar(255) not null,
+    role varchar(255) not null check ((role in ('ADMIN','STAFF','STUDENT'))),
+    primary key (user_id)
+);
+
+create index if not exists idx_email_outbox_pending on email_outbox (status, next_attempt_at);
+
+create index if not exists idx_fees_status_due_date on fees (status, due_date);
+
+create index if not exists idx_fees_hostel_status_due_date on fees (hostel_id, status, due_date);
+
+create index if not exists idx_refresh_tokens_user on refresh_tokens (user_id, revoked_at);
+
+create index if not exists idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at);
+
+-- The ddl-auto schema already has the foreign keys between its own tables
+do $$
+begin
+    if not exists (select 1 from pg_constraint where conname = 'fkpkx2s2ihjrcpcoabifnwo68cn') then
+        alter table allocations add constraint FKpkx2s2ihjrcpcoabifnwo68cn foreign key (room_id) references rooms;
+        alter table allocations add constraint FKt8f0vsywgt54aj29aocbc7qlb foreign key (student_id) references students;
+        alter table email_verification_token add constraint FKkbw2g875nb7b9uxsebi8q4k8k foreign key (user_user_id) references users;
+        alter table fee_config add constraint FKh197vjom7ol3bdvvfoq2cohgn foreign key (hostel_id) references hostel;
+        alter table fees add constraint FK671w7thpxcfrgfi7wk1w2mjs4 foreign key (hostel_id) references hostel;
+        alter table fees add constraint FKh56p3es1h1lt6ge4cl3by4oko foreign key (student_id) references students;
+        alter table kitchen_inventory add constraint FKu1tkj0l5qjf8bmt9nyh680a3 foreign key (hostel_id) references hostel;
+        alter table rooms add constraint FKm92ymh8jcwa72mf201j2mxtbm foreign key (hostel_id) references hostel;
+        alter table students add constraint FKpnuj43giwowo22nknj92fh9vs foreign key (hostel_id) references hostel;
+        alter table students add constraint FKdt1cjx5ve5bdabmuuf3ibrwaq foreign key (user_id) references users;
+        alter table users add constraint FK7sbhenomwh2skqxqwsc78t365 foreign key (hostel_id) references hostel;
+    end if;
+    -- Tables added after the original schema, which a later ddl-auto run may have created too
+    if not exists (select 1 from pg_constraint where conname = 'fk307rc4hxqpegrqoi1hti8t1js') then
+        alter table job_chunks add constraint FK307rc4hxqpegrqoi1hti8t1js foreign key (job_run_id) references job_runs;
+    end if;
+    if not exists (select 1 from pg_constraint where conname = 'fk1lih5y2npsf8u5o3vhdb9y0os') then
+        alter table refresh_tokens add constraint FK1lih5y2npsf8u5o3vhdb9y0os foreign key (user_id) references users;
+    end if;
+end $$;
+
+-- A bed can only hold one active allocation, and a student can only have one. Concurrent
+-- allocations on a ddl-auto database could break either, and which allocation stands is not
+-- ours to guess, so stop with the ones to resolve instead.
+do $$
+declare
+    duplicated bigint;
+begin
+    if to_regclass('uk_allocations_active_bed') is null then
+        select count(*) into duplicated
+        from (select 1 from allocations where active group by room_id, bed_number having count(*) > 1) beds;
+        if duplicated > 0 then
+            raise exception 'allocations has % beds with more than one active allocation; deactivate all but one for each and migrate again', duplicated
+                using hint = 'select room_id, bed_number, array_agg(id order by id) from allocations where active group by room_id, bed_number having count(*) > 1';
+        end if;
+        create unique index uk_allocations_active_bed on allocations (room_id, bed_number) where active;
+    end if;
+
+    if to_regclass('uk_allocations_active_student') is null then
+        select count(*) into duplicated
+        from (select 1 from allocations where active group by student_id having count(*) > 1) students;
+        if duplicated > 0 then
+            raise exception 'allocations has % students with more than one active allocation; deactivate all but one for each and migrate again', duplicated
+                using hint = 'select student_id, array_agg(id order by id) from allocations where active group by student_id having count(*) > 1';
+        end if;
+        create unique index uk_allocations_active_student on allocations (student_id) where active;
+    end if;
+end $$;
+
+-- Upgrading a ddl-auto database: columns added since, and ids that now come from the pooled
+-- sequences instead of identity columns (V2 moves the sequences past the ids already used)
+alter table fees add column if not exists paid_on date;
+
+alter table users add column if not exists token_version integer default 0 not null;
+
+alter table allocations alter column id drop identity if exists;
+
+alter table fees alter column id drop identity if exists;
+
+alter table kitchen_inventory alter column id drop identity if exists;
+
+alter table students alter column id drop identity if exists;
+
+-- Nothing stopped a ddl-auto database from charging a student twice for a month. Which of two
+-- fees is the real one is not ours to guess, so stop with the pairs to resolve instead.
+do $$
+declare
+    duplicated bigint;
+begin
+    if not exists (select 1 from pg_constraint where conname = 'uk_fees_student_month') then
+        select count(*) into duplicated
+        from (select 1 from fees where student_id is not null group by student_id, month having count(*) > 1) pairs;
+        if duplicated > 0 then
+            raise exception 'fees has % student/month pairs with more than one fee; keep one fee for each and migrate again', duplicated
+                using hint = 'select student_id, month, array_agg(id order by id) from fees group by student_id, month having count(*) > 1';
+        end if;
+        alter table fees add constraint uk_fees_student_month unique (student_id, month);
+    end if;
+end $$;
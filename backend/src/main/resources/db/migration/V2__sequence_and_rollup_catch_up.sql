@@ -0,0 +1,19 @@
+-- Formerly run from schema.sql on every start. They only do something on a database that V1
+-- upgraded from the ddl-auto schema, whose ids came from identity columns and whose fees have
+-- no rollups yet. On a database V1 created there is nothing to catch up.
+
+-- Fee, Allocation, Student and KitchenInventory ids come from pooled sequences (allocation size 50)
+-- instead of identity columns. Move each sequence past the ids handed out by the old identity
+-- column; GREATEST keeps this a no-op once the sequence is ahead.
+SELECT setval('fees_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM fees) + 50, (SELECT last_value FROM fees_seq)));
+SELECT setval('allocations_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM allocations) + 50, (SELECT last_value FROM allocations_seq)));
+SELECT setval('students_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM students) + 50, (SELECT last_value FROM students_seq)));
+SELECT setval('kitchen_inventory_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM kitchen_inventory) + 50, (SELECT last_value FROM kitchen_inventory_seq)));
+
+-- Seed fee_rollups if it is still empty; afterwards it is maintained with every fee change
+INSERT INTO fee_rollups (hostel_id, month, status, fee_count, total_amount)
+SELECT hostel_id, month, status, COUNT(*), COALESCE(SUM(amount), 0)
+FROM fees
+WHERE status IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM fee_rollups)
+GROUP BY hostel_id, month, status;
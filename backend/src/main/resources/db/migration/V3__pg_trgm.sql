@@ -0,0 +1,2 @@
+-- Trigram operator classes, so kitchen item searches (name contains ...) can use an index
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
@@ -0,0 +1,75 @@
+-- Indexes for the repository queries. Built CONCURRENTLY so a live database keeps taking writes;
+-- Flyway runs a script made only of such statements outside a transaction.
+-- IndexPlanTest fails if any of these queries falls back to a sequential scan.
+
+-- allocations: active rows per bed and per student are covered by the partial unique indexes
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_allocations_student_id
+    ON allocations (student_id, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_allocations_room_id
+    ON allocations (room_id);
+
+-- occupancy counts for a whole hostel join every room to its active beds, read from the index alone
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_allocations_active_room
+    ON allocations (room_id) INCLUDE (id) WHERE active;
+
+-- students: hostel lists, keyset pages and the id ranges fee generation is chunked by
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_students_hostel_id
+    ON students (hostel_id, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_hostel_id
+    ON users (hostel_id);
+
+-- rooms: hostel lists and the duplicate check on block + room number
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_rooms_hostel_id
+    ON rooms (hostel_id, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_rooms_hostel_block_number
+    ON rooms (hostel_id, block, room_number);
+
+-- fees: by student is covered by uk_fees_student_month, overdue sweeps by idx_fees_status_due_date
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fees_hostel_id
+    ON fees (hostel_id, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fees_hostel_month
+    ON fees (hostel_id, month, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fees_status_id
+    ON fees (status, id) INCLUDE (hostel_id);
+
+-- a hostel's overdue fees, paged by id without sorting them all
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fees_hostel_status_id
+    ON fees (hostel_id, status, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_fee_config_hostel_active
+    ON fee_config (hostel_id) WHERE active;
+
+-- kitchen inventory: exact name lookups and "name contains" searches, both case-insensitive
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_kitchen_inventory_hostel_name
+    ON kitchen_inventory (hostel_id, upper(item_name));
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_kitchen_inventory_name_trgm
+    ON kitchen_inventory USING gin (upper(item_name) gin_trgm_ops);
+
+-- email outbox: the claim order of due rows, interrupted sends and sent-row cleanup
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_email_outbox_pending_order
+    ON email_outbox (campaign_id NULLS FIRST, id) WHERE status = 'PENDING';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_email_outbox_sending_claimed_at
+    ON email_outbox (claimed_at) WHERE status = 'SENDING';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_email_outbox_sent_at
+    ON email_outbox (sent_at) WHERE status = 'SENT';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reminder_campaigns_unqueued
+    ON reminder_campaigns (status) WHERE queued_at IS NULL;
+
+-- tokens and jobs
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_expires_at
+    ON refresh_tokens (expires_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_revoked_tokens_expires_at
+    ON revoked_tokens (expires_at);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_job_chunks_run_status
+    ON job_chunks (job_run_id, status);
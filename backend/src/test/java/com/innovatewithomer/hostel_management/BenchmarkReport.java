@@ -0,0 +1,60 @@
+package com.innovatewithomer.hostel_management;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A table of measurements a test writes to {@code target/benchmarks/<name>.md} instead of
+ * printing them, so runs before and after a change can be compared side by side.
+ */
+public final class BenchmarkReport {
+
+    private static final Path DIRECTORY = Path.of("target", "benchmarks");
+
+    private final String name;
+    private final List<String> lines = new ArrayList<>();
+
+    public BenchmarkReport(String name, String title, String... columns) {
+        this.name = name;
+        lines.add("# " + title);
+        lines.add("");
+        lines.add("| " + String.join(" | ", columns) + " |");
+        lines.add("|" + "---|".repeat(columns.length));
+    }
+
+    public BenchmarkReport row(Object... values) {
+        lines.add(Arrays.stream(values).map(BenchmarkReport::format).collect(Collectors.joining(" | ", "| ", " |")));
+        return this;
+    }
+
+    /**
+     * Median wall time of {@code rounds} runs, after {@code warmup} runs that are not timed.
+     */
+    public static long medianNanos(int warmup, int rounds, Runnable run) {
+        for (int i = 0; i < warmup; i++) {
+            run.run();
+        }
+        long[] samples = new long[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long began = System.nanoTime();
+            run.run();
+            samples[i] = System.nanoTime() - began;
+        }
+        Arrays.sort(samples);
+        return samples[rounds / 2];
+    }
+
+    public void write() throws IOException {
+        Files.createDirectories(DIRECTORY);
+        Files.write(DIRECTORY.resolve(name + ".md"), lines);
+    }
+
+    private static String format(Object value) {
+        return value instanceof Double d ? String.format("%.1f", d) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.innovatewithomer.hostel_management;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.SQLException;
+
+/**
+ * The application against a scratch PostgreSQL database migrated by Flyway, shared by the
+ * service tests that need real locking and SQL. Every subclass runs in the same context, so
+ * each one clears the tables it uses before a test. Needs PostgreSQL on localhost, like the
+ * application context test, and is skipped without it.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.mail.host=localhost",
+        "spring.mail.port=1",
+        "management.health.mail.enabled=false",
+        "mail.outbox.poll-interval=1h",
+        "security.denylist.sync-interval=1h",
+        "receipts.dir=target/integration/receipts",
+        "exports.dir=target/integration/exports"
+})
+@AutoConfigureMockMvc
+@EnabledIf("com.innovatewithomer.hostel_management.ScratchDatabase#available")
+public abstract class PostgresIntegrationTest {
+
+    protected static final String DATABASE = "hostel_integration_test";
+
+    @Autowired
+    protected JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void scratchDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        ScratchDatabase.recreate(DATABASE);
+        // Same driver options as the application, so batched inserts are rewritten the same way
+        registry.add("spring.datasource.url", () -> ScratchDatabase.url(DATABASE) + "?reWriteBatchedInserts=true");
+    }
+
+    protected void truncate(String... tables) {
+        jdbc.execute("TRUNCATE " + String.join(", ", tables) + " CASCADE");
+    }
+
+    protected void insertHostel(long hostelId) {
+        jdbc.update("INSERT INTO hostel (id, name, active) VALUES (?, ?, true)", hostelId, "Hostel " + hostelId);
+    }
+
+    /**
+     * Students {@code firstId..firstId+count-1} of a hostel, each with a user of the same id.
+     */
+    protected void insertStudents(long hostelId, long firstId, int count) {
+        jdbc.update("""
+                INSERT INTO users (user_id, name, email, email_verified, password, role, active, token_version, hostel_id)
+                SELECT g, 'Student ' || g, 'student' || g || '@example.com', true, 'x', 'STUDENT', true, 0, ?
+                FROM generate_series(?::bigint, ?::bigint) g
+                """, hostelId, firstId, firstId + count - 1);
+        jdbc.update("""
+                INSERT INTO students (id, user_id, hostel_id, roll_no, phone, guardian_name, guardian_phone)
+                SELECT g, g, ?, 'R-' || g, '0300' || g, 'Guardian ' || g, '0311' || g
+                FROM generate_series(?::bigint, ?::bigint) g
+                """, hostelId, firstId, firstId + count - 1);
+    }
+}
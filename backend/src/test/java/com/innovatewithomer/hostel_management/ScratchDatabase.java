@@ -0,0 +1,53 @@
+package com.innovatewithomer.hostel_management;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Throwaway databases on the PostgreSQL server at localhost the integration tests run against,
+ * with the same credentials as the application. Tests that need one are skipped when
+ * {@link #available()} is false.
+ */
+public final class ScratchDatabase {
+
+    public static final String SERVER = "jdbc:postgresql://localhost:5432/";
+    public static final String USER = "postgres";
+    public static final String PASSWORD = "123";
+
+    private ScratchDatabase() {
+    }
+
+    public static boolean available() {
+        try (Connection ignored = connect("postgres")) {
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    public static String url(String database) {
+        return SERVER + database;
+    }
+
+    public static Connection connect(String database) throws SQLException {
+        return DriverManager.getConnection(url(database), USER, PASSWORD);
+    }
+
+    /**
+     * An empty database of that name, dropping whatever an earlier run left behind.
+     */
+    public static void recreate(String database) throws SQLException {
+        try (Connection c = connect("postgres"); Statement st = c.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+            st.execute("CREATE DATABASE " + database);
+        }
+    }
+
+    public static void drop(String database) throws SQLException {
+        try (Connection c = connect("postgres"); Statement st = c.createStatement()) {
+            st.execute("DROP DATABASE IF EXISTS " + database + " WITH (FORCE)");
+        }
+    }
+}
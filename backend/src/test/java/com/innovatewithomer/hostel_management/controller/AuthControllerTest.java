@@ -0,0 +1,149 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import com.innovatewithomer.hostel_management.config.GlobalExceptionHandler;
+import com.innovatewithomer.hostel_management.dto.LoginResponse;
+import com.innovatewithomer.hostel_management.entities.Role;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.innovatewithomer.hostel_management.repositories.UserRepository;
+import com.innovatewithomer.hostel_management.security.LoginThrottle;
+import com.innovatewithomer.hostel_management.security.PasswordCheckExecutor;
+import com.innovatewithomer.hostel_management.services.AuthTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AuthControllerTest {
+
+    private static final String LOGIN = "{\"email\":\"ali@hostel.pk\",\"password\":\"secret\"}";
+
+    private final List<String> checkThreads = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean holdChecks;
+
+    private final PasswordEncoder passwordEncoder = new PasswordEncoder() {
+        private final PasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return bcrypt.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            checkThreads.add(Thread.currentThread().getName());
+            if (holdChecks) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return bcrypt.matches(rawPassword, encodedPassword);
+        }
+    };
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthTokenService authTokenService = mock(AuthTokenService.class);
+    private final PasswordCheckExecutor passwordChecks = new PasswordCheckExecutor(new SimpleMeterRegistry(), 1, 1);
+    private final ExecutorService requestExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "request-worker"));
+
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new AuthController(null, userRepository, passwordEncoder, null, null, null, null,
+                    authTokenService, mock(LoginThrottle.class), passwordChecks, requestExecutor))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        requestExecutor.shutdownNow();
+    }
+
+    @Test
+    void onlyThePasswordCheckRunsOnThePasswordPool() throws Exception {
+        List<String> lookupThreads = new CopyOnWriteArrayList<>();
+        when(userRepository.findByEmail("ali@hostel.pk")).thenAnswer(invocation -> {
+            lookupThreads.add(Thread.currentThread().getName());
+            return Optional.of(user());
+        });
+        when(authTokenService.issue(any())).thenReturn(new LoginResponse("access", "STUDENT", "refresh", 900));
+
+        MvcResult started = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("access"));
+
+        assertThat(checkThreads).singleElement().asString().startsWith("password-check-");
+        assertThat(lookupThreads).containsExactly("request-worker");
+    }
+
+    @Test
+    void anUnknownEmailIsStillHashedAndRejected() throws Exception {
+        when(userRepository.findByEmail("ali@hostel.pk")).thenReturn(Optional.empty());
+
+        MvcResult started = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Bad credentials"));
+
+        assertThat(checkThreads).singleElement().asString().startsWith("password-check-");
+    }
+
+    @Test
+    void aSaturatedPasswordPoolAnswers429() throws Exception {
+        when(userRepository.findByEmail("ali@hostel.pk")).thenReturn(Optional.of(user()));
+        holdChecks = true;
+
+        // One check running, one queued: the pool is full
+        mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(request().asyncStarted());
+        mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(request().asyncStarted());
+
+        MvcResult rejected = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(rejected))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Server is busy, try again shortly"));
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("ali@hostel.pk");
+        user.setRole(Role.STUDENT);
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        user.setActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,599 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import com.innovatewithomer.hostel_management.HostelManagementApplication;
+import com.innovatewithomer.hostel_management.ScratchDatabase;
+import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.entities.Role;
+import com.innovatewithomer.hostel_management.services.BedOccupancyIndex;
+import com.innovatewithomer.hostel_management.services.FeeConfigResolver;
+import com.innovatewithomer.hostel_management.services.FeeRollupService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs every endpoint against a seeded PostgreSQL database and holds each one to a budget of
+ * JDBC statements, so an N+1 shows up as a failed test instead of a slow page. Afterwards it
+ * writes {@code target/statement-budgets.md} with the statements and JDBC time of every endpoint,
+ * and fails if an endpoint was never measured. Needs PostgreSQL on localhost, like the
+ * application context test, and is skipped without it.
+ */
+@SpringBootTest(properties = {
+        "spring.task.execution.thread-name-prefix=" + StatementCounter.ASYNC_THREAD_PREFIX,
+        "spring.jpa.show-sql=false",
+        "spring.mail.host=localhost",
+        "spring.mail.port=1",
+        "mail.outbox.poll-interval=1h",
+        "receipts.dir=target/statement-budgets/receipts",
+        "exports.dir=target/statement-budgets/exports"
+})
+@AutoConfigureMockMvc
+@Import(StatementBudgetConfig.class)
+@EnabledIf("com.innovatewithomer.hostel_management.ScratchDatabase#available")
+class EndpointStatementBudgetTest {
+
+    private static final String DATABASE = "hostel_statement_budget_test";
+
+    private static final String ADMIN_EMAIL = "budget.admin@example.com";
+    private static final String ADMIN_PASSWORD = "admin-password";
+    private static final int STUDENTS = 100;
+    private static final int ROOMS = 30;
+    private static final int ALLOCATED = 96;
+    private static final long SEEDED_ID = 1_000_000;
+
+    private static final YearMonth MONTH = YearMonth.now();
+    private static final Path REPORT = Path.of("target", "statement-budgets.md");
+
+    private static boolean seeded;
+    private static Long hostelId;
+    private static Long adminId;
+    private static List<Long> userIds;
+    private static List<Long> roomIds;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private StatementCounter statements;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private BedOccupancyIndex bedOccupancyIndex;
+
+    @Autowired
+    private FeeConfigResolver feeConfigResolver;
+
+    @Autowired
+    private FeeRollupService feeRollupService;
+
+    @DynamicPropertySource
+    static void scratchDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        ScratchDatabase.recreate(DATABASE);
+        registry.add("spring.datasource.url", () -> ScratchDatabase.url(DATABASE));
+    }
+
+    // One hostel: 100 students in 30 rooms of 4 beds, the last 4 students still unplaced, three months of fees
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        hostelId = jdbc.queryForObject("INSERT INTO hostel (name, active) VALUES ('Budget Hostel', true) RETURNING id", Long.class);
+        adminId = jdbc.queryForObject("""
+                INSERT INTO users (name, email, email_verified, password, role, active, token_version)
+                VALUES ('Admin', ?, true, ?, 'ADMIN', true, 0) RETURNING user_id
+                """, Long.class, ADMIN_EMAIL, passwordEncoder.encode(ADMIN_PASSWORD));
+        userIds = jdbc.queryForList("""
+                INSERT INTO users (name, email, email_verified, password, role, active, token_version, hostel_id)
+                SELECT 'Student ' || g, 'budget.student' || g || '@example.com', true, ?, 'STUDENT', true, 0, ?
+                FROM generate_series(0, ? - 1) g
+                RETURNING user_id
+                """, Long.class, passwordEncoder.encode("student-password"), hostelId, STUDENTS + 1);
+        roomIds = jdbc.queryForList("""
+                INSERT INTO rooms (capacity, hostel_id, block, room_number)
+                SELECT 4, ?, 'B' || (g / 10), 'R' || g FROM generate_series(0, ? - 1) g
+                RETURNING id
+                """, Long.class, hostelId, ROOMS);
+        // The extra user has no student profile yet, for the admit endpoint
+        jdbc.update("""
+                INSERT INTO students (id, user_id, hostel_id, roll_no, phone, guardian_name, guardian_phone)
+                SELECT ? + g, u.user_id, ?, 'R-' || g, '0300' || g, 'Guardian ' || g, '0311' || g
+                FROM unnest(?::bigint[]) WITH ORDINALITY AS u(user_id, n), LATERAL (SELECT n - 1 AS g) i
+                WHERE g < ?
+                """, SEEDED_ID, hostelId, userIds.toArray(Long[]::new), STUDENTS);
+        jdbc.update("""
+                INSERT INTO allocations (id, student_id, room_id, bed_number, active, allocated_at)
+                SELECT ? + g, ? + g, (?::bigint[])[g / 4 + 1], g % 4 + 1, true, now()
+                FROM generate_series(0, ? - 1) g
+                """, SEEDED_ID, SEEDED_ID, roomIds.toArray(Long[]::new), ALLOCATED);
+        for (int m = 0; m < 3; m++) {
+            YearMonth month = MONTH.minusMonths(2 - m);
+            String status = m == 0 ? "PAID" : m == 1 ? "OVERDUE" : "UNPAID";
+            jdbc.update("""
+                    INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, paid_on, status)
+                    SELECT ? + g, ? + g, ?, ?, 12500, ?::date, CASE WHEN ? = 'PAID' THEN ?::date END, ?
+                    FROM generate_series(0, ? - 1) g
+                    """, SEEDED_ID + m * 1_000L, SEEDED_ID, hostelId, month.toString(), month.atDay(10).toString(),
+                    status, month.atDay(5).toString(), status, STUDENTS);
+        }
+        jdbc.update("""
+                INSERT INTO fee_config (hostel_id, monthly_amount, due_day, effective_from, active)
+                VALUES (?, 12500, 10, ?::date, true)
+                """, hostelId, MONTH.minusMonths(6).atDay(1).toString());
+        jdbc.update("""
+                INSERT INTO kitchen_inventory (id, hostel_id, item_name, quantity, unit, last_updated)
+                SELECT ? + g, ?, 'Item ' || g, g % 20, 'kg', now() FROM generate_series(0, 49) g
+                """, SEEDED_ID, hostelId);
+
+        feeRollupService.rebuild();
+        feeConfigResolver.reload();
+        bedOccupancyIndex.rebuild();
+        seeded = true;
+    }
+
+    @AfterAll
+    static void writeReport(@Autowired StatementCounter statements,
+                            @Autowired @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping mappings) throws IOException {
+        List<String> rows = new ArrayList<>();
+        List<String> unmeasured = new ArrayList<>();
+        Map<Method, StatementCounter.Measurement> measured = statements.measurements();
+
+        mappings.getHandlerMethods().entrySet().stream()
+                .filter(e -> e.getValue().getBeanType().getPackageName().startsWith(HostelManagementApplication.class.getPackageName()))
+                .sorted(Comparator.comparing(e -> endpoint(e.getKey())))
+                .forEach(e -> {
+                    HandlerMethod handler = e.getValue();
+                    String name = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+                    StatementCounter.Measurement m = measured.get(handler.getMethod());
+                    if (m == null) {
+                        unmeasured.add(endpoint(e.getKey()));
+                        rows.add("| `" + endpoint(e.getKey()) + "` | " + name + " | - | - | - |");
+                    } else {
+                        rows.add("| `" + endpoint(e.getKey()) + "` | " + name + " | " + m.statements() + " | "
+                                + String.format("%.2f", m.jdbcNanos() / 1_000_000.0) + " | "
+                                + (m.budget() != null ? m.budget() : "-") + " |");
+                    }
+                });
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# JDBC statements per endpoint");
+        lines.add("");
+        lines.add("Last run of EndpointStatementBudgetTest. JDBC time is the time spent executing statements.");
+        lines.add("");
+        lines.add("| Endpoint | Handler | Statements | JDBC time (ms) | Budget |");
+        lines.add("|---|---|---:|---:|---:|");
+        lines.addAll(rows);
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, lines);
+
+        assertTrue(unmeasured.isEmpty(), "Endpoints without a statement budget:\n" + String.join("\n", unmeasured));
+    }
+
+    private static String endpoint(RequestMappingInfo info) {
+        String produces = info.getProducesCondition().getProducibleMediaTypes().stream()
+                .map(MediaType::toString)
+                .reduce((a, b) -> a + "," + b)
+                .map(types -> " (" + types + ")")
+                .orElse("");
+        return info.getMethodsCondition().getMethods().iterator().next() + " "
+                + info.getPatternValues().iterator().next() + produces;
+    }
+
+    @Test
+    void roomEndpoints() throws Exception {
+        Long fullRoom = roomIds.get(0);
+        Long emptyRoom = roomIds.get(ROOMS - 1);
+
+        admin(post("/api/admin/rooms").param("hostelId", hostelId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"block\":\"X\",\"roomNumber\":\"X1\",\"capacity\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/rooms").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ROOMS + 1))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/rooms/{id}", fullRoom))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/rooms/{roomId}/beds", fullRoom))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/rooms/{roomId}/status", fullRoom).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(0));
+        admin(get("/api/admin/rooms/occupancy").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/rooms/available").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(0));
+        admin(get("/api/admin/rooms/{roomId}/students", fullRoom).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(statements.atMost(1));
+        admin(put("/api/admin/rooms/{roomId}", emptyRoom)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"block\":\"B2\",\"roomNumber\":\"R29\",\"capacity\":4}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+
+        Long doomed = jdbc.queryForObject(
+                "INSERT INTO rooms (capacity, hostel_id, block, room_number) VALUES (2, ?, 'Z', 'Z1') RETURNING id",
+                Long.class, hostelId);
+        bedOccupancyIndex.rebuild();
+        admin(delete("/api/admin/rooms/{roomId}", doomed))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+    }
+
+    @Test
+    void allocationEndpoints() throws Exception {
+        Long student = SEEDED_ID;
+        admin(get("/api/admin/allocations").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/allocations/count").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/allocations/history").param("hostelId", hostelId.toString())
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(statements.atMost(1));
+        stream(get("/api/admin/allocations/history").param("hostelId", hostelId.toString()))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/allocations/room/{roomId}", roomIds.get(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/allocations/student/{studentId}", student).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3));
+        admin(get("/api/admin/allocations/student/{studentId}/history", student).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+
+        // The four unplaced students: one by bed, one anywhere in a room, two in bulk, then a transfer and a release
+        Long free = roomIds.get(ALLOCATED / 4);
+        admin(post("/api/admin/allocations/student/{studentId}/room/{roomId}/bed/{bedNumber}",
+                SEEDED_ID + ALLOCATED, free, 1).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(6));
+        admin(post("/api/admin/allocations/student/{studentId}/room/{roomId}",
+                SEEDED_ID + ALLOCATED + 1, free).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(5));
+        admin(post("/api/admin/allocations/bulk").param("hostelId", hostelId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"studentIds\":[" + (SEEDED_ID + ALLOCATED + 2) + "," + (SEEDED_ID + ALLOCATED + 3) + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(4));
+        admin(post("/api/admin/allocations/transfer/student/{studentId}/room/{roomId}",
+                SEEDED_ID + ALLOCATED, roomIds.get(ROOMS - 2)).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(8));
+
+        Long allocation = jdbc.queryForObject(
+                "SELECT id FROM allocations WHERE student_id = ? AND active", Long.class, SEEDED_ID + ALLOCATED + 1);
+        admin(post("/api/admin/allocations/deallocate/{allocationId}", allocation))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3));
+    }
+
+    @Test
+    void studentAdminEndpoints() throws Exception {
+        admin(post("/api/admin/students/{userId}", userIds.get(STUDENTS)).param("hostelId", hostelId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rollNo\":\"R-new\",\"phone\":\"0300\",\"guardianName\":\"Guardian\",\"guardianPhoneNumber\":\"0311\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(7));
+        admin(get("/api/admin/students").param("hostelId", hostelId.toString()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(statements.atMost(1));
+        stream(get("/api/admin/students").param("hostelId", hostelId.toString()))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/students/{studentId}", SEEDED_ID))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(put("/api/admin/students/{studentId}", SEEDED_ID + 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"rollNo\":\"R-1\",\"phone\":\"0300\",\"guardianName\":\"Guardian\",\"guardianPhoneNumber\":\"0311\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+
+        Long doomed = jdbc.queryForObject("""
+                INSERT INTO students (id, user_id, hostel_id, roll_no)
+                VALUES (?, (SELECT user_id FROM users WHERE email = ?), ?, 'R-admin') RETURNING id
+                """, Long.class, SEEDED_ID + 5_000, ADMIN_EMAIL, hostelId);
+        admin(delete("/api/admin/students/{studentId}", doomed))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+    }
+
+    @Test
+    void feeEndpoints() throws Exception {
+        Long unpaid = SEEDED_ID + 2_000;
+        Long overdue = SEEDED_ID + 1_000 + 1;
+
+        admin(post("/api/admin/fee").param("hostelId", hostelId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"student\":{\"id\":" + SEEDED_ID + "},\"month\":\"" + MONTH.plusMonths(1)
+                        + "\",\"amount\":12500,\"dueDate\":\"" + MONTH.plusMonths(1).atDay(10) + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(5));
+        admin(get("/api/admin/fee").param("hostelId", hostelId.toString()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(statements.atMost(1));
+        stream(get("/api/admin/fee").param("hostelId", hostelId.toString()))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/student/{studentId}", SEEDED_ID + 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/status/{status}", "OVERDUE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(statements.atMost(1));
+        admin(put("/api/admin/fee/{feeId}/pay", unpaid))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(5));
+        admin(get("/api/admin/fee/student/collection").param("studentId", String.valueOf(SEEDED_ID)))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/overdue").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/total/unpaid").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/total/collection").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/monthly").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/fee/{feeId}/receipt", overdue))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(delete("/api/admin/fee/{feeId}", SEEDED_ID + 2_000 + 50))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3));
+        // Lock, delete, re-insert
+        admin(post("/api/admin/fee/rollups/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3));
+    }
+
+    @Test
+    void feeConfigEndpoints() throws Exception {
+        admin(get("/api/admin/fee-config/active").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+        admin(post("/api/admin/fee-config").param("hostelId", hostelId.toString())
+                .param("amount", "12500").param("dueDay", "10"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(16));
+    }
+
+    @Test
+    void reminderAndExportEndpoints() throws Exception {
+        String campaign = admin(post("/api/admin/fee/reminders").param("kind", "OVERDUE"))
+                .andExpect(status().isAccepted())
+                .andExpect(statements.atMost(1))
+                .andReturn().getResponse().getContentAsString();
+        Number campaignId = JsonPath.read(campaign, "$.id");
+        admin(get("/api/admin/fee/reminders/{campaignId}", campaignId))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+        admin(post("/api/admin/fee/reminders/{campaignId}/pause", campaignId))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+        admin(post("/api/admin/fee/reminders/{campaignId}/resume", campaignId))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+
+        String export = admin(post("/api/admin/fee/exports").param("hostelId", hostelId.toString())
+                .param("month", MONTH.toString()))
+                .andExpect(status().isAccepted())
+                .andExpect(statements.atMost(0))
+                .andReturn().getResponse().getContentAsString();
+        String exportId = JsonPath.read(export, "$.id");
+        String exportStatus = "";
+        for (int i = 0; i < 300 && !exportStatus.equals("COMPLETED"); i++) {
+            Thread.sleep(100);
+            exportStatus = JsonPath.read(admin(get("/api/admin/fee/exports/{exportId}", exportId)
+                            .param("hostelId", hostelId.toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(statements.atMost(0))
+                    .andReturn().getResponse().getContentAsString(), "$.status");
+        }
+        admin(get("/api/admin/fee/exports/{exportId}/download", exportId).param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(0));
+    }
+
+    @Test
+    void hostelUserAndInventoryEndpoints() throws Exception {
+        admin(get("/api/admin/hostels"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        String hostel = admin(post("/api/admin/hostels").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Second Hostel\",\"active\":true}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1))
+                .andReturn().getResponse().getContentAsString();
+        admin(patch("/api/admin/hostels/{id}/status", ((Number) JsonPath.read(hostel, "$.id")).longValue())
+                .param("active", "false"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+
+        admin(get("/api/admin/users").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(50))
+                .andExpect(statements.atMost(1));
+        stream(get("/api/admin/users"))
+                .andExpect(statements.atMost(1));
+        admin(patch("/api/admin/users/{userId}/status", userIds.get(10)).param("active", "true"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(4));
+        admin(patch("/api/admin/users/{userId}/role", userIds.get(11)).param("role", "STUDENT"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(4));
+
+        Long item = SEEDED_ID + 3;
+        admin(post("/api/admin/inventory").param("hostelId", hostelId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemName\":\"Rice\",\"unit\":\"kg\",\"quantity\":40}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3));
+        admin(get("/api/admin/inventory/{itemId}", item))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(get("/api/admin/inventory/search").param("itemName", "item 1").param("hostelId", hostelId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(put("/api/admin/inventory/{itemId}", item).param("hostelId", hostelId.toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"itemName\":\"Item 3\",\"unit\":\"kg\",\"quantity\":12}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+        admin(patch("/api/admin/inventory/{itemId}/quantity", item).param("quantity", "8"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+        admin(get("/api/admin/inventory/low-stock"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        admin(delete("/api/admin/inventory/{itemId}", SEEDED_ID + 49))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(2));
+    }
+
+    @Test
+    void studentSelfServiceEndpoints() throws Exception {
+        RequestPostProcessor student = student(2);
+
+        mvc.perform(get("/api/student/me").with(student))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("budget.student2@example.com"))
+                .andExpect(statements.atMost(1));
+        mvc.perform(get("/api/student/me/room").with(student))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+        mvc.perform(get("/api/student/me/fees").with(student))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(statements.atMost(1));
+        mvc.perform(get("/api/student/me/fees/{feeId}/receipt", SEEDED_ID + 2).with(student))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(1));
+
+        mvc.perform(put("/api/user/me/update").with(student(3))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Student Three\",\"email\":\"budget.student3@example.com\",\"phone\":\"0300\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(4));
+    }
+
+    @Test
+    void authEndpoints() throws Exception {
+        MvcResult login = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + ADMIN_EMAIL + "\",\"password\":\"" + ADMIN_PASSWORD + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String tokens = mvc.perform(asyncDispatch(login))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3))
+                .andReturn().getResponse().getContentAsString();
+
+        String refreshed = mvc.perform(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + JsonPath.read(tokens, "$.refreshToken") + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(3))
+                .andReturn().getResponse().getContentAsString();
+        mvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + JsonPath.read(refreshed, "$.token"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + JsonPath.read(refreshed, "$.refreshToken") + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(6));
+
+        mvc.perform(post("/api/auth/signup").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"New Student\",\"email\":\"budget.signup@example.com\",\"password\":\"secret\"}"))
+                .andExpect(status().isOk())
+                .andExpect(statements.atMost(4));
+        // Sends straight over SMTP, which the test points at a closed port; no table is touched either way
+        mvc.perform(get("/api/auth/test-mail"))
+                .andExpect(statements.atMost(0));
+    }
+
+    private ResultActions admin(MockHttpServletRequestBuilder request) throws Exception {
+        return mvc.perform(request.with(user(new UserPrincipal(adminId, null, ADMIN_EMAIL, null, Role.ADMIN, true))));
+    }
+
+    private ResultActions stream(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult started = admin(request.accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+    }
+
+    private RequestPostProcessor student(int index) {
+        return user(new UserPrincipal(userIds.get(index), hostelId, "budget.student" + index + "@example.com",
+                null, Role.STUDENT, true));
+    }
+}
@@ -0,0 +1,134 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.dto.HostelOccupancyResponse;
+import com.innovatewithomer.hostel_management.dto.RoomStatusResponse;
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
+import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * The hostel dashboard built the way it used to be, one room lookup and one count per room,
+ * against the grouped occupancy query, on several hostels of a few hundred rooms each. Both must
+ * agree and the grouped path must run one statement per hostel; the timings are only reported,
+ * in {@code target/benchmarks/hostel-occupancy.md}.
+ */
+class HostelOccupancyBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int HOSTELS = 3;
+    private static final int ROOMS = 300;
+    private static final int CAPACITY = 4;
+    private static final int STUDENTS = 800;
+    private static final int WARMUP = 1;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private RoomController roomController;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private AllocationRepository allocationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        truncate("allocations", "rooms", "students", "users", "hostel");
+        for (long hostel = 1; hostel <= HOSTELS; hostel++) {
+            long firstRoom = (hostel - 1) * ROOMS + 1;
+            long firstStudent = (hostel - 1) * STUDENTS + 1;
+            insertHostel(hostel);
+            insertStudents(hostel, firstStudent, STUDENTS);
+            jdbc.update("""
+                    INSERT INTO rooms (id, hostel_id, block, room_number, capacity)
+                    SELECT g, ?, chr(65 + ((g - ?) % 5)::int), (g - ?)::text, ?
+                    FROM generate_series(?::bigint, ?::bigint) g
+                    """, hostel, firstRoom, firstRoom, CAPACITY, firstRoom, firstRoom + ROOMS - 1);
+            // Three students to a room, leaving the last rooms of each hostel empty
+            jdbc.update("""
+                    INSERT INTO allocations (id, student_id, room_id, bed_number, active, allocated_at)
+                    SELECT g, g, ? + (g - ?) / 3, 1 + (g - ?) % 3, true, now()
+                    FROM generate_series(?::bigint, ?::bigint) g
+                    """, firstRoom, firstStudent, firstStudent, firstStudent, firstStudent + STUDENTS - 1);
+        }
+    }
+
+    @Test
+    void groupedQueryAgreesWithPerRoomLookupsInOneStatementPerHostel() throws Exception {
+        for (long hostel = 1; hostel <= HOSTELS; hostel++) {
+            HostelOccupancyResponse grouped = roomController.getHostelOccupancy(hostel);
+            assertThat(grouped.getRooms()).hasSize(ROOMS);
+            assertThat(grouped.getOccupiedBeds()).isEqualTo(STUDENTS);
+            assertThat(grouped.getRooms())
+                    .extracting(RoomStatusResponse::getRoomId, RoomStatusResponse::getOccupiedBeds)
+                    .containsExactlyInAnyOrderElementsOf(perRoom(hostel).stream()
+                            .map(r -> tuple(r.getRoomId(), r.getOccupiedBeds()))
+                            .toList());
+        }
+
+        // Rooms are second-level cached; cold, every lookup is a statement of its own
+        entityManagerFactory.getCache().evict(Room.class);
+        long perRoomStatements = statements(() -> perRoom(1));
+        long groupedStatements = statements(() -> roomController.getHostelOccupancy(1L));
+        assertThat(perRoomStatements).isEqualTo(2 * ROOMS);
+        assertThat(groupedStatements).isEqualTo(1);
+
+        long perRoom = BenchmarkReport.medianNanos(WARMUP, ROUNDS, () -> {
+            for (long hostel = 1; hostel <= HOSTELS; hostel++) {
+                perRoom(hostel);
+            }
+        });
+        long grouped = BenchmarkReport.medianNanos(WARMUP, ROUNDS, () -> {
+            for (long hostel = 1; hostel <= HOSTELS; hostel++) {
+                roomController.getHostelOccupancy(hostel);
+            }
+        });
+
+        new BenchmarkReport("hostel-occupancy", "Hostel occupancy, " + HOSTELS + " hostels of " + ROOMS + " rooms",
+                "Path", "Statements per hostel (cold)", "Median for all hostels (ms)")
+                .row("Per-room lookup and count", perRoomStatements, perRoom / 1e6)
+                .row("Grouped occupancy query", groupedStatements, grouped / 1e6)
+                .write();
+    }
+
+    // Statements Hibernate prepared while the action ran; the room id list comes through JdbcTemplate
+    private long statements(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        action.run();
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    // What the dashboard did before: the room, then a count of its active allocations, for every room
+    private List<RoomStatusResponse> perRoom(long hostelId) {
+        List<RoomStatusResponse> rooms = new ArrayList<>();
+        for (Long roomId : jdbc.queryForList("SELECT id FROM rooms WHERE hostel_id = ? ORDER BY id", Long.class, hostelId)) {
+            Room room = roomRepository.findById(roomId).orElseThrow();
+            int occupied = (int) allocationRepository.countByRoomIdAndRoom_Hostel_IdAndActiveTrue(roomId, hostelId);
+
+            RoomStatusResponse response = new RoomStatusResponse();
+            response.setRoomId(roomId);
+            response.setCapacity(room.getCapacity());
+            response.setOccupiedBeds(occupied);
+            response.setAvailableBeds(room.getCapacity() - occupied);
+            rooms.add(response);
+        }
+        return rooms;
+    }
+}
@@ -0,0 +1,46 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.MockMvcBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link StatementCounter} between the application and its DataSource and hooks it into
+ * MockMvc, for {@code @SpringBootTest} classes that import it alongside {@code @AutoConfigureMockMvc}.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementBudgetConfig {
+
+    @Bean
+    StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    static BeanPostProcessor countingDataSource(ObjectProvider<StatementCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(counter.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MockMvcBuilderCustomizer statementWindow(StatementCounter counter) {
+        return builder -> builder
+                .addFilters(counter.windowFilter())
+                .alwaysDo(counter.recorder());
+    }
+}
@@ -0,0 +1,113 @@
+package com.innovatewithomer.hostel_management.controller;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.test.web.servlet.ResultHandler;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the JDBC statements each MockMvc request runs, as a datasource-proxy listener on the
+ * application's DataSource. A request's window opens when it enters the filter chain and takes
+ * in the request thread and the threads that finish it asynchronously: streamed bodies and the
+ * login password check. Scheduled jobs and campaign or export workers belong to no request.
+ * <p>
+ * Tests declare a budget per endpoint with {@code .andExpect(statements.atMost(n))}; every
+ * request is also recorded for the report.
+ */
+public class StatementCounter implements QueryExecutionListener {
+
+    static final String ASYNC_THREAD_PREFIX = "mvc-async-";
+    private static final String PASSWORD_CHECK_THREAD_PREFIX = "password-check-";
+
+    public record Measurement(int statements, long jdbcNanos, Integer budget) {
+    }
+
+    private final ThreadLocal<Long> startedAt = new ThreadLocal<>();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong jdbcNanos = new AtomicLong();
+    private final Queue<String> queries = new ConcurrentLinkedQueue<>();
+    private final Map<Method, Measurement> measurements = new ConcurrentHashMap<>();
+    private volatile Thread requestThread;
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        startedAt.set(System.nanoTime());
+    }
+
+    // A batch is one round trip, so it counts once however many rows it carries
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = System.nanoTime() - startedAt.get();
+        startedAt.remove();
+        if (!inWindow()) {
+            return;
+        }
+        statements.incrementAndGet();
+        jdbcNanos.addAndGet(elapsed);
+        queryInfoList.forEach(query -> queries.add(query.getQuery()));
+    }
+
+    Filter windowFilter() {
+        return (request, response, chain) -> {
+            if (request.getDispatcherType() == DispatcherType.REQUEST) {
+                open();
+            }
+            chain.doFilter(request, response);
+        };
+    }
+
+    // Runs after every perform, so an async request ends up recorded with its dispatch included
+    ResultHandler recorder() {
+        return result -> {
+            if (result.getHandler() instanceof HandlerMethod handler) {
+                Measurement previous = measurements.get(handler.getMethod());
+                measurements.put(handler.getMethod(), new Measurement(statements.get(), jdbcNanos.get(),
+                        previous != null ? previous.budget() : null));
+            }
+        };
+    }
+
+    public ResultMatcher atMost(int budget) {
+        return result -> {
+            int count = statements.get();
+            if (result.getHandler() instanceof HandlerMethod handler) {
+                measurements.put(handler.getMethod(), new Measurement(count, jdbcNanos.get(), budget));
+            }
+            assertTrue(count <= budget, result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                    + " ran " + count + " statements, budget " + budget + ":\n" + String.join("\n", queries));
+        };
+    }
+
+    public Map<Method, Measurement> measurements() {
+        return measurements;
+    }
+
+    private void open() {
+        requestThread = Thread.currentThread();
+        statements.set(0);
+        jdbcNanos.set(0);
+        queries.clear();
+    }
+
+    private boolean inWindow() {
+        Thread current = Thread.currentThread();
+        return current == requestThread
+                || current.getName().startsWith(ASYNC_THREAD_PREFIX)
+                || current.getName().startsWith(PASSWORD_CHECK_THREAD_PREFIX);
+    }
+}
@@ -0,0 +1,126 @@
+package com.innovatewithomer.hostel_management.entities;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.stat.HibernateMetrics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the second-level cache setup from application.properties and application.conf
+ * against an in-memory database.
+ */
+class SecondLevelCacheTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Hostel.class)
+                .addAnnotatedClass(Room.class)
+                .addAnnotatedClass(FeeConfig.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:l2c;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE")
+                .setProperty("hibernate.cache.use_second_level_cache", "true")
+                .setProperty("hibernate.cache.use_query_cache", "true")
+                .setProperty("hibernate.cache.region.factory_class", "jcache")
+                .setProperty("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider")
+                // Its own cache manager: closing the factory closes it, and the default one belongs
+                // to the application contexts other tests keep open
+                .setProperty("hibernate.javax.cache.uri", "application.conf")
+                .setProperty("hibernate.javax.cache.missing_cache_strategy", "create")
+                .setProperty("hibernate.generate_statistics", "true")
+                .buildSessionFactory();
+        statistics = sessionFactory.getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void servesHostelsAndRoomsFromTheCacheAndSeesUpdates() {
+        Long roomId = sessionFactory.fromTransaction(session -> {
+            Hostel hostel = new Hostel(null, "Officers Hostel", true);
+            session.persist(hostel);
+            Room room = new Room(null, "A", "101", 3, hostel);
+            session.persist(room);
+            return room.getId();
+        });
+        sessionFactory.inTransaction(session -> session.find(Room.class, roomId).getHostel().getName());
+        statistics.clear();
+
+        for (int i = 0; i < 3; i++) {
+            sessionFactory.inTransaction(session ->
+                    assertThat(session.find(Room.class, roomId).getHostel().getName()).isEqualTo("Officers Hostel"));
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCacheRegionStatistics("rooms").getHitCount()).isEqualTo(3);
+        assertThat(statistics.getCacheRegionStatistics("hostels").getHitCount()).isEqualTo(3);
+
+        sessionFactory.inTransaction(session -> session.find(Room.class, roomId).setCapacity(4));
+        sessionFactory.inTransaction(session ->
+                assertThat(session.find(Room.class, roomId).getCapacity()).isEqualTo(4));
+    }
+
+    @Test
+    void cachesFeeConfigQueriesUntilTheTableChanges() {
+        Long hostelId = sessionFactory.fromTransaction(session -> {
+            Hostel hostel = new Hostel(null, "Officers Hostel", true);
+            session.persist(hostel);
+            session.persist(new FeeConfig(null, hostel, 12_500, LocalDate.of(2026, 1, 1), 10, true));
+            return hostel.getId();
+        });
+        statistics.clear();
+
+        assertThat(activeConfigs(hostelId)).hasSize(1);
+        assertThat(activeConfigs(hostelId)).hasSize(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        sessionFactory.inTransaction(session -> session.persist(
+                new FeeConfig(null, session.getReference(Hostel.class, hostelId), 13_000, LocalDate.of(2026, 7, 1), 10, true)));
+        assertThat(activeConfigs(hostelId)).hasSize(2);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exportsHitAndMissCountsAsMetrics() {
+        Long hostelId = sessionFactory.fromTransaction(session -> {
+            Hostel hostel = new Hostel(null, "Officers Hostel", true);
+            session.persist(hostel);
+            return hostel.getId();
+        });
+        sessionFactory.getCache().evictAll();
+        sessionFactory.inTransaction(session -> session.find(Hostel.class, hostelId));
+        sessionFactory.inTransaction(session -> session.find(Hostel.class, hostelId));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new HibernateMetrics(sessionFactory, "entityManagerFactory", List.of()).bindTo(registry);
+
+        assertThat(registry.get("hibernate.second.level.cache.requests")
+                .tag("region", "hostels").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("hibernate.second.level.cache.requests")
+                .tag("region", "hostels").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    private List<FeeConfig> activeConfigs(Long hostelId) {
+        return sessionFactory.fromTransaction(session -> session
+                .createSelectionQuery("from FeeConfig c where c.hostel.id = :hostelId and c.active = true", FeeConfig.class)
+                .setParameter("hostelId", hostelId)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .getResultList());
+    }
+}
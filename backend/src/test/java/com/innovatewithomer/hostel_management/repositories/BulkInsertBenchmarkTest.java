@@ -0,0 +1,120 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.entities.Allocation;
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.entities.Hostel;
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.entities.Student;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk fee and allocation inserts through Hibernate, one statement per row as they went with
+ * IDENTITY ids, against the pooled sequences with JDBC batching the application is configured
+ * with. Rows per second for both go to {@code target/benchmarks/bulk-inserts.md}, and batching
+ * must come out ahead.
+ */
+class BulkInsertBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+    private static final int ROWS = 2000;
+    private static final int CAPACITY = 4;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        truncate("fees", "fee_rollups", "allocations", "rooms", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, ROWS);
+        jdbc.update("""
+                INSERT INTO rooms (id, hostel_id, block, room_number, capacity)
+                SELECT g, ?, 'A', g::text, ? FROM generate_series(1, ?) g
+                """, HOSTEL, CAPACITY, ROWS / CAPACITY);
+    }
+
+    @Test
+    void batchedInsertsBeatOneStatementPerRow() throws Exception {
+        double feesPerRow = rowsPerSecond("fees", 1, this::insertFees);
+        double feesBatched = rowsPerSecond("fees", null, this::insertFees);
+        double allocationsPerRow = rowsPerSecond("allocations", 1, this::insertAllocations);
+        double allocationsBatched = rowsPerSecond("allocations", null, this::insertAllocations);
+
+        new BenchmarkReport("bulk-inserts", "Bulk inserts of " + ROWS + " rows through Hibernate",
+                "Entity", "One statement per row (rows/s)", "Sequence ids and batching (rows/s)", "Speed-up")
+                .row("Fee", feesPerRow, feesBatched, feesBatched / feesPerRow)
+                .row("Allocation", allocationsPerRow, allocationsBatched, allocationsBatched / allocationsPerRow)
+                .write();
+
+        assertThat(feesBatched).isGreaterThan(feesPerRow);
+        assertThat(allocationsBatched).isGreaterThan(allocationsPerRow);
+    }
+
+    /**
+     * Median rows per second of a few runs, each committing {@link #ROWS} rows into an empty
+     * table. A batch size of 1 sends every insert on its own, which is all IDENTITY ids allowed.
+     */
+    private double rowsPerSecond(String table, Integer batchSize, IntConsumer insert) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long[] samples = new long[ROUNDS];
+
+        for (int round = -1; round < ROUNDS; round++) {
+            truncate(table);
+            long began = System.nanoTime();
+            transaction.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                for (int i = 0; i < ROWS; i++) {
+                    insert.accept(i);
+                }
+            });
+            long elapsed = System.nanoTime() - began;
+            assertThat(jdbc.queryForObject("SELECT count(*) FROM " + table, Integer.class)).isEqualTo(ROWS);
+            // The first run only warms up
+            if (round >= 0) {
+                samples[round] = elapsed;
+            }
+        }
+
+        Arrays.sort(samples);
+        return ROWS / (samples[ROUNDS / 2] / 1e9);
+    }
+
+    private void insertFees(int i) {
+        Fee fee = new Fee();
+        fee.setStudent(entityManager.getReference(Student.class, i + 1L));
+        fee.setHostel(entityManager.getReference(Hostel.class, HOSTEL));
+        fee.setMonth("2026-10");
+        fee.setAmount(12500);
+        fee.setDueDate(LocalDate.of(2026, 10, 10));
+        fee.setStatus(FeeStatus.UNPAID);
+        entityManager.persist(fee);
+    }
+
+    private void insertAllocations(int i) {
+        Allocation allocation = new Allocation();
+        allocation.setStudent(entityManager.getReference(Student.class, i + 1L));
+        allocation.setRoom(entityManager.getReference(Room.class, 1L + i / CAPACITY));
+        allocation.setBedNumber(1 + i % CAPACITY);
+        allocation.setActive(true);
+        entityManager.persist(allocation);
+    }
+}
@@ -0,0 +1,133 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * N+1 guard for the endpoints that still return entities. Each query is serialized the way
+ * the controller would, and the statement count must not grow with the number of rows:
+ * the entity graph itself, plus at most one load of the shared hostel.
+ */
+class FetchPlanTest {
+
+    private static final int STUDENTS = 40;
+    private static final long MAX_STATEMENTS = 2;
+
+    private static SessionFactory sessionFactory;
+    private static Long hostelId;
+    private static Long studentId;
+    private static Long userId;
+    private static Long roomId;
+    private static Long feeId;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = TestDatabase.start("fetch_plans");
+        hostelId = TestDatabase.seedHostel(sessionFactory, "Officers Hostel", STUDENTS);
+        sessionFactory.inSession(session -> {
+            Fee fee = session.createQuery("from Fee order by id", Fee.class).setMaxResults(1).getSingleResult();
+            feeId = fee.getId();
+            studentId = fee.getStudent().getId();
+            userId = fee.getStudent().getUser().getId();
+            roomId = session.createQuery("select a.room.id from Allocation a where a.student.id = :studentId", Long.class)
+                    .setParameter("studentId", studentId).getSingleResult();
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void loadingAFeeNoLongerPullsInItsAssociations() {
+        try (EntityManager em = sessionFactory.createEntityManager()) {
+            statistics().clear();
+            Fee fee = em.find(Fee.class, feeId);
+
+            assertThat(statistics().getPrepareStatementCount()).isEqualTo(1);
+            assertThat(Hibernate.isInitialized(fee.getStudent())).isFalse();
+            assertThat(Hibernate.isInitialized(fee.getHostel())).isFalse();
+        }
+    }
+
+    @Test
+    void feeQueries() {
+        assertNoNPlusOne("fees by status", STUDENTS,
+                em -> TestDatabase.repository(em, FeeRepository.class).findByStatusAndIdGreaterThanOrderById(FeeStatus.UNPAID, 0, Limit.of(STUDENTS)));
+        assertNoNPlusOne("overdue page", STUDENTS,
+                em -> TestDatabase.repository(em, FeeRepository.class).findByHostel_IdAndStatusAndIdGreaterThanOrderById(
+                        hostelId, FeeStatus.UNPAID, 0, Limit.of(STUDENTS)));
+        assertNoNPlusOne("fees by student", 1,
+                em -> TestDatabase.repository(em, FeeRepository.class).findByStudentId(studentId));
+        assertNoNPlusOne("fee with student", 1,
+                em -> TestDatabase.repository(em, FeeRepository.class).findWithStudentById(feeId).orElseThrow());
+    }
+
+    @Test
+    void allocationQueries() {
+        assertNoNPlusOne("active in hostel", STUDENTS,
+                em -> TestDatabase.repository(em, AllocationRepository.class).findByStudent_Hostel_IdAndActiveTrue(hostelId));
+        assertNoNPlusOne("room occupants", TestDatabase.BEDS_PER_ROOM,
+                em -> TestDatabase.repository(em, AllocationRepository.class)
+                        .findByRoomIdAndRoom_Hostel_IdAndActiveTrueOrderByBedNumber(roomId, hostelId));
+        assertNoNPlusOne("beds of a room", TestDatabase.BEDS_PER_ROOM,
+                em -> TestDatabase.repository(em, AllocationRepository.class).findByRoomIdAndActiveTrue(roomId));
+        assertNoNPlusOne("student history", 1,
+                em -> TestDatabase.repository(em, AllocationRepository.class)
+                        .findByStudentIdAndStudent_Hostel_IdOrderByIdDesc(studentId, hostelId));
+    }
+
+    @Test
+    void studentQueries() {
+        assertNoNPlusOne("student by user", 1,
+                em -> TestDatabase.repository(em, StudentRepository.class).findWithUserByUserId(userId).orElseThrow());
+        assertNoNPlusOne("student with user", 1,
+                em -> TestDatabase.repository(em, StudentRepository.class).findWithUserById(studentId).orElseThrow());
+    }
+
+    @Test
+    void detectsAnNPlusOne() {
+        try (EntityManager em = sessionFactory.createEntityManager()) {
+            List<Fee> fees = em.createQuery("from Fee", Fee.class).getResultList();
+            statistics().clear();
+            json.writeValueAsBytes(fees);
+
+            assertThat(statistics().getPrepareStatementCount()).isGreaterThan(STUDENTS);
+        }
+    }
+
+    private void assertNoNPlusOne(String query, int expectedRows, Function<EntityManager, Object> load) {
+        try (EntityManager em = sessionFactory.createEntityManager()) {
+            Function<EntityManager, Object> call = load;
+            statistics().clear();
+
+            Object result = call.apply(em);
+            json.writeValueAsBytes(result);
+
+            int rows = result instanceof List<?> list ? list.size() : 1;
+            assertThat(rows).as(query).isEqualTo(expectedRows);
+            assertThat(statistics().getPrepareStatementCount()).as(query).isLessThanOrEqualTo(MAX_STATEMENTS);
+        }
+    }
+
+    private static Statistics statistics() {
+        return sessionFactory.getStatistics();
+    }
+}
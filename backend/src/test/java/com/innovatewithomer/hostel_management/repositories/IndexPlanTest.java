@@ -0,0 +1,511 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.ScratchDatabase;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Migrates a scratch PostgreSQL database, fills it with a large hostel group and checks that
+ * no hot repository query is planned as a sequential scan. The queries are the SQL the
+ * repository methods run, with literal arguments. Needs PostgreSQL on localhost, like the
+ * application context test, and is skipped without it.
+ */
+class IndexPlanTest {
+
+    private static final String DATABASE = "hostel_index_plan_test";
+
+    // 20 hostels; hostel h owns students (h-1)*3000+1..h*3000 and rooms (h-1)*750+1..h*750
+    private static final String[] SEED = {
+            "INSERT INTO hostel (id, name, active) SELECT g, 'Hostel ' || g, true FROM generate_series(1, 20) g",
+            """
+            INSERT INTO users (user_id, name, email, email_verified, password, role, active, token_version, hostel_id)
+            SELECT g, 'Student ' || g, 'student' || g || '@example.com', true, 'x', 'STUDENT', g % 50 <> 0, 0,
+                   1 + (g - 1) / 3000
+            FROM generate_series(1, 60000) g
+            """,
+            """
+            INSERT INTO students (id, user_id, hostel_id, roll_no, phone, guardian_name, guardian_phone)
+            SELECT g, g, 1 + (g - 1) / 3000, 'R-' || g, '0300' || g, 'Guardian ' || g, '0311' || g
+            FROM generate_series(1, 60000) g
+            """,
+            """
+            INSERT INTO rooms (id, capacity, hostel_id, block, room_number)
+            SELECT g, 4, 1 + (g - 1) / 750, 'B' || ((g - 1) % 750 / 75), 'R' || g
+            FROM generate_series(1, 15000) g
+            """,
+            """
+            INSERT INTO allocations (id, student_id, room_id, bed_number, active, allocated_at)
+            SELECT g, g, 1 + (g - 1) / 4, 1 + (g - 1) % 4, true, now() - interval '90 days'
+            FROM generate_series(1, 60000) g
+            """,
+            """
+            INSERT INTO allocations (id, student_id, room_id, bed_number, active, allocated_at)
+            SELECT 60000 + g, g, 1 + ((g - 1) / 3000) * 750 + ((g - 1) / 4 + 7) % 750, 1 + (g + 1) % 4, false,
+                   now() - interval '400 days'
+            FROM generate_series(1, 60000) g
+            """,
+            // A year of fees: paid, then last month partly overdue, then this month unpaid
+            """
+            INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, paid_on, status)
+            SELECT (m - 1) * 60000 + g, g, 1 + (g - 1) / 3000,
+                   to_char(date '2025-11-01' + (m - 1) * interval '1 month', 'YYYY-MM'), 12500,
+                   (date '2025-11-10' + (m - 1) * interval '1 month')::date,
+                   CASE WHEN m < 11 OR (m = 11 AND g % 10 <> 0)
+                        THEN (date '2025-11-05' + (m - 1) * interval '1 month')::date END,
+                   CASE WHEN m < 11 OR (m = 11 AND g % 10 <> 0) THEN 'PAID'
+                        WHEN m = 11 THEN 'OVERDUE' ELSE 'UNPAID' END
+            FROM generate_series(1, 60000) g, generate_series(1, 12) m
+            """,
+            """
+            INSERT INTO fee_rollups (hostel_id, month, status, fee_count, total_amount)
+            SELECT hostel_id, month, status, count(*), sum(amount) FROM fees GROUP BY hostel_id, month, status
+            """,
+            """
+            INSERT INTO fee_config (id, hostel_id, monthly_amount, due_day, effective_from, active)
+            SELECT (h - 1) * 50 + v, h, 10000 + v * 50, 10, date '2022-01-01' + v * interval '1 month', v = 50
+            FROM generate_series(1, 20) h, generate_series(1, 50) v
+            """,
+            """
+            INSERT INTO kitchen_inventory (id, hostel_id, item_name, quantity, unit, last_updated)
+            SELECT g, 1 + (g - 1) / 5000, 'Item ' || g || ' ' || md5(g::text), 10, 'kg', now()
+            FROM generate_series(1, 100000) g
+            """,
+            """
+            INSERT INTO reminder_campaigns (id, kind, status, created_at, queued_at)
+            SELECT g, CASE WHEN g % 2 = 0 THEN 'DUE' ELSE 'OVERDUE' END, CASE WHEN g % 100 = 0 THEN 'PAUSED' ELSE 'RUNNING' END,
+                   now() - g * interval '1 hour', CASE WHEN g > 3 THEN now() - g * interval '1 hour' END
+            FROM generate_series(1, 2000) g
+            """,
+            // Mostly sent mail from the last week (older rows are swept), a small live queue
+            """
+            INSERT INTO email_outbox (id, recipient, subject, body, status, attempts, next_attempt_at, created_at,
+                                      claimed_at, sent_at, campaign_id, fee_id)
+            SELECT g, 'student' || g || '@example.com', 'Fee reminder', 'Dear student', s.status, 1,
+                   now() - interval '1 minute' + (g % 3) * interval '1 hour', now() - interval '2 days',
+                   CASE WHEN s.status = 'SENDING' THEN now() - interval '30 seconds' END,
+                   CASE WHEN s.status = 'SENT' THEN now() - (g % 600000) * interval '1 second' END,
+                   CASE WHEN g % 2 = 0 THEN 1 + g % 2000 END, g
+            FROM generate_series(1, 200000) g,
+                 LATERAL (SELECT CASE WHEN g % 40 = 0 THEN 'PENDING' WHEN g % 400 = 1 THEN 'SENDING'
+                                      WHEN g % 100 = 3 THEN 'FAILED' ELSE 'SENT' END AS status) s
+            """,
+            """
+            INSERT INTO refresh_tokens (id, token_hash, user_id, expires_at, created_at, revoked_at, access_token_id,
+                                        access_expires_at)
+            SELECT g, md5(g::text), 1 + g % 60000, now() + (g % 14) * interval '1 day', now() - interval '1 day',
+                   CASE WHEN g % 5 = 0 THEN now() - interval '1 hour' END, 'jti-' || g, now() + interval '15 minutes'
+            FROM generate_series(1, 100000) g
+            """,
+            """
+            INSERT INTO revoked_tokens (jti, revoked_at, expires_at)
+            SELECT 'jti-' || g, now() - (g % 900) * interval '1 second', now() + (g % 900) * interval '1 second'
+            FROM generate_series(1, 20000) g
+            """,
+            """
+            INSERT INTO job_runs (id, job_name, run_key, status, total_chunks, started_at, finished_at)
+            SELECT g, 'fee-reminders', 'run-' || g, 'COMPLETED', 20, now() - g * interval '1 hour',
+                   now() - g * interval '1 hour' + interval '5 minutes'
+            FROM generate_series(1, 5000) g
+            """,
+            """
+            INSERT INTO job_chunks (id, job_run_id, partition_key, range_start, range_end, status, attempts, processed,
+                                    updated_at)
+            SELECT (r - 1) * 20 + c, r, 'hostel-' || c, c * 5000, c * 5000 + 4999, 'COMPLETED', 1, 5000, now()
+            FROM generate_series(1, 5000) r, generate_series(1, 20) c
+            """,
+            """
+            INSERT INTO email_verification_token (id, token, user_user_id, expires_at)
+            SELECT g, md5('verify' || g), g, now() + interval '1 day'
+            FROM generate_series(1, 60000) g
+            """,
+            "VACUUM ANALYZE"
+    };
+
+    // Hostel 7 owns student/user 19500 and room 4876; fee 19500 is its November 2025 fee
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        HOT_QUERIES.put("AllocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue", """
+                SELECT a.* FROM allocations a JOIN students s ON s.id = a.student_id
+                WHERE a.student_id = 19500 AND s.hostel_id = 7 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.findByStudent_User_IdAndActiveTrue", """
+                SELECT a.*, r.* FROM allocations a
+                JOIN students s ON s.id = a.student_id JOIN rooms r ON r.id = a.room_id
+                WHERE s.user_id = 19500 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.findByRoomIdAndRoom_Hostel_IdAndBedNumberAndActiveTrue", """
+                SELECT a.* FROM allocations a JOIN rooms r ON r.id = a.room_id
+                WHERE a.room_id = 4876 AND r.hostel_id = 7 AND a.bed_number = 2 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.findByRoomIdAndActiveTrue", """
+                SELECT a.*, s.*, u.*, r.* FROM allocations a
+                JOIN students s ON s.id = a.student_id JOIN users u ON u.user_id = s.user_id
+                JOIN rooms r ON r.id = a.room_id
+                WHERE a.room_id = 4876 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.countByRoomIdAndRoom_Hostel_IdAndActiveTrue", """
+                SELECT count(a.id) FROM allocations a JOIN rooms r ON r.id = a.room_id
+                WHERE a.room_id = 4876 AND r.hostel_id = 7 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.countByRoom_Hostel_IdAndActiveTrue", """
+                SELECT count(a.id) FROM allocations a JOIN rooms r ON r.id = a.room_id
+                WHERE r.hostel_id = 7 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.findByRoomIdAndRoom_Hostel_IdAndActiveTrueOrderByBedNumber", """
+                SELECT a.*, s.*, u.* FROM allocations a JOIN rooms r ON r.id = a.room_id
+                JOIN students s ON s.id = a.student_id JOIN users u ON u.user_id = s.user_id
+                WHERE a.room_id = 4876 AND r.hostel_id = 7 AND a.active
+                ORDER BY a.bed_number
+                """);
+        HOT_QUERIES.put("AllocationRepository.findByStudentIdAndStudent_Hostel_IdOrderByIdDesc", """
+                SELECT a.*, r.* FROM allocations a JOIN students s ON s.id = a.student_id
+                JOIN rooms r ON r.id = a.room_id
+                WHERE a.student_id = 19500 AND s.hostel_id = 7
+                ORDER BY a.id DESC
+                """);
+        HOT_QUERIES.put("AllocationRepository.findHistoryByHostel", """
+                SELECT a.id, a.bed_number, a.active, a.allocated_at, s.id, s.roll_no, u.user_id, u.name, u.email,
+                       r.id, r.block, r.room_number, r.capacity
+                FROM allocations a JOIN students s ON s.id = a.student_id
+                JOIN users u ON u.user_id = s.user_id JOIN rooms r ON r.id = a.room_id
+                WHERE s.hostel_id = 7 AND a.id > 0 AND a.active
+                ORDER BY a.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("AllocationRepository.findActiveBedNumbers", """
+                SELECT a.bed_number FROM allocations a WHERE a.room_id = 4876 AND a.active
+                """);
+        HOT_QUERIES.put("AllocationRepository.findActiveStudentIds", """
+                SELECT a.student_id FROM allocations a
+                WHERE a.student_id IN (19500, 19501, 19502, 19503, 19504, 19505, 19506, 19507) AND a.active
+                """);
+        HOT_QUERIES.put("FeeRepository.findByStudentId", """
+                SELECT f.*, s.*, u.* FROM fees f
+                LEFT JOIN students s ON s.id = f.student_id LEFT JOIN users u ON u.user_id = s.user_id
+                WHERE f.student_id = 19500
+                """);
+        HOT_QUERIES.put("FeeRepository.findByStatusAndIdGreaterThanOrderById", """
+                SELECT f.*, s.*, u.* FROM fees f
+                LEFT JOIN students s ON s.id = f.student_id LEFT JOIN users u ON u.user_id = s.user_id
+                WHERE f.status = 'OVERDUE' AND f.id > 0
+                ORDER BY f.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("FeeRepository.findListByHostel", """
+                SELECT f.id, f.month, f.amount, f.due_date, f.paid_on, f.status, s.id, s.roll_no, u.user_id, u.name, u.email
+                FROM fees f JOIN students s ON s.id = f.student_id JOIN users u ON u.user_id = s.user_id
+                WHERE f.hostel_id = 7 AND f.id > 0
+                ORDER BY f.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("FeeRepository.findListByHostel (status, month)", """
+                SELECT f.id, f.month, f.amount, f.due_date, f.paid_on, f.status, s.id, s.roll_no, u.user_id, u.name, u.email
+                FROM fees f JOIN students s ON s.id = f.student_id JOIN users u ON u.user_id = s.user_id
+                WHERE f.hostel_id = 7 AND f.id > 0 AND f.status = 'UNPAID' AND f.month = '2026-10'
+                ORDER BY f.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("FeeRepository.findWithStudentById", """
+                SELECT f.*, s.*, u.* FROM fees f
+                LEFT JOIN students s ON s.id = f.student_id LEFT JOIN users u ON u.user_id = s.user_id
+                WHERE f.id = 19500
+                """);
+        HOT_QUERIES.put("FeeRepository.findByIdAndStudent_User_Id", """
+                SELECT f.*, s.*, u.* FROM fees f
+                JOIN students s ON s.id = f.student_id LEFT JOIN users u ON u.user_id = s.user_id
+                WHERE f.id = 19500 AND s.user_id = 19500
+                """);
+        HOT_QUERIES.put("FeeRepository.findAllByStudent_User_Id", """
+                SELECT f.* FROM fees f JOIN students s ON s.id = f.student_id
+                WHERE s.user_id = 19500
+                """);
+        HOT_QUERIES.put("FeeRepository.findByHostel_IdAndStatusAndIdGreaterThanOrderById", """
+                SELECT f.*, s.*, u.* FROM fees f
+                LEFT JOIN students s ON s.id = f.student_id LEFT JOIN users u ON u.user_id = s.user_id
+                WHERE f.hostel_id = 7 AND f.status = 'OVERDUE' AND f.id > 0
+                ORDER BY f.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("FeeRepository.getStudentTotalCollection", """
+                SELECT coalesce(sum(f.amount), 0) FROM fees f WHERE f.status = 'PAID' AND f.student_id = 19500
+                """);
+        HOT_QUERIES.put("FeeRepository.countByHostel_IdAndMonth", """
+                SELECT count(f.id) FROM fees f WHERE f.hostel_id = 7 AND f.month = '2026-10'
+                """);
+        HOT_QUERIES.put("FeeRepository.findIdRangesByHostelAndStatus", """
+                SELECT f.hostel_id, min(f.id), max(f.id) FROM fees f WHERE f.status = 'OVERDUE' GROUP BY f.hostel_id
+                """);
+        HOT_QUERIES.put("FeeRepository.findReceiptBatch", """
+                SELECT f.*, s.*, u.* FROM fees f
+                JOIN students s ON s.id = f.student_id JOIN users u ON u.user_id = s.user_id
+                WHERE f.hostel_id = 7 AND f.month = '2026-10' AND f.id > 0
+                ORDER BY f.id
+                LIMIT 100
+                """);
+        HOT_QUERIES.put("FeeRepository.existsByStudentAndMonth", """
+                SELECT f.id FROM fees f WHERE f.student_id = 19500 AND f.month = '2026-10' LIMIT 1
+                """);
+        HOT_QUERIES.put("FeeRepository.generateHostelFees", """
+                INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+                SELECT nextval('fees_seq'), s.id, s.hostel_id, '2026-11', 12500, date '2026-11-10', 'UNPAID'
+                FROM students s
+                WHERE s.hostel_id = 7
+                  AND s.id BETWEEN 18001 AND 19000
+                  AND NOT EXISTS (SELECT 1 FROM fees f WHERE f.student_id = s.id AND f.month = '2026-11')
+                ON CONFLICT (student_id, month) DO NOTHING
+                """);
+        HOT_QUERIES.put("FeeRepository.generateStudentFee", """
+                INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+                SELECT nextval('fees_seq'), s.id, s.hostel_id, '2026-11', 12500, date '2026-11-10', 'UNPAID'
+                FROM students s
+                WHERE s.id = 19500
+                ON CONFLICT (student_id, month) DO NOTHING
+                """);
+        HOT_QUERIES.put("FeeRepository.markOverdue", """
+                WITH moved AS (
+                    UPDATE fees SET status = 'OVERDUE'
+                    WHERE id IN (
+                        SELECT id FROM fees
+                        WHERE status = 'UNPAID' AND due_date < date '2026-10-18'
+                        ORDER BY id
+                        LIMIT 1000
+                        FOR UPDATE
+                    )
+                    RETURNING hostel_id, month, amount
+                )
+                SELECT hostel_id, month, count(*), sum(amount) FROM moved GROUP BY hostel_id, month
+                """);
+        HOT_QUERIES.put("FeeReminderService recipients", """
+                SELECT f.id, u.email, u.name, f.month, f.amount, f.due_date
+                FROM fees f
+                JOIN students s ON s.id = f.student_id
+                JOIN users u ON u.user_id = s.user_id
+                WHERE f.hostel_id = 7 AND f.status = 'UNPAID' AND f.id BETWEEN 678001 AND 683000 AND u.active
+                ORDER BY f.id
+                """);
+        HOT_QUERIES.put("FeeConfigRepository.findFirstByHostel_IdAndActiveTrue", """
+                SELECT c.* FROM fee_config c WHERE c.hostel_id = 7 AND c.active LIMIT 1
+                """);
+        HOT_QUERIES.put("FeeConfigRepository.findTimelineRows(hostelId)", """
+                SELECT c.id, c.hostel_id, c.monthly_amount, c.due_day, c.effective_from FROM fee_config c
+                WHERE c.hostel_id = 7
+                """);
+        HOT_QUERIES.put("FeeRollupRepository.findById_HostelIdOrderById_MonthDesc", """
+                SELECT r.* FROM fee_rollups r WHERE r.hostel_id = 7 ORDER BY r.month DESC
+                """);
+        HOT_QUERIES.put("FeeRollupRepository.sumAmount", """
+                SELECT coalesce(sum(r.total_amount), 0) FROM fee_rollups r
+                WHERE r.hostel_id = 7 AND r.status IN ('UNPAID', 'OVERDUE')
+                """);
+        HOT_QUERIES.put("StudentRepository.findByUserId", """
+                SELECT s.* FROM students s WHERE s.user_id = 19500
+                """);
+        HOT_QUERIES.put("StudentRepository.findWithUserByUserId", """
+                SELECT s.*, u.* FROM students s JOIN users u ON u.user_id = s.user_id WHERE s.user_id = 19500
+                """);
+        HOT_QUERIES.put("StudentRepository.findWithUserById", """
+                SELECT s.*, u.* FROM students s JOIN users u ON u.user_id = s.user_id WHERE s.id = 19500
+                """);
+        HOT_QUERIES.put("StudentRepository.findListByHostel", """
+                SELECT s.id, s.roll_no, s.phone, s.guardian_name, s.guardian_phone, u.user_id, u.name, u.email
+                FROM students s JOIN users u ON u.user_id = s.user_id
+                WHERE s.hostel_id = 7 AND s.id > 19000
+                ORDER BY s.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("UserRepository.findByEmail", """
+                SELECT u.* FROM users u WHERE u.email = 'student19500@example.com'
+                """);
+        HOT_QUERIES.put("UserRepository.findByEmailAndStudent_Hostel_Id", """
+                SELECT u.* FROM users u JOIN students s ON s.user_id = u.user_id
+                WHERE u.email = 'student19500@example.com' AND s.hostel_id = 7
+                """);
+        HOT_QUERIES.put("UserRepository.findList", """
+                SELECT u.user_id, u.name, u.email, u.email_verified, u.role, u.active, u.hostel_id FROM users u
+                WHERE u.user_id > 19000 AND u.role = 'STUDENT' AND u.active
+                ORDER BY u.user_id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("RoomRepository.findPageByHostel", """
+                SELECT r.* FROM rooms r WHERE r.hostel_id = 7 AND r.id > 4800 AND r.block = 'B4'
+                ORDER BY r.id
+                LIMIT 51
+                """);
+        HOT_QUERIES.put("RoomRepository.findByIdAndHostel_Id", """
+                SELECT r.* FROM rooms r WHERE r.id = 4876 AND r.hostel_id = 7
+                """);
+        HOT_QUERIES.put("RoomRepository.existsByHostelIdAndBlockAndRoomNumber", """
+                SELECT r.id FROM rooms r WHERE r.hostel_id = 7 AND r.block = 'B5' AND r.room_number = 'R4876' LIMIT 1
+                """);
+        HOT_QUERIES.put("RoomRepository.findOccupancyByHostel", """
+                SELECT r.id, r.block, r.room_number, r.capacity, count(a.id) FROM rooms r
+                LEFT JOIN allocations a ON a.room_id = r.id AND a.active
+                WHERE r.hostel_id = 7
+                GROUP BY r.id, r.block, r.room_number, r.capacity
+                ORDER BY r.block, r.room_number
+                """);
+        HOT_QUERIES.put("KitchenInventoryRepository.findByItemNameIgnoreCaseAndHostelId", """
+                SELECT k.* FROM kitchen_inventory k WHERE upper(k.item_name) = upper('Item 32500 x') AND k.hostel_id = 7
+                """);
+        HOT_QUERIES.put("KitchenInventoryRepository.findByItemNameContainingIgnoreCaseAndHostelId", """
+                SELECT k.* FROM kitchen_inventory k WHERE upper(k.item_name) LIKE upper('%32500%') ESCAPE '\\'
+                  AND k.hostel_id = 7
+                """);
+        HOT_QUERIES.put("OutboxEmailRepository.claimDue", """
+                WITH claimed AS (
+                    UPDATE email_outbox
+                    SET status = 'SENDING', claimed_at = now()
+                    WHERE id IN (
+                        SELECT e.id FROM email_outbox e
+                        WHERE e.status = 'PENDING'
+                          AND e.next_attempt_at <= now()
+                          AND (e.campaign_id IS NULL OR e.campaign_id NOT IN (
+                                SELECT c.id FROM reminder_campaigns c WHERE c.status = 'PAUSED'))
+                        ORDER BY e.campaign_id NULLS FIRST, e.id
+                        LIMIT 50
+                        FOR UPDATE SKIP LOCKED
+                    )
+                    RETURNING *
+                )
+                SELECT * FROM claimed ORDER BY campaign_id NULLS FIRST, id
+                """);
+        HOT_QUERIES.put("OutboxEmailRepository.failInterruptedCampaignEmails", """
+                UPDATE email_outbox SET status = 'FAILED', last_error = 'Interrupted while sending, delivery unknown'
+                WHERE status = 'SENDING' AND claimed_at < now() - interval '10 minutes' AND campaign_id IS NOT NULL
+                """);
+        HOT_QUERIES.put("OutboxEmailRepository.releaseInterrupted", """
+                UPDATE email_outbox SET status = 'PENDING'
+                WHERE status = 'SENDING' AND claimed_at < now() - interval '10 minutes' AND campaign_id IS NULL
+                """);
+        HOT_QUERIES.put("OutboxEmailRepository.countByStatus", """
+                SELECT e.status, count(e.id) FROM email_outbox e WHERE e.campaign_id = 42 GROUP BY e.status
+                """);
+        HOT_QUERIES.put("OutboxEmailRepository.deleteSentBefore", """
+                DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < now() - interval '7 days'
+                """);
+        HOT_QUERIES.put("ReminderCampaignRepository.findByStatusAndQueuedAtIsNull", """
+                SELECT c.* FROM reminder_campaigns c WHERE c.status = 'RUNNING' AND c.queued_at IS NULL
+                """);
+        HOT_QUERIES.put("RefreshTokenRepository.findByTokenHashForUpdate", """
+                SELECT t.*, u.* FROM refresh_tokens t JOIN users u ON u.user_id = t.user_id
+                WHERE t.token_hash = md5('4242') FOR NO KEY UPDATE
+                """);
+        HOT_QUERIES.put("RefreshTokenRepository.findSessions", """
+                SELECT t.* FROM refresh_tokens t
+                WHERE t.user_id = 19500 AND (t.revoked_at IS NULL OR t.access_expires_at > now())
+                """);
+        HOT_QUERIES.put("RefreshTokenRepository.deleteExpired", """
+                DELETE FROM refresh_tokens WHERE expires_at < now()
+                """);
+        HOT_QUERIES.put("RevokedTokenRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter", """
+                SELECT t.* FROM revoked_tokens t WHERE t.revoked_at >= now() - interval '30 seconds' AND t.expires_at > now()
+                """);
+        HOT_QUERIES.put("RevokedTokenRepository.deleteExpired", """
+                DELETE FROM revoked_tokens WHERE expires_at < now() - interval '1 hour'
+                """);
+        HOT_QUERIES.put("EmailVerificationTokenRepository.findByToken", """
+                SELECT t.* FROM email_verification_token t WHERE t.token = md5('verify19500')
+                """);
+        HOT_QUERIES.put("JobRunRepository.findByJobNameAndRunKey", """
+                SELECT r.* FROM job_runs r WHERE r.job_name = 'fee-reminders' AND r.run_key = 'run-4242'
+                """);
+        HOT_QUERIES.put("JobRunRepository.findTop20ByOrderByIdDesc", """
+                SELECT r.* FROM job_runs r ORDER BY r.id DESC LIMIT 20
+                """);
+        HOT_QUERIES.put("JobChunkRepository.findByJobRunIdAndStatusNot", """
+                SELECT c.* FROM job_chunks c WHERE c.job_run_id = 4242 AND c.status <> 'COMPLETED'
+                """);
+        HOT_QUERIES.put("JobChunkRepository.summarize", """
+                SELECT c.job_run_id, c.status, count(c.id), coalesce(sum(c.processed), 0) FROM job_chunks c
+                WHERE c.job_run_id IN (4981, 4982, 4983, 4984, 4985, 4986, 4987, 4988, 4989, 4990)
+                GROUP BY c.job_run_id, c.status
+                """);
+    }
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        assumeTrue(ScratchDatabase.available(), "PostgreSQL is not running on localhost:5432");
+        ScratchDatabase.recreate(DATABASE);
+
+        Flyway.configure()
+                .dataSource(ScratchDatabase.url(DATABASE), ScratchDatabase.USER, ScratchDatabase.PASSWORD)
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+
+        try (Connection c = ScratchDatabase.connect(DATABASE);
+             Statement st = c.createStatement()) {
+            for (String sql : SEED) {
+                st.execute(sql);
+            }
+        }
+    }
+
+    @AfterAll
+    static void dropDatabase() throws SQLException {
+        if (ScratchDatabase.available()) {
+            ScratchDatabase.drop(DATABASE);
+        }
+    }
+
+    @Test
+    void hotQueriesUseIndexes() throws SQLException {
+        List<String> regressions = new ArrayList<>();
+        try (Connection c = ScratchDatabase.connect(DATABASE);
+             Statement st = c.createStatement()) {
+            // Reading a few pages straight through beats any index, so small tables may be scanned
+            Set<String> smallTables = new HashSet<>();
+            try (ResultSet rs = st.executeQuery("""
+                    SELECT relname FROM pg_class
+                    WHERE relkind = 'r' AND relnamespace = 'public'::regnamespace AND reltuples < 10000
+                    """)) {
+                while (rs.next()) {
+                    smallTables.add(rs.getString(1));
+                }
+            }
+            for (Map.Entry<String, String> query : HOT_QUERIES.entrySet()) {
+                List<String> scanned = new ArrayList<>();
+                // EXPLAIN without ANALYZE only plans, so the updates and deletes leave the data alone
+                try (ResultSet rs = st.executeQuery("EXPLAIN (FORMAT JSON) " + query.getValue())) {
+                    rs.next();
+                    collectSeqScans(JSON.readTree(rs.getString(1)).get(0).get("Plan"), scanned);
+                }
+                scanned.removeAll(smallTables);
+                if (!scanned.isEmpty()) {
+                    regressions.add(query.getKey() + " scans " + scanned);
+                }
+            }
+        }
+        assertTrue(regressions.isEmpty(), "Sequential scans in hot queries:\n" + String.join("\n", regressions));
+    }
+
+    private static void collectSeqScans(JsonNode plan, List<String> scanned) {
+        if ("Seq Scan".equals(plan.path("Node Type").asString())) {
+            scanned.add(plan.path("Relation Name").asString());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSeqScans(child, scanned);
+        }
+    }
+}
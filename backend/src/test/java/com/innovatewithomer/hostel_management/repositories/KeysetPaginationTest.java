@@ -0,0 +1,118 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import com.innovatewithomer.hostel_management.dto.FeeListItem;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.services.paging.NdjsonStreamer;
+import com.innovatewithomer.hostel_management.services.paging.PageQuery;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPaginationTest {
+
+    private static final int STUDENTS = 230;
+
+    private static SessionFactory sessionFactory;
+    private static Long hostelId;
+    private static Long otherHostelId;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = TestDatabase.start("keyset");
+        hostelId = TestDatabase.seedHostel(sessionFactory, "Officers Hostel", STUDENTS);
+        otherHostelId = TestDatabase.seedHostel(sessionFactory, "Girls Hostel", 20);
+        sessionFactory.inTransaction(session -> session.createMutationQuery(
+                        "update Fee set status = :paid where mod(id, 3) = 0 and hostel.id = :hostelId")
+                .setParameter("paid", FeeStatus.PAID)
+                .setParameter("hostelId", hostelId)
+                .executeUpdate());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void followingTheCursorVisitsEveryFeeOnce() {
+        List<Long> seen = walk(null, 40);
+
+        assertThat(seen).hasSize(STUDENTS).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    void filtersApplyOnEveryPage() {
+        List<Long> paid = walk(FeeStatus.PAID, 25);
+
+        try (EntityManager em = sessionFactory.createEntityManager()) {
+            List<Long> expected = em.createQuery(
+                            "select f.id from Fee f where f.hostel.id = :hostelId and f.status = :status order by f.id", Long.class)
+                    .setParameter("hostelId", hostelId)
+                    .setParameter("status", FeeStatus.PAID)
+                    .getResultList();
+            assertThat(paid).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void streamsAllRowsAsNdjson() throws Exception {
+        // Streaming repository methods insist on a real transaction, as they get one in the application
+        NdjsonStreamer streamer = new NdjsonStreamer(JsonMapper.builder().build(), new JpaTransactionManager(sessionFactory));
+        FeeRepository fees = TestDatabase.repository(
+                SharedEntityManagerCreator.createSharedEntityManager(sessionFactory), FeeRepository.class);
+
+        ResponseEntity<StreamingResponseBody> response =
+                streamer.stream(() -> fees.streamListByHostel(hostelId, null, "2026-10"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        assertThat(lines).hasSize(STUDENTS);
+        assertThat(JsonMapper.builder().build().readTree(lines[0]).path("student").path("user").path("email").asString())
+                .isEqualTo("officers.hostel0@example.com");
+    }
+
+    private List<Long> walk(FeeStatus status, int limit) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            PageQuery query = PageQuery.of(cursor, limit);
+            try (EntityManager em = sessionFactory.createEntityManager()) {
+                CursorPage<FeeListItem> page = query.page(
+                        TestDatabase.repository(em, FeeRepository.class)
+                                .findListByHostel(hostelId, status, null, query.getAfterId(), query.fetchLimit()),
+                        FeeListItem::getId);
+                assertThat(page.getItems()).hasSizeLessThanOrEqualTo(limit);
+                page.getItems().forEach(item -> seen.add(item.getId()));
+                cursor = page.getNextCursor();
+            }
+        } while (cursor != null);
+        assertThat(seen).doesNotContainAnyElementsOf(feeIds(otherHostelId));
+        return seen;
+    }
+
+    private static List<Long> feeIds(Long hostelId) {
+        try (EntityManager em = sessionFactory.createEntityManager()) {
+            return em.createQuery("select f.id from Fee f where f.hostel.id = :hostelId", Long.class)
+                    .setParameter("hostelId", hostelId)
+                    .getResultList();
+        }
+    }
+}
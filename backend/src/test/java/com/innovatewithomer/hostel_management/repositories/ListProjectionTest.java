@@ -0,0 +1,104 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The admin list endpoints against a 1,000-student hostel: each must be one statement,
+ * and the JSON must be smaller than serializing the entities was.
+ */
+class ListProjectionTest {
+
+    private static final int STUDENTS = 1_000;
+
+    private static SessionFactory sessionFactory;
+    private static Long hostelId;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = TestDatabase.start("lists");
+        hostelId = TestDatabase.seedHostel(sessionFactory, "Officers Hostel", STUDENTS);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void allocationHistory() {
+        compare("allocations/history", 2 * STUDENTS, 0.5,
+                em -> () -> TestDatabase.repository(em, AllocationRepository.class).findHistoryByHostel(hostelId, null, 0, Limit.unlimited()),
+                em -> () -> em.createQuery("from Allocation a where a.student.hostel.id = :hostelId", Allocation.class)
+                        .setParameter("hostelId", hostelId).getResultList());
+    }
+
+    @Test
+    void students() {
+        compare("students", STUDENTS + 1, 0.6,
+                em -> () -> TestDatabase.repository(em, StudentRepository.class).findListByHostel(hostelId, 0, Limit.unlimited()),
+                em -> () -> em.createQuery("from Student s where s.hostel.id = :hostelId", Student.class)
+                        .setParameter("hostelId", hostelId).getResultList());
+    }
+
+    @Test
+    void fees() {
+        compare("fees", 2 * STUDENTS, 0.5,
+                em -> () -> TestDatabase.repository(em, FeeRepository.class).findListByHostel(hostelId, null, null, 0, Limit.unlimited()),
+                em -> () -> em.createQuery("from Fee f where f.hostel.id = :hostelId", Fee.class)
+                        .setParameter("hostelId", hostelId).getResultList());
+    }
+
+    @Test
+    void users() {
+        compare("users", 1, 0.8,
+                em -> () -> TestDatabase.repository(em, UserRepository.class).findList(null, null, 0, Limit.unlimited()),
+                em -> () -> em.createQuery("from User", User.class).getResultList());
+    }
+
+    /**
+     * @param entityStatements what loading the entities took: the list query plus its lazy loads per row
+     * @param maxShare         largest fraction of the entities' JSON the projection may be
+     */
+    private void compare(String endpoint, long entityStatements, double maxShare,
+                         java.util.function.Function<EntityManager, Supplier<List<?>>> projection,
+                         java.util.function.Function<EntityManager, Supplier<List<?>>> entities) {
+        Measured read = measure(projection);
+        Measured before = measure(entities);
+
+        assertThat(read.rows).as(endpoint).isEqualTo(before.rows).isGreaterThanOrEqualTo(STUDENTS);
+        assertThat(before.statements).as(endpoint).isGreaterThanOrEqualTo(entityStatements);
+        assertThat(read.statements).as(endpoint).isEqualTo(1);
+        assertThat((double) read.bytes).as(endpoint).isLessThanOrEqualTo(before.bytes * maxShare);
+    }
+
+    private Measured measure(java.util.function.Function<EntityManager, Supplier<List<?>>> query) {
+        try (EntityManager em = sessionFactory.createEntityManager()) {
+            Supplier<List<?>> list = query.apply(em);
+            Statistics statistics = sessionFactory.getStatistics();
+            statistics.clear();
+
+            List<?> rows = list.get();
+            int bytes = json.writeValueAsBytes(rows).length;
+            long statements = statistics.getPrepareStatementCount();
+            return new Measured(rows.size(), statements, bytes);
+        }
+    }
+
+    private record Measured(int rows, long statements, int bytes) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.entities.Role;
+import com.innovatewithomer.hostel_management.services.FeeRollupService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The native fee and rollup writes declare the tables they touch, so Hibernate only invalidates
+ * those instead of clearing every second-level cache region.
+ */
+class NativeQuerySpacesTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+    private static final long ROOM = 1;
+    private static final long FEE = 1;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private FeeRollupService feeRollupService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        truncate("fees", "fee_rollups", "rooms", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, 1);
+        jdbc.update("INSERT INTO rooms (id, hostel_id, block, room_number, capacity) VALUES (?, ?, 'A', '101', 3)",
+                ROOM, HOSTEL);
+        jdbc.update("""
+                INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+                VALUES (?, 1, ?, '2026-10', 12500, DATE '2026-10-10', 'UNPAID')
+                """, FEE, HOSTEL);
+        // Other tests write rooms through JDBC, behind the cache's back
+        entityManagerFactory.getCache().evictAll();
+        roomRepository.findById(ROOM).orElseThrow();
+        assertThat(entityManagerFactory.getCache().contains(Room.class, ROOM)).isTrue();
+    }
+
+    @Test
+    void payingAFeeKeepsCachedRooms() throws Exception {
+        mvc.perform(put("/api/admin/fee/{feeId}/pay", FEE)
+                        .with(user(new UserPrincipal(1L, null, "admin@example.com", null, Role.ADMIN, true))))
+                .andExpect(status().isOk());
+
+        assertThat(jdbc.queryForObject("SELECT status FROM fees WHERE id = ?", String.class, FEE)).isEqualTo("PAID");
+        assertThat(entityManagerFactory.getCache().contains(Room.class, ROOM)).isTrue();
+    }
+
+    @Test
+    void rebuildingTheRollupsKeepsCachedRooms() {
+        assertThat(feeRollupService.rebuild()).isEqualTo(1);
+
+        assertThat(entityManagerFactory.getCache().contains(Room.class, ROOM)).isTrue();
+    }
+}
@@ -0,0 +1,251 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.ScratchDatabase;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * A database as Hibernate created it with ddl-auto=update before migrations took over, with
+ * data in it, migrated the way the application starts up. Afterwards the entities must
+ * validate against it and new rows must get ids past the old ones. A database charging a student
+ * twice for a month, or with two active allocations on one bed, must stop the upgrade instead. Needs PostgreSQL on localhost, like the
+ * application context test, and is skipped without it.
+ */
+class SchemaUpgradeTest {
+
+    private static final String DATABASE = "hostel_schema_upgrade_test";
+    private static final String DUPLICATES_DATABASE = "hostel_schema_upgrade_duplicates_test";
+
+    // What ddl-auto=update created from the entities as they were before migrations
+    private static final String ORIGINAL_SCHEMA = """
+            create table allocations (active boolean not null, bed_number integer not null, allocated_at timestamp(6),
+                id bigint generated by default as identity, room_id bigint not null, student_id bigint not null,
+                primary key (id));
+            create table email_verification_token (expires_at timestamp(6) not null,
+                id bigint generated by default as identity, user_user_id bigint unique,
+                token varchar(255) not null unique, primary key (id));
+            create table fee_config (active boolean not null, due_day integer, effective_from date,
+                monthly_amount float(53) not null, hostel_id bigint, id bigint generated by default as identity,
+                primary key (id));
+            create table fees (amount float(53) not null, due_date date, hostel_id bigint not null,
+                id bigint generated by default as identity, student_id bigint, month varchar(255) not null,
+                status varchar(255) check ((status in ('PAID','UNPAID','OVERDUE'))), primary key (id));
+            comment on column fees.hostel_id is 'hostel_id';
+            create table hostel (active boolean not null, id bigint generated by default as identity,
+                name varchar(255) not null unique, primary key (id));
+            create table kitchen_inventory (quantity float(53) not null, hostel_id bigint not null,
+                id bigint generated by default as identity, last_updated timestamp(6), item_name varchar(255),
+                unit varchar(255), primary key (id));
+            create table notices (created_at timestamp(6), id bigint generated by default as identity,
+                message varchar(2000), title varchar(255), primary key (id));
+            create table rooms (capacity integer not null, hostel_id bigint not null,
+                id bigint generated by default as identity, block varchar(255), room_number varchar(255),
+                primary key (id));
+            create table students (hostel_id bigint not null, id bigint generated by default as identity,
+                user_id bigint not null unique, guardian_name varchar(255), guardian_phone varchar(255),
+                phone varchar(255), roll_no varchar(255), primary key (id));
+            create table users (active boolean not null, email_verified boolean not null, hostel_id bigint,
+                user_id bigint generated by default as identity, email varchar(255) not null unique,
+                name varchar(255), password varchar(255) not null,
+                role varchar(255) not null check ((role in ('ADMIN','STAFF','STUDENT'))), primary key (user_id));
+            alter table if exists allocations add constraint FKpkx2s2ihjrcpcoabifnwo68cn foreign key (room_id) references rooms;
+            alter table if exists allocations add constraint FKt8f0vsywgt54aj29aocbc7qlb foreign key (student_id) references students;
+            alter table if exists email_verification_token add constraint FKkbw2g875nb7b9uxsebi8q4k8k foreign key (user_user_id) references users;
+            alter table if exists fee_config add constraint FKh197vjom7ol3bdvvfoq2cohgn foreign key (hostel_id) references hostel;
+            alter table if exists fees add constraint FK671w7thpxcfrgfi7wk1w2mjs4 foreign key (hostel_id) references hostel;
+            alter table if exists fees add constraint FKh56p3es1h1lt6ge4cl3by4oko foreign key (student_id) references students;
+            alter table if exists kitchen_inventory add constraint FKu1tkj0l5qjf8bmt9nyh680a3 foreign key (hostel_id) references hostel;
+            alter table if exists rooms add constraint FKm92ymh8jcwa72mf201j2mxtbm foreign key (hostel_id) references hostel;
+            alter table if exists students add constraint FKpnuj43giwowo22nknj92fh9vs foreign key (hostel_id) references hostel;
+            alter table if exists students add constraint FKdt1cjx5ve5bdabmuuf3ibrwaq foreign key (user_id) references users;
+            alter table if exists users add constraint FK7sbhenomwh2skqxqwsc78t365 foreign key (hostel_id) references hostel;
+            """;
+
+    // Ids handed out by the identity columns
+    private static final String[] DATA = {
+            "INSERT INTO hostel (name, active) VALUES ('Officers Hostel', true)",
+            """
+            INSERT INTO users (name, email, email_verified, password, role, active, hostel_id)
+            SELECT 'Student ' || g, 'student' || g || '@example.com', true, 'x', 'STUDENT', true, 1
+            FROM generate_series(1, 120) g
+            """,
+            """
+            INSERT INTO students (user_id, hostel_id, roll_no, phone, guardian_name, guardian_phone)
+            SELECT g, 1, 'R-' || g, '0300' || g, 'Guardian ' || g, '0311' || g FROM generate_series(1, 120) g
+            """,
+            "INSERT INTO rooms (capacity, hostel_id, block, room_number) SELECT 4, 1, 'A', g::text FROM generate_series(1, 30) g",
+            """
+            INSERT INTO allocations (student_id, room_id, bed_number, active, allocated_at)
+            SELECT g, 1 + (g - 1) / 4, 1 + (g - 1) % 4, true, now() FROM generate_series(1, 120) g
+            """,
+            """
+            INSERT INTO fees (student_id, hostel_id, month, amount, due_date, status)
+            SELECT g, 1, m, 12500, (m || '-10')::date, CASE WHEN m = '2026-09' THEN 'PAID' ELSE 'UNPAID' END
+            FROM generate_series(1, 120) g, unnest(ARRAY['2026-09', '2026-10']) m
+            """,
+            "INSERT INTO kitchen_inventory (hostel_id, item_name, quantity, unit, last_updated) VALUES (1, 'Rice', 40, 'kg', now())",
+            "INSERT INTO fee_config (hostel_id, monthly_amount, due_day, effective_from, active) VALUES (1, 12500, 10, '2026-01-01', true)"
+    };
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void upgradeOriginalSchema() throws SQLException {
+        assumeTrue(ScratchDatabase.available(), "PostgreSQL is not running on localhost:5432");
+        jdbc = originalDatabase(DATABASE);
+
+        MigrateResult result = flyway(DATABASE).migrate();
+        assertThat(result.success).isTrue();
+    }
+
+    @AfterAll
+    static void dropDatabase() throws SQLException {
+        if (ScratchDatabase.available()) {
+            ScratchDatabase.drop(DATABASE);
+        }
+    }
+
+    @Test
+    void everyMigrationRunsOnTopOfTheBaseline() {
+        assertThat(jdbc.queryForList("SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank",
+                String.class)).containsExactly("0", "1", "2", "3", "4");
+        assertThat(flyway(DATABASE).migrate().migrationsExecuted).isZero();
+    }
+
+    @Test
+    void entitiesValidateAgainstTheUpgradedSchema() {
+        TestDatabase.entities()
+                .setProperty("hibernate.connection.url", ScratchDatabase.url(DATABASE))
+                .setProperty("hibernate.connection.username", ScratchDatabase.USER)
+                .setProperty("hibernate.connection.password", ScratchDatabase.PASSWORD)
+                .setProperty("hibernate.hbm2ddl.auto", "validate")
+                .buildSessionFactory()
+                .close();
+    }
+
+    @Test
+    void theBaselineSkipsWhatTheDatabaseAlreadyHas() throws IOException {
+        String constraints = "SELECT count(*) FROM pg_constraint WHERE connamespace = 'public'::regnamespace";
+        Long before = jdbc.queryForObject(constraints, Long.class);
+
+        // Everything is already there now, the foreign keys of job_chunks and refresh_tokens included
+        try (InputStream in = SchemaUpgradeTest.class.getResourceAsStream("/db/migration/V1__baseline.sql")) {
+            jdbc.execute(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        assertThat(jdbc.queryForObject(constraints, Long.class)).isEqualTo(before);
+    }
+
+    @Test
+    void sequencesContinuePastTheIdentityIds() {
+        for (String table : List.of("fees", "allocations", "students", "kitchen_inventory")) {
+            Long maxId = jdbc.queryForObject("SELECT max(id) FROM " + table, Long.class);
+            Long next = jdbc.queryForObject("SELECT nextval('" + table + "_seq')", Long.class);
+            assertThat(next).as(table).isGreaterThan(maxId);
+            assertThat(jdbc.queryForObject("""
+                    SELECT is_identity FROM information_schema.columns WHERE table_name = ? AND column_name = 'id'
+                    """, String.class, table)).as(table).isEqualTo("NO");
+        }
+    }
+
+    @Test
+    void existingRowsGetTheNewColumnsAndRollups() {
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM users WHERE token_version = 0", Long.class)).isEqualTo(120);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM fees WHERE paid_on IS NULL", Long.class)).isEqualTo(240);
+        assertThat(jdbc.queryForList("""
+                SELECT month || ' ' || status || ' ' || fee_count FROM fee_rollups ORDER BY month
+                """, String.class)).containsExactly("2026-09 PAID 120", "2026-10 UNPAID 120");
+    }
+
+    @Test
+    void feeGenerationCanRelyOnTheStudentMonthConstraint() {
+        int inserted = jdbc.update("""
+                INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+                SELECT nextval('fees_seq'), s.id, s.hostel_id, '2026-10', 12500, date '2026-10-10', 'UNPAID'
+                FROM students s
+                ON CONFLICT (student_id, month) DO NOTHING
+                """);
+        assertThat(inserted).isZero();
+    }
+
+    @Test
+    void duplicateFeesStopTheUpgradeWithThePairsToResolve() throws SQLException {
+        JdbcTemplate duplicates = originalDatabase(DUPLICATES_DATABASE);
+        duplicates.update("""
+                INSERT INTO fees (student_id, hostel_id, month, amount, due_date, status)
+                VALUES (1, 1, '2026-10', 12500, date '2026-10-10', 'PAID')
+                """);
+        try {
+            assertThatThrownBy(() -> flyway(DUPLICATES_DATABASE).migrate())
+                    .hasMessageContaining("fees has 1 student/month pairs with more than one fee");
+            // The baseline rolled back, fees included
+            assertThat(duplicates.queryForObject("SELECT count(*) FROM fees", Long.class)).isEqualTo(241);
+            assertThat(duplicates.queryForObject("SELECT to_regclass('fee_rollups') IS NULL", Boolean.class)).isTrue();
+        } finally {
+            ScratchDatabase.drop(DUPLICATES_DATABASE);
+        }
+    }
+
+    @Test
+    void doubleBookedBedsStopTheUpgradeWithTheBedsToResolve() throws SQLException {
+        JdbcTemplate duplicates = originalDatabase(DUPLICATES_DATABASE);
+        // Student 2 moved into room 1, bed 1 while student 1 still held it
+        duplicates.update("UPDATE allocations SET active = false WHERE student_id = 2");
+        duplicates.update("""
+                INSERT INTO allocations (student_id, room_id, bed_number, active, allocated_at)
+                VALUES (2, 1, 1, true, now())
+                """);
+        try {
+            assertThatThrownBy(() -> flyway(DUPLICATES_DATABASE).migrate())
+                    .hasMessageContaining("allocations has 1 beds with more than one active allocation");
+            assertThat(duplicates.queryForObject("SELECT to_regclass('uk_allocations_active_bed') IS NULL",
+                    Boolean.class)).isTrue();
+        } finally {
+            ScratchDatabase.drop(DUPLICATES_DATABASE);
+        }
+    }
+
+    private static JdbcTemplate originalDatabase(String database) throws SQLException {
+        ScratchDatabase.recreate(database);
+
+        JdbcTemplate original = new JdbcTemplate(new DriverManagerDataSource(
+                ScratchDatabase.url(database), ScratchDatabase.USER, ScratchDatabase.PASSWORD));
+        original.execute(ORIGINAL_SCHEMA);
+        original.batchUpdate(DATA);
+        return original;
+    }
+
+    // Configured like the application, so the test takes the same baseline decision it does
+    private static Flyway flyway(String database) {
+        Properties application = new Properties();
+        try (InputStream in = SchemaUpgradeTest.class.getResourceAsStream("/application.properties")) {
+            application.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Flyway.configure()
+                .dataSource(ScratchDatabase.url(database), ScratchDatabase.USER, ScratchDatabase.PASSWORD)
+                .baselineOnMigrate(Boolean.parseBoolean(application.getProperty("spring.flyway.baseline-on-migrate")))
+                .baselineVersion(application.getProperty("spring.flyway.baseline-version"))
+                .configuration(Map.of("flyway.postgresql.transactional.lock",
+                        application.getProperty("spring.flyway.postgresql.transactional-lock")))
+                .load();
+    }
+}
@@ -0,0 +1,110 @@
+package com.innovatewithomer.hostel_management.repositories;
+
+import com.innovatewithomer.hostel_management.entities.*;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.PhysicalNamingStrategySnakeCaseImpl;
+import org.hibernate.cfg.Configuration;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import java.time.LocalDate;
+
+/**
+ * Every entity on an in-memory database, named the way Spring Boot names the real tables,
+ * plus a hostel filled with students to query.
+ */
+final class TestDatabase {
+
+    static final int BEDS_PER_ROOM = 4;
+
+    private TestDatabase() {
+    }
+
+    static SessionFactory start(String name) {
+        return entities()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH,USER,VALUE")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "100")
+                .setProperty("hibernate.generate_statistics", "true")
+                .buildSessionFactory();
+    }
+
+    /**
+     * Every entity, named like the real tables, with no database configured yet.
+     */
+    static Configuration entities() {
+        // No second-level cache: it would pick up the JVM-wide JCache manager and close it with the
+        // factory, under the application contexts other tests keep open
+        Configuration configuration = new Configuration()
+                .setProperty("hibernate.physical_naming_strategy", PhysicalNamingStrategySnakeCaseImpl.class.getName())
+                .setProperty("hibernate.cache.use_second_level_cache", "false");
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents(Hostel.class.getPackageName())) {
+            try {
+                configuration.addAnnotatedClass(Class.forName(entity.getBeanClassName()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return configuration;
+    }
+
+    static <R> R repository(EntityManager em, Class<R> type) {
+        return new JpaRepositoryFactory(em).getRepository(type);
+    }
+
+    /**
+     * One hostel whose students each have a user, a bed and an unpaid fee for October 2026.
+     */
+    static Long seedHostel(SessionFactory sessionFactory, String name, int students) {
+        return sessionFactory.fromTransaction(session -> {
+            Hostel hostel = new Hostel(null, name, true);
+            session.persist(hostel);
+
+            Room room = null;
+            for (int i = 0; i < students; i++) {
+                if (i % BEDS_PER_ROOM == 0) {
+                    room = new Room(null, "B" + (i / 100), String.valueOf(i / BEDS_PER_ROOM), BEDS_PER_ROOM, hostel);
+                    session.persist(room);
+                }
+
+                User user = new User();
+                user.setName("Student " + i);
+                user.setEmail(name.toLowerCase().replace(' ', '.') + i + "@example.com");
+                user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+                user.setRole(Role.STUDENT);
+                user.setActive(true);
+                user.setHostel(hostel);
+                session.persist(user);
+
+                Student student = new Student(null, user, hostel, "R-" + i, "0300" + i, "Guardian " + i, "0311" + i);
+                session.persist(student);
+
+                session.persist(new Allocation(null, student, room, i % BEDS_PER_ROOM + 1, true, null));
+
+                Fee fee = new Fee();
+                fee.setStudent(student);
+                fee.setHostel(hostel);
+                fee.setMonth("2026-10");
+                fee.setAmount(12_500);
+                fee.setDueDate(LocalDate.of(2026, 10, 10));
+                fee.setStatus(FeeStatus.UNPAID);
+                session.persist(fee);
+
+                if (i % 100 == 99) {
+                    session.flush();
+                    session.clear();
+                    hostel = session.getReference(Hostel.class, hostel.getId());
+                    room = session.getReference(Room.class, room.getId());
+                }
+            }
+            return hostel.getId();
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.entities.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ActuatorAccessTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void jobsAndMetricsAreForAdminsOnly() throws Exception {
+        for (String path : new String[]{"/actuator/jobs", "/actuator/metrics"}) {
+            mvc.perform(get(path)).andExpect(status().isUnauthorized());
+            mvc.perform(get(path).with(as(Role.STUDENT))).andExpect(status().isForbidden());
+            mvc.perform(get(path).with(as(Role.STAFF))).andExpect(status().isForbidden());
+            mvc.perform(get(path).with(as(Role.ADMIN))).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void healthStaysOpen() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    private static RequestPostProcessor as(Role role) {
+        return user(new UserPrincipal(1L, 1L, role.name().toLowerCase() + "@example.com", null, role, true));
+    }
+}
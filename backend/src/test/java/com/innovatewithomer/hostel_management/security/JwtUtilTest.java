@@ -0,0 +1,114 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.entities.Role;
+import com.innovatewithomer.hostel_management.entities.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final int TOKENS = 2_000;
+
+    private final JwtUtil jwtUtil = new JwtUtil(Duration.ofMinutes(15));
+
+    @Test
+    void returnsAllClaimsFromOneVerification() {
+        String token = jwtUtil.generateToken(user(7L));
+
+        var claims = jwtUtil.verify(token).orElseThrow();
+
+        assertThat(claims.getSubject()).isEqualTo("user7@hostel.pk");
+        assertThat(claims.get(JwtUtil.USER_ID, Long.class)).isEqualTo(7L);
+        assertThat(claims.get(JwtUtil.ROLE, String.class)).isEqualTo("STUDENT");
+        assertThat(jwtUtil.verify(token)).containsSame(claims);
+    }
+
+    @Test
+    void rejectsTamperedAndForeignTokens() {
+        String token = jwtUtil.generateToken(user(7L));
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + jwtUtil.generateToken(user(8L)).split("\\.")[1] + "." + parts[2];
+
+        SecretKey otherKey = Keys.hmacShaKeyFor("another-secret-another-secret-32".getBytes(StandardCharsets.UTF_8));
+        String foreign = Jwts.builder().subject("user7@hostel.pk")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(otherKey).compact();
+
+        assertThat(jwtUtil.verify(tampered)).isEmpty();
+        assertThat(jwtUtil.verify(foreign)).isEmpty();
+        assertThat(jwtUtil.verify("not-a-token")).isEmpty();
+    }
+
+    @Test
+    void expiredTokensAreNotAnsweredFromTheCache() throws InterruptedException {
+        JwtUtil shortLived = new JwtUtil(Duration.ofSeconds(1));
+        String token = shortLived.generateToken(user(7L));
+        assertThat(shortLived.verify(token)).isPresent();
+
+        Thread.sleep(1_500);
+
+        assertThat(shortLived.verify(token)).isEmpty();
+    }
+
+    // The filter's token check, in checks per second, written to target/benchmarks/token-checks.md
+    @Test
+    void oneVerificationAndTheCacheBeatParsingTwicePerCall() throws Exception {
+        SecretKey key = Keys.hmacShaKeyFor("h7f9s8d7f9s8d7f9s8d7f9s8d7f9s8d7".getBytes(StandardCharsets.UTF_8));
+        List<String> tokens = new ArrayList<>();
+        for (long id = 0; id < TOKENS; id++) {
+            tokens.add(jwtUtil.generateToken(user(id)));
+        }
+        String repeated = tokens.get(0);
+
+        // Before: a new parser per call, and the token verified twice (isTokenValid, then extractEmail)
+        double twice = perSecond(() -> {
+            for (String token : tokens) {
+                Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+                Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+            }
+        });
+        // First sight of every token: one verification with the shared parser
+        double once = perSecond(() -> {
+            JwtUtil fresh = new JwtUtil(Duration.ofMinutes(15));
+            tokens.forEach(fresh::verify);
+        });
+        // The same client sending its token again
+        double cached = perSecond(() -> {
+            for (int i = 0; i < TOKENS; i++) {
+                jwtUtil.verify(repeated);
+            }
+        });
+
+        new BenchmarkReport("token-checks", "Access token checks",
+                "Path", "Checks/s", "Speed-up")
+                .row("New parser, verified twice", twice, 1.0)
+                .row("Shared parser, verified once", once, once / twice)
+                .row("Verified-token cache hit", cached, cached / twice)
+                .write();
+
+        assertThat(once).isGreaterThan(twice);
+        assertThat(cached).isGreaterThan(2 * once);
+    }
+
+    private static double perSecond(Runnable checks) {
+        return TOKENS / (BenchmarkReport.medianNanos(2, 5, checks) / 1e9);
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@hostel.pk");
+        user.setRole(Role.STUDENT);
+        return user;
+    }
+}
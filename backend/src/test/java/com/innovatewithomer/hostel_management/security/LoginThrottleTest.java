@@ -0,0 +1,76 @@
+package com.innovatewithomer.hostel_management.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginThrottleTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void limitsAttemptsPerEmailAndRefillsOverTime() {
+        LoginThrottle throttle = new LoginThrottle(registry, 100, 100, 3, 6, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.check("Ali@Example.com", "10.0.0." + i);
+        }
+        assertThatThrownBy(() -> throttle.check("ali@example.com ", "10.0.0.9"))
+                .isInstanceOfSatisfying(TooManyRequestsException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(10));
+        throttle.check("someone@example.com", "10.0.0.9");
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        throttle.check("ali@example.com", "10.0.0.9");
+
+        assertThat(registry.get("auth.login.rejected").tag("reason", "email").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void limitsAttemptsPerIpAcrossEmails() {
+        LoginThrottle throttle = new LoginThrottle(registry, 2, 60, 100, 100, now::get);
+
+        throttle.check("a@example.com", "10.0.0.1");
+        throttle.check("b@example.com", "10.0.0.1");
+        assertThatThrownBy(() -> throttle.check("c@example.com", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+        throttle.check("c@example.com", "10.0.0.2");
+
+        assertThat(registry.get("auth.login.rejected").tag("reason", "ip").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shedsPasswordChecksOnceThePoolIsFull() throws Exception {
+        PasswordCheckExecutor executor = new PasswordCheckExecutor(registry, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = executor.submit(() -> await(release));
+        CompletableFuture<Boolean> queued = executor.submit(() -> true);
+        assertThatThrownBy(() -> executor.submit(() -> true))
+                .isInstanceOf(TooManyRequestsException.class);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(registry.get("auth.login.rejected").tag("reason", "saturated").counter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.password.check").timer().count()).isEqualTo(2);
+        executor.shutdown();
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.services.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resolves the principal of many concurrent requests, spread over a few hundred users, three
+ * ways: a users lookup per request as the filter used to, the principal cache, and signed claims.
+ * Each path is warmed up on every user first. Latency per request and JDBC statements per
+ * second for each go to {@code target/benchmarks/principal-resolution.md}.
+ */
+class PrincipalCacheLoadTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+    private static final int USERS = 200;
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 20_000;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Claims> tokens = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        truncate("students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, USERS);
+        for (long id = 1; id <= USERS; id++) {
+            tokens.add(Jwts.claims()
+                    .subject("student" + id + "@example.com")
+                    .add(Map.of(
+                            JwtUtil.USER_ID, id,
+                            JwtUtil.TOKEN_VERSION, 0,
+                            JwtUtil.HOSTEL_ID, HOSTEL,
+                            JwtUtil.ROLE, "STUDENT",
+                            JwtUtil.ACTIVE, true))
+                    .build());
+        }
+    }
+
+    @Test
+    void cachedPrincipalsCutStatementsAndLatency() throws Exception {
+        Load lookup = load(claims -> userDetailsService.loadUserByUsername(claims.getSubject()));
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CACHE, Duration.ofMinutes(1), 10_000);
+        Load cached = load(cache::resolve);
+        PrincipalCache signed = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CLAIMS, Duration.ofMinutes(1), 10_000);
+        Load claims = load(signed::resolve);
+
+        BenchmarkReport report = new BenchmarkReport("principal-resolution",
+                "Principal per request, " + REQUESTS + " requests from " + THREADS + " threads over " + USERS + " users",
+                "Path", "Requests/s", "p50 (µs)", "p99 (µs)", "JDBC statements", "Statements/s");
+        lookup.addTo(report, "Users lookup per request");
+        cached.addTo(report, "Principal cache");
+        claims.addTo(report, "Signed claims");
+        report.write();
+
+        assertThat(lookup.statements()).isGreaterThanOrEqualTo(REQUESTS);
+        // Every user was loaded during the warm-up; the counts are for the whole application,
+        // so leave room for a scheduled job that happens to run meanwhile
+        assertThat(cached.statements()).isLessThan(USERS);
+        assertThat(claims.statements()).isLessThan(USERS);
+        assertThat(cached.p50Nanos()).isLessThan(lookup.p50Nanos());
+        assertThat(cached.perSecond()).isGreaterThan(lookup.perSecond());
+    }
+
+    private record Load(double perSecond, long p50Nanos, long p99Nanos, long statements, double statementsPerSecond) {
+
+        void addTo(BenchmarkReport report, String path) {
+            report.row(path, perSecond, p50Nanos / 1e3, p99Nanos / 1e3, statements, statementsPerSecond);
+        }
+    }
+
+    private Load load(Function<Claims, ?> resolve) throws Exception {
+        // Warm up the path before counting
+        for (Claims claims : tokens) {
+            resolve.apply(claims);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> workers = new ArrayList<>();
+        long began = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            workers.add(pool.submit(() -> {
+                for (int i = first; i < REQUESTS; i += THREADS) {
+                    long start = System.nanoTime();
+                    assertThat(resolve.apply(tokens.get(i % USERS))).isNotNull();
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+
+        long statements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        Arrays.sort(latencies);
+        return new Load(REQUESTS / seconds, latencies[REQUESTS / 2], latencies[REQUESTS * 99 / 100],
+                statements, statements / seconds);
+    }
+}
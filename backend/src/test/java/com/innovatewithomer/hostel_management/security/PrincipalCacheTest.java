@@ -0,0 +1,125 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.innovatewithomer.hostel_management.config.UserPrincipal;
+import com.innovatewithomer.hostel_management.entities.Hostel;
+import com.innovatewithomer.hostel_management.entities.Role;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.innovatewithomer.hostel_management.repositories.UserRepository;
+import com.innovatewithomer.hostel_management.services.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalCacheTest {
+
+    private static final int REQUESTS = 10_000;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService userDetailsService = new CustomUserDetailsService(userRepository);
+    private final User user = user();
+
+    @Test
+    void loadsEachUserOncePerTokenVersion() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CACHE, Duration.ofMinutes(1), 1_000);
+        Claims claims = claims(user);
+
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(cache.resolve(claims).getUserId()).isEqualTo(user.getId());
+        }
+
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void bumpedVersionRejectsOlderTokens() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CACHE, Duration.ofMinutes(1), 1_000);
+        Claims issued = claims(user);
+        assertThat(cache.resolve(issued)).isNotNull();
+
+        user.setActive(false);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        cache.evict(user.getId());
+
+        assertThat(cache.resolve(issued)).isNull();
+        UserPrincipal reissued = cache.resolve(claims(user));
+        assertThat(reissued.isEnabled()).isFalse();
+    }
+
+    @Test
+    void claimsModeNeverTouchesTheDatabase() {
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CLAIMS, Duration.ofMinutes(1), 1_000);
+
+        UserPrincipal principal = cache.resolve(claims(user));
+
+        assertThat(principal.getHostelId()).isEqualTo(9L);
+        assertThat(principal.getRole()).isEqualTo(Role.ADMIN);
+        assertThat(principal.getUsername()).isEqualTo("warden@hostel.pk");
+        verify(userRepository, never()).findById(user.getId());
+    }
+
+    @Test
+    void claimsModeHonoursTheSignedActiveFlag() {
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CLAIMS, Duration.ofMinutes(1), 1_000);
+        user.setActive(false);
+
+        assertThat(cache.resolve(claims(user)).isEnabled()).isFalse();
+        verify(userRepository, never()).findById(user.getId());
+    }
+
+    @Test
+    void claimsModeChecksTokensWithoutTheActiveFlagAgainstTheDatabase() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CLAIMS, Duration.ofMinutes(1), 1_000);
+        Claims legacy = Jwts.claims().add(claims(user)).delete(JwtUtil.ACTIVE).build();
+
+        assertThat(cache.resolve(legacy).isEnabled()).isTrue();
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    @Test
+    void tokensWithoutAUserIdForAMissingUserResolveToNothing() {
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.empty());
+        PrincipalCache cache = new PrincipalCache(userDetailsService, PrincipalCache.Mode.CACHE, Duration.ofMinutes(1), 1_000);
+        Claims legacy = Jwts.claims().subject(user.getEmail()).build();
+
+        assertThat(cache.resolve(legacy)).isNull();
+    }
+
+    private static Claims claims(User user) {
+        return Jwts.claims()
+                .subject(user.getEmail())
+                .add(Map.of(
+                        JwtUtil.USER_ID, user.getId().intValue(),
+                        JwtUtil.TOKEN_VERSION, user.getTokenVersion(),
+                        JwtUtil.HOSTEL_ID, user.getHostel().getId().intValue(),
+                        JwtUtil.ROLE, user.getRole().name(),
+                        JwtUtil.ACTIVE, user.isActive()))
+                .build();
+    }
+
+    private static User user() {
+        Hostel hostel = new Hostel();
+        hostel.setId(9L);
+        User user = new User();
+        user.setId(42L);
+        user.setEmail("warden@hostel.pk");
+        user.setPassword("x");
+        user.setRole(Role.ADMIN);
+        user.setActive(true);
+        user.setHostel(hostel);
+        return user;
+    }
+}
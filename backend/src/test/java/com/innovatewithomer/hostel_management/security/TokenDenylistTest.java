@@ -0,0 +1,92 @@
+package com.innovatewithomer.hostel_management.security;
+
+import com.innovatewithomer.hostel_management.entities.RevokedToken;
+import com.innovatewithomer.hostel_management.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenDenylistTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenDenylist denylist = new TokenDenylist(repository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void neverMissesARevokedTokenAndRarelyChecksTheExactSet() {
+        LocalDateTime later = LocalDateTime.now().plusMinutes(15);
+        List<RevokedToken> stored = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            stored.add(new RevokedToken(UUID.randomUUID().toString(), later, LocalDateTime.now()));
+        }
+        when(repository.findByExpiresAtAfter(any())).thenReturn(stored);
+        denylist.load();
+
+        String revokedNow = UUID.randomUUID().toString();
+        denylist.revoke(revokedNow, later);
+
+        assertThat(stored).allMatch(token -> denylist.isRevoked(token.getJti()));
+        assertThat(denylist.isRevoked(revokedNow)).isTrue();
+
+        BloomFilter filter = new BloomFilter(stored.size());
+        stored.forEach(token -> filter.add(token.getJti()));
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            assertThat(denylist.isRevoked(jti)).isFalse();
+            if (filter.mightContain(jti)) falsePositives++;
+        }
+        assertThat(falsePositives).isLessThan(3_000);
+    }
+
+    @Test
+    void loadsTheTableOnceTheBeansAreCreatedBeforeAnyRequestIsServed() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("revoked-before-restart", LocalDateTime.now().plusMinutes(10), LocalDateTime.now())));
+
+        denylist.afterSingletonsInstantiated();
+
+        assertThat(denylist.isRevoked("revoked-before-restart")).isTrue();
+    }
+
+    @Test
+    void forgetsTokensOnceTheyExpire() {
+        LocalDateTime soon = LocalDateTime.now().plusNanos(50_000_000);
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any())).thenReturn(List.of());
+        denylist.load();
+
+        denylist.revoke("short-lived", soon);
+        assertThat(denylist.isRevoked("short-lived")).isTrue();
+
+        await(soon.plusNanos(20_000_000));
+        denylist.sync();
+        assertThat(denylist.isRevoked("short-lived")).isFalse();
+    }
+
+    @Test
+    void picksUpRevocationsFromOtherNodes() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        denylist.load();
+        when(repository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(any(), any())).thenReturn(List.of(
+                new RevokedToken("from-node-b", LocalDateTime.now().plusMinutes(10), LocalDateTime.now())));
+
+        assertThat(denylist.isRevoked("from-node-b")).isFalse();
+        denylist.sync();
+        assertThat(denylist.isRevoked("from-node-b")).isTrue();
+    }
+
+    private static void await(LocalDateTime time) {
+        while (LocalDateTime.now().isBefore(time)) {
+            Thread.onSpinWait();
+        }
+    }
+}
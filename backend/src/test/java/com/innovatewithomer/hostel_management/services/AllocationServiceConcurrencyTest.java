@@ -0,0 +1,229 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.entities.Allocation;
+import com.innovatewithomer.hostel_management.entities.Hostel;
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
+import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import com.innovatewithomer.hostel_management.repositories.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fires a few hundred parallel auto-allocations at a single room from two service
+ * instances that share one "database", the way two app nodes would during intake week.
+ * Throughput and the share of requests that hit a bed conflict go to
+ * {@code target/benchmarks/allocation-concurrency.md}.
+ */
+class AllocationServiceConcurrencyTest {
+
+    private static final long HOSTEL_ID = 1L;
+    private static final long ROOM_ID = 7L;
+    private static final int CAPACITY = 120;
+    private static final int REQUESTS = 400;
+
+    private final AllocationTable table = new AllocationTable();
+
+    @Test
+    void parallelAllocationsNeverShareABed() throws Exception {
+        Room room = room();
+        List<AllocationService> nodes = List.of(node(room), node(room));
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            long studentId = 1000 + (i % (REQUESTS * 3 / 4));
+            AllocationService node = nodes.get(i % nodes.size());
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    node.allocate(studentId, ROOM_ID, null, HOSTEL_ID);
+                    return "ok";
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<String> result : results) {
+            String outcome = result.get(30, TimeUnit.SECONDS);
+            if (outcome.equals("ok")) {
+                succeeded++;
+            } else {
+                // a request that keeps losing its bed to the other node gives up after a few tries
+                assertThat(outcome).isIn("Room is full", "Student already has an active allocation", "Bed already occupied");
+            }
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        pool.shutdown();
+
+        new BenchmarkReport("allocation-concurrency", "Parallel allocations, in-memory table",
+                "Requests", "Nodes", "Time (ms)", "Allocations/s", "Bed conflicts", "Conflict rate (%)")
+                .row(REQUESTS, nodes.size(), elapsedNanos / 1e6, REQUESTS / (elapsedNanos / 1e9),
+                        table.bedConflicts.get(), 100.0 * table.bedConflicts.get() / REQUESTS)
+                .write();
+
+        List<Allocation> active = table.active();
+        assertThat(succeeded).isEqualTo(CAPACITY);
+        assertThat(active).hasSize(CAPACITY);
+        assertThat(active.stream().map(Allocation::getBedNumber).distinct().count()).isEqualTo(CAPACITY);
+        assertThat(active.stream().map(a -> a.getStudent().getId()).distinct().count()).isEqualTo(CAPACITY);
+        // the two nodes race on stale indexes now and then, but retries keep that a small share of requests
+        assertThat(table.bedConflicts.get()).isLessThan(REQUESTS / 4);
+    }
+
+    @Test
+    void givesUpWhenTheIndexAndTheTableKeepDisagreeing() {
+        Room room = room();
+        AllocationRepository allocationRepository = mock(AllocationRepository.class);
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+
+        when(roomRepository.findAll()).thenReturn(List.of(room));
+        when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
+        when(roomRepository.findByIdForUpdate(ROOM_ID)).thenReturn(Optional.of(room));
+        when(studentRepository.findById(anyLong())).thenReturn(Optional.of(new Student()));
+        // The table rejects every bed, yet the resync still reports them all free
+        when(allocationRepository.findActiveBedNumbers(ROOM_ID)).thenReturn(List.of());
+        when(allocationRepository.saveAndFlush(any(Allocation.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"" + AllocationService.ACTIVE_BED_CONSTRAINT + "\""));
+
+        BedOccupancyIndex index = new BedOccupancyIndex(roomRepository, allocationRepository);
+        index.rebuild();
+        AllocationService service = new AllocationService(allocationRepository, roomRepository, studentRepository,
+                index, new NoOpTransactionManager());
+
+        assertThatThrownBy(() -> service.allocate(1000L, ROOM_ID, null, HOSTEL_ID))
+                .hasMessage("Bed already occupied");
+        verify(allocationRepository, times(3)).saveAndFlush(any(Allocation.class));
+    }
+
+    private static Room room() {
+        Room room = new Room();
+        room.setId(ROOM_ID);
+        room.setCapacity(CAPACITY);
+        room.setBlock("A");
+        room.setRoomNumber("1");
+        Hostel hostel = new Hostel();
+        hostel.setId(HOSTEL_ID);
+        room.setHostel(hostel);
+        return room;
+    }
+
+    private AllocationService node(Room room) {
+        AllocationRepository allocationRepository = mock(AllocationRepository.class);
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        StudentRepository studentRepository = mock(StudentRepository.class);
+
+        when(roomRepository.findAll()).thenReturn(List.of(room));
+        when(roomRepository.findById(ROOM_ID)).thenReturn(Optional.of(room));
+        when(roomRepository.findByIdForUpdate(ROOM_ID)).thenReturn(Optional.of(room));
+        when(studentRepository.findById(anyLong())).thenAnswer(inv -> {
+            Student student = new Student();
+            student.setId(inv.getArgument(0));
+            return Optional.of(student);
+        });
+
+        when(allocationRepository.findActiveBeds()).thenAnswer(inv -> table.active().stream()
+                .map(a -> new Object[]{a.getRoom().getId(), a.getBedNumber()})
+                .toList());
+        when(allocationRepository.findActiveBedNumbers(ROOM_ID)).thenAnswer(inv -> table.active().stream()
+                .map(Allocation::getBedNumber)
+                .toList());
+        when(allocationRepository.findByStudentIdAndStudent_hostel_IdAndActiveTrue(anyLong(), anyLong()))
+                .thenAnswer(inv -> table.active().stream()
+                        .filter(a -> a.getStudent().getId().equals(inv.getArgument(0)))
+                        .findFirst());
+        when(allocationRepository.saveAndFlush(any(Allocation.class)))
+                .thenAnswer(inv -> table.insert(inv.getArgument(0)));
+
+        BedOccupancyIndex index = new BedOccupancyIndex(roomRepository, allocationRepository);
+        index.rebuild();
+
+        return new AllocationService(allocationRepository, roomRepository, studentRepository, index, new NoOpTransactionManager());
+    }
+
+    /**
+     * Stands in for the allocations table and its two partial unique indexes.
+     */
+    private static class AllocationTable {
+        private final Set<Allocation> rows = ConcurrentHashMap.newKeySet();
+        private final AtomicLong ids = new AtomicLong();
+        private final AtomicInteger bedConflicts = new AtomicInteger();
+
+        synchronized Allocation insert(Allocation allocation) {
+            for (Allocation row : active()) {
+                if (row.getRoom().getId().equals(allocation.getRoom().getId())
+                        && row.getBedNumber() == allocation.getBedNumber()) {
+                    bedConflicts.incrementAndGet();
+                    throw new DataIntegrityViolationException(
+                            "duplicate key value violates unique constraint \"" + AllocationService.ACTIVE_BED_CONSTRAINT + "\"");
+                }
+                if (row.getStudent().getId().equals(allocation.getStudent().getId())) {
+                    throw new DataIntegrityViolationException(
+                            "duplicate key value violates unique constraint \"" + AllocationService.ACTIVE_STUDENT_CONSTRAINT + "\"");
+                }
+            }
+            allocation.setId(ids.incrementAndGet());
+            rows.add(allocation);
+            return allocation;
+        }
+
+        List<Allocation> active() {
+            return rows.stream().filter(Allocation::isActive).toList();
+        }
+    }
+
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
+import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import com.innovatewithomer.hostel_management.repositories.StudentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The concurrency test against the real thing: two service instances, each with its own bed
+ * index and room locks like two app nodes, allocating into the same rooms through the room row
+ * locks and the partial unique indexes of the allocations table. Throughput and the share of
+ * requests that hit a bed conflict go to {@code target/benchmarks/allocation-concurrency-postgres.md}.
+ */
+class AllocationServicePostgresTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+    private static final long FIRST_ROOM = 1;
+    private static final int ROOMS = 4;
+    private static final int CAPACITY = 30;
+    private static final int STUDENTS = 160;
+    private static final int REQUESTS = 240;
+
+    @Autowired
+    private AllocationRepository allocationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicInteger bedConflicts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        truncate("allocations", "rooms", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, STUDENTS);
+        jdbc.update("""
+                INSERT INTO rooms (id, hostel_id, block, room_number, capacity)
+                SELECT g, ?, 'A', g::text, ? FROM generate_series(?::bigint, ?::bigint) g
+                """, HOSTEL, CAPACITY, FIRST_ROOM, FIRST_ROOM + ROOMS - 1);
+    }
+
+    @Test
+    void parallelAllocationsFromTwoNodesNeverShareABed() throws Exception {
+        List<AllocationService> nodes = List.of(node(), node());
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < REQUESTS; i++) {
+            long studentId = 1 + (i % STUDENTS);
+            long roomId = FIRST_ROOM + (i % ROOMS);
+            AllocationService node = nodes.get((i / ROOMS) % nodes.size());
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    node.allocate(studentId, roomId, null, HOSTEL);
+                    return "ok";
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+
+        int succeeded = 0;
+        for (Future<String> result : results) {
+            String outcome = result.get(60, TimeUnit.SECONDS);
+            if (outcome.equals("ok")) {
+                succeeded++;
+            } else {
+                // a request that keeps losing its bed to the other node gives up after a few tries
+                assertThat(outcome).isIn("Room is full", "Student already has an active allocation", "Bed already occupied");
+            }
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        pool.shutdown();
+
+        new BenchmarkReport("allocation-concurrency-postgres", "Parallel allocations, PostgreSQL",
+                "Requests", "Nodes", "Rooms", "Time (ms)", "Allocations/s", "Bed conflicts", "Conflict rate (%)")
+                .row(REQUESTS, nodes.size(), ROOMS, elapsedNanos / 1e6, REQUESTS / (elapsedNanos / 1e9),
+                        bedConflicts.get(), 100.0 * bedConflicts.get() / REQUESTS)
+                .write();
+
+        assertThat(succeeded).isEqualTo(ROOMS * CAPACITY);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM allocations WHERE active", Integer.class))
+                .isEqualTo(ROOMS * CAPACITY);
+        assertThat(jdbc.queryForObject("""
+                SELECT count(*) FROM (SELECT room_id, bed_number FROM allocations WHERE active
+                                      GROUP BY room_id, bed_number HAVING count(*) > 1) shared
+                """, Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("""
+                SELECT count(*) FROM allocations a JOIN rooms r ON r.id = a.room_id
+                WHERE a.active AND (a.bed_number < 1 OR a.bed_number > r.capacity)
+                """, Integer.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(DISTINCT student_id) FROM allocations WHERE active", Integer.class))
+                .isEqualTo(ROOMS * CAPACITY);
+        // Each node only learns of the other's beds through a conflict, so some are expected
+        assertThat(bedConflicts.get()).isPositive();
+    }
+
+    private AllocationService node() {
+        // A bed conflict is the only thing that makes placeWithRetry resync a room
+        BedOccupancyIndex index = new BedOccupancyIndex(roomRepository, allocationRepository) {
+            @Override
+            public synchronized void resync(Long roomId, List<Integer> occupiedBeds) {
+                bedConflicts.incrementAndGet();
+                super.resync(roomId, occupiedBeds);
+            }
+        };
+        index.rebuild();
+        return new AllocationService(allocationRepository, roomRepository, studentRepository, index, transactionManager);
+    }
+}
@@ -0,0 +1,101 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.dto.LoginResponse;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.innovatewithomer.hostel_management.repositories.UserRepository;
+import com.innovatewithomer.hostel_management.security.JwtUtil;
+import com.innovatewithomer.hostel_management.security.TokenDenylist;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthTokenServiceTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        truncate("refresh_tokens", "revoked_tokens", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, 1);
+        user = userRepository.findById(1L).orElseThrow();
+    }
+
+    @Test
+    void refreshReplacesTheRefreshToken() {
+        LoginResponse login = authTokenService.issue(user);
+
+        LoginResponse refreshed = authTokenService.refresh(login.getRefreshToken());
+
+        assertThat(refreshed.getRefreshToken()).isNotEqualTo(login.getRefreshToken());
+        assertThat(refreshed.getToken()).isNotEqualTo(login.getToken());
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM refresh_tokens WHERE revoked_at IS NULL", Long.class))
+                .isEqualTo(1);
+        assertThat(authTokenService.refresh(refreshed.getRefreshToken()).getToken()).isNotBlank();
+    }
+
+    @Test
+    void reusingAReplacedRefreshTokenEndsEverySession() {
+        LoginResponse login = authTokenService.issue(user);
+        LoginResponse refreshed = authTokenService.refresh(login.getRefreshToken());
+        LoginResponse otherDevice = authTokenService.issue(user);
+
+        assertThatThrownBy(() -> authTokenService.refresh(login.getRefreshToken()))
+                .hasMessage("Invalid refresh token");
+
+        assertThatThrownBy(() -> authTokenService.refresh(refreshed.getRefreshToken()))
+                .hasMessage("Invalid refresh token");
+        assertThatThrownBy(() -> authTokenService.refresh(otherDevice.getRefreshToken()))
+                .hasMessage("Invalid refresh token");
+        // Including the access token handed out with the refresh token that was replaced
+        assertThat(revoked(login)).isTrue();
+        assertThat(revoked(refreshed)).isTrue();
+        assertThat(revoked(otherDevice)).isTrue();
+    }
+
+    @Test
+    void revokeAllAlsoDeniesAccessTokensOfReplacedRefreshTokens() {
+        LoginResponse login = authTokenService.issue(user);
+        LoginResponse refreshed = authTokenService.refresh(login.getRefreshToken());
+        assertThat(revoked(login)).isFalse();
+
+        authTokenService.revokeAll(user.getId());
+
+        assertThat(revoked(login)).isTrue();
+        assertThat(revoked(refreshed)).isTrue();
+    }
+
+    @Test
+    void logoutEndsOnlyThatSession() {
+        LoginResponse phone = authTokenService.issue(user);
+        LoginResponse laptop = authTokenService.issue(user);
+
+        authTokenService.logout(jwtUtil.verify(phone.getToken()).orElseThrow(), phone.getRefreshToken());
+
+        assertThat(revoked(phone)).isTrue();
+        assertThat(revoked(laptop)).isFalse();
+        assertThat(authTokenService.refresh(laptop.getRefreshToken()).getToken()).isNotBlank();
+        // Like a replaced one, a logged-out refresh token presented again ends every session
+        assertThatThrownBy(() -> authTokenService.refresh(phone.getRefreshToken()))
+                .hasMessage("Invalid refresh token");
+    }
+
+    private boolean revoked(LoginResponse login) {
+        return tokenDenylist.isRevoked(jwtUtil.verify(login.getToken()).orElseThrow().getId());
+    }
+}
@@ -0,0 +1,148 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.Hostel;
+import com.innovatewithomer.hostel_management.entities.Room;
+import com.innovatewithomer.hostel_management.repositories.AllocationRepository;
+import com.innovatewithomer.hostel_management.repositories.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BedOccupancyIndexTest {
+
+    private RoomRepository roomRepository;
+    private AllocationRepository allocationRepository;
+    private BedOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        roomRepository = mock(RoomRepository.class);
+        allocationRepository = mock(AllocationRepository.class);
+
+        when(roomRepository.findAll()).thenReturn(List.of(
+                room(1L, 10L, "A", "101", 3),
+                room(2L, 10L, "A", "102", 2),
+                room(3L, 10L, "B", "201", 4),
+                room(4L, 20L, "A", "101", 2)
+        ));
+        when(allocationRepository.findActiveBeds()).thenReturn(List.of(
+                new Object[]{1L, 1},
+                new Object[]{1L, 2},
+                new Object[]{2L, 1},
+                new Object[]{2L, 2}
+        ));
+
+        index = new BedOccupancyIndex(roomRepository, allocationRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void firstFreeBedSkipsOccupiedBeds() {
+        assertThat(index.firstFreeBed(1L)).hasValue(3);
+        assertThat(index.firstFreeBed(2L)).isEmpty();
+        assertThat(index.firstFreeBed(3L)).hasValue(1);
+    }
+
+    @Test
+    void occupyAndReleaseUpdateTheRoom() {
+        index.occupy(1L, 3);
+        assertThat(index.firstFreeBed(1L)).isEmpty();
+
+        index.release(1L, 2);
+        assertThat(index.firstFreeBed(1L)).hasValue(2);
+        assertThat(index.snapshot(1L).orElseThrow().occupiedBeds()).isEqualTo(2);
+    }
+
+    @Test
+    void roomsWithFreeBedsFiltersByHostelBlockAndCount() {
+        assertThat(index.roomsWithFreeBeds(10L, "A", 1))
+                .extracting(BedOccupancyIndex.RoomSnapshot::roomId)
+                .containsExactly(1L);
+
+        assertThat(index.roomsWithFreeBeds(10L, null, 2))
+                .extracting(BedOccupancyIndex.RoomSnapshot::roomId)
+                .containsExactly(3L);
+    }
+
+    @Test
+    void capacityChangesAreReflected() {
+        index.putRoom(room(2L, 10L, "A", "102", 3));
+        assertThat(index.firstFreeBed(2L)).hasValue(3);
+
+        index.removeRoom(2L);
+        assertThat(index.snapshot(2L)).isEmpty();
+        assertThat(index.roomsWithFreeBeds(10L, "A", 0))
+                .extracting(BedOccupancyIndex.RoomSnapshot::roomId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void addedRoomWaitsForTheInsertToCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.putRoom(room(5L, 10L, "A", "103", 2));
+            assertThat(index.snapshot(5L)).isEmpty();
+
+            List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+            pending.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThat(index.snapshot(5L)).isEmpty();
+
+            pending.forEach(TransactionSynchronization::afterCommit);
+            assertThat(index.snapshot(5L)).isPresent();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void removedRoomStaysUntilTheDeleteCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.removeRoom(3L);
+            assertThat(index.snapshot(3L)).isPresent();
+
+            List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+            pending.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThat(index.snapshot(3L)).isPresent();
+
+            pending.forEach(TransactionSynchronization::afterCommit);
+            assertThat(index.snapshot(3L)).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void readersKeepTheOldIndexUntilARebuildHasFinished() {
+        when(allocationRepository.findActiveBeds()).thenAnswer(invocation -> {
+            assertThat(index.firstFreeBed(1L)).hasValue(3);
+            assertThat(index.snapshot(2L)).isPresent();
+            return List.<Object[]>of(new Object[]{1L, 3});
+        });
+
+        index.rebuild();
+
+        assertThat(index.firstFreeBed(1L)).hasValue(1);
+        assertThat(index.firstFreeBed(2L)).hasValue(1);
+    }
+
+    private static Room room(Long id, Long hostelId, String block, String roomNumber, int capacity) {
+        Hostel hostel = new Hostel();
+        hostel.setId(hostelId);
+
+        Room room = new Room();
+        room.setId(id);
+        room.setBlock(block);
+        room.setRoomNumber(roomNumber);
+        room.setCapacity(capacity);
+        room.setHostel(hostel);
+        return room;
+    }
+}
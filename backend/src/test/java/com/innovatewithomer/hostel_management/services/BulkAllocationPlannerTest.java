@@ -0,0 +1,107 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.dto.AllocationStrategy;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.services.BedOccupancyIndex.RoomSnapshot;
+import com.innovatewithomer.hostel_management.services.BulkAllocationPlanner.Placement;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkAllocationPlannerTest {
+
+    private final List<RoomSnapshot> rooms = List.of(
+            room(2L, "B", "201", 2),
+            room(1L, "A", "101", 3, 1),
+            room(3L, "A", "102", 2)
+    );
+
+    @Test
+    void fillBlockFillsRoomsInBlockOrder() {
+        Map<Long, Placement> plan = BulkAllocationPlanner.plan(students("s1", "s2", "s3", "s4"), rooms, AllocationStrategy.FILL_BLOCK);
+
+        assertThat(plan.get(1L).room().roomId()).isEqualTo(1L);
+        assertThat(plan.get(1L).bedNumber()).isEqualTo(2);
+        assertThat(plan.get(2L).bedNumber()).isEqualTo(3);
+        assertThat(plan.get(3L).room().roomId()).isEqualTo(3L);
+        assertThat(plan.get(4L).room().roomId()).isEqualTo(3L);
+    }
+
+    @Test
+    void fillBlockOrdersRoomNumbersNumerically() {
+        List<RoomSnapshot> mixed = List.of(
+                room(10L, "B10", "10", 1),
+                room(11L, "B2", "10", 1),
+                room(12L, "B2", "2", 1),
+                room(13L, "B2", "1A", 1),
+                room(14L, "B2", "01", 1)
+        );
+
+        Map<Long, Placement> plan = BulkAllocationPlanner.plan(students("s1", "s2", "s3", "s4", "s5"), mixed, AllocationStrategy.FILL_BLOCK);
+
+        assertThat(List.of(1L, 2L, 3L, 4L, 5L)).extracting(id -> plan.get(id).room().roomId())
+                .containsExactly(14L, 13L, 12L, 11L, 10L);
+    }
+
+    @Test
+    void spreadEvenlyUsesEveryRoomBeforeDoublingUp() {
+        Map<Long, Placement> plan = BulkAllocationPlanner.plan(students("s1", "s2", "s3"), rooms, AllocationStrategy.SPREAD_EVENLY);
+
+        assertThat(plan.values()).extracting(p -> p.room().roomId()).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void rollNumberKeepsRangesTogether() {
+        Map<Long, Placement> plan = BulkAllocationPlanner.plan(students("R-04", "R-01", "R-03", "R-02"), rooms, AllocationStrategy.ROLL_NUMBER);
+
+        // R-01 and R-02 take the two free beds of A-101
+        assertThat(plan.get(2L).room().roomId()).isEqualTo(1L);
+        assertThat(plan.get(4L).room().roomId()).isEqualTo(1L);
+        assertThat(plan.get(3L).room().roomId()).isEqualTo(3L);
+        assertThat(plan.get(1L).room().roomId()).isEqualTo(3L);
+    }
+
+    @Test
+    void rollNumberOrdersRollNumbersNumerically() {
+        Map<Long, Placement> plan = BulkAllocationPlanner.plan(students("10", "2", "R-10", "R-2"), rooms, AllocationStrategy.ROLL_NUMBER);
+
+        // 2, 10, R-2, R-10: the first two take A-101, the rest A-102
+        assertThat(plan.get(2L).room().roomId()).isEqualTo(1L);
+        assertThat(plan.get(2L).bedNumber()).isEqualTo(2);
+        assertThat(plan.get(1L).bedNumber()).isEqualTo(3);
+        assertThat(plan.get(4L).room().roomId()).isEqualTo(3L);
+        assertThat(plan.get(4L).bedNumber()).isEqualTo(1);
+        assertThat(plan.get(3L).bedNumber()).isEqualTo(2);
+    }
+
+    @Test
+    void studentsBeyondCapacityAreLeftOut() {
+        Map<Long, Placement> plan = BulkAllocationPlanner.plan(students("a", "b", "c", "d", "e", "f", "g"), rooms, AllocationStrategy.FILL_BLOCK);
+
+        assertThat(plan).hasSize(6).doesNotContainKey(7L);
+    }
+
+    private static List<Student> students(String... rollNumbers) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < rollNumbers.length; i++) {
+            Student student = new Student();
+            student.setId(i + 1L);
+            student.setRollNo(rollNumbers[i]);
+            students.add(student);
+        }
+        return students;
+    }
+
+    private static RoomSnapshot room(Long id, String block, String roomNumber, int capacity, int... occupiedBeds) {
+        BitSet occupied = new BitSet();
+        for (int bed : occupiedBeds) {
+            occupied.set(bed);
+        }
+        return new RoomSnapshot(id, 1L, block, roomNumber, capacity, occupied);
+    }
+}
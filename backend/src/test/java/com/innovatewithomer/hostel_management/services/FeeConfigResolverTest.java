@@ -0,0 +1,80 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.repositories.FeeConfigRepository;
+import com.innovatewithomer.hostel_management.services.FeeConfigResolver.EffectiveConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FeeConfigResolverTest {
+
+    private final FeeConfigRepository repository = mock(FeeConfigRepository.class);
+    private final FeeConfigResolver resolver = new FeeConfigResolver(repository);
+
+    @Test
+    void resolvesTheConfigInForceOnEachDate() {
+        when(repository.findTimelineRows()).thenReturn(rows(
+                row(3, 1, 13_000, 10, LocalDate.of(2026, 7, 15)),
+                row(1, 1, 12_000, 5, LocalDate.of(2026, 1, 1)),
+                row(2, 1, 12_500, 5, LocalDate.of(2026, 3, 1)),
+                row(4, 1, 12_600, 5, LocalDate.of(2026, 3, 1)),
+                row(5, 2, 9_000, 1, LocalDate.of(2026, 5, 1))
+        ));
+
+        assertThat(resolver.resolve(1L, LocalDate.of(2025, 12, 31))).isEmpty();
+        assertThat(amount(1L, LocalDate.of(2026, 1, 1))).isEqualTo(12_000);
+        assertThat(amount(1L, LocalDate.of(2026, 2, 28))).isEqualTo(12_000);
+        assertThat(amount(1L, LocalDate.of(2026, 3, 1))).isEqualTo(12_600);
+        assertThat(amount(1L, LocalDate.of(2026, 7, 14))).isEqualTo(12_600);
+        assertThat(amount(1L, LocalDate.of(2030, 1, 1))).isEqualTo(13_000);
+        assertThat(amount(2L, LocalDate.of(2026, 6, 1))).isEqualTo(9_000);
+        assertThat(resolver.resolve(3L, LocalDate.of(2026, 6, 1))).isEmpty();
+
+        // A config set mid-month prices the month after
+        assertThat(resolver.resolve(1L, YearMonth.of(2026, 7)).map(EffectiveConfig::monthlyAmount)).contains(12_600.0);
+        assertThat(resolver.resolve(1L, YearMonth.of(2026, 8)).map(EffectiveConfig::monthlyAmount)).contains(13_000.0);
+        assertThat(resolver.resolve(1L, YearMonth.of(2026, 3)).map(EffectiveConfig::monthlyAmount)).contains(12_600.0);
+        assertThat(resolver.resolve(2L, YearMonth.of(2026, 4))).isEmpty();
+
+        verify(repository, times(1)).findTimelineRows();
+    }
+
+    @Test
+    void refreshReloadsOnlyTheChangedHostel() {
+        when(repository.findTimelineRows()).thenReturn(rows(
+                row(1, 1, 12_000, 5, LocalDate.of(2026, 1, 1)),
+                row(2, 2, 9_000, 5, LocalDate.of(2026, 1, 1))
+        ));
+        when(repository.findTimelineRows(1L)).thenReturn(rows(
+                row(1, 1, 12_000, 5, LocalDate.of(2026, 1, 1)),
+                row(3, 1, 14_000, 5, LocalDate.of(2026, 9, 1))
+        ));
+        resolver.reload();
+
+        resolver.refreshAfterCommit(1L);
+
+        assertThat(amount(1L, LocalDate.of(2026, 10, 1))).isEqualTo(14_000);
+        assertThat(amount(2L, LocalDate.of(2026, 10, 1))).isEqualTo(9_000);
+    }
+
+    private double amount(Long hostelId, LocalDate date) {
+        return resolver.resolve(hostelId, date).orElseThrow().monthlyAmount();
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static Object[] row(long id, long hostelId, double amount, int dueDay, LocalDate effectiveFrom) {
+        return new Object[]{id, hostelId, amount, dueDay, effectiveFrom};
+    }
+}
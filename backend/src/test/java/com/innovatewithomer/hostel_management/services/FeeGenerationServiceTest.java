@@ -0,0 +1,136 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.repositories.FeeGenerationStateRepository;
+import com.innovatewithomer.hostel_management.repositories.FeeRepository;
+import com.innovatewithomer.hostel_management.repositories.HostelRepository;
+import com.innovatewithomer.hostel_management.repositories.JobChunkRepository;
+import com.innovatewithomer.hostel_management.repositories.StudentRepository;
+import com.innovatewithomer.hostel_management.services.jobs.JobRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Monthly generation on PostgreSQL: one set-based insert per chunk of a hostel's students,
+ * idempotent through ON CONFLICT, and a no-op once the month is done.
+ */
+class FeeGenerationServiceTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+    private static final long UNCONFIGURED_HOSTEL = 2;
+    // Spans three 5,000-id chunks
+    private static final int STUDENTS = 12_000;
+    private static final String MONTH = YearMonth.now().toString();
+
+    @Autowired
+    private HostelRepository hostelRepository;
+    @Autowired
+    private StudentRepository studentRepository;
+    @Autowired
+    private FeeRepository feeRepository;
+    @Autowired
+    private FeeConfigResolver feeConfigResolver;
+    @Autowired
+    private FeeGenerationStateRepository feeGenerationStateRepository;
+    @Autowired
+    private JobChunkRepository jobChunkRepository;
+    @Autowired
+    private FeeRollupService feeRollupService;
+    @Autowired
+    private JobRunner jobRunner;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private HostelRepository hostels;
+    private FeeGenerationService service;
+
+    @BeforeEach
+    void setUp() {
+        truncate("fees", "fee_rollups", "fee_generation_state", "job_chunks", "job_runs", "fee_config",
+                "allocations", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertHostel(UNCONFIGURED_HOSTEL);
+        insertStudents(HOSTEL, 1, STUDENTS);
+        insertStudents(UNCONFIGURED_HOSTEL, 20_001, 5);
+        jdbc.update("""
+                INSERT INTO fee_config (id, hostel_id, monthly_amount, due_day, effective_from, active)
+                VALUES (1, ?, 12500, 28, DATE '2020-01-01', true)
+                """, HOSTEL);
+        feeConfigResolver.reload();
+
+        hostels = mock(HostelRepository.class, delegatesTo(hostelRepository));
+        service = newService(hostels);
+    }
+
+    @Test
+    void chargesEveryStudentOfAHostelWithAConfig() {
+        service.generateMonthlyFees();
+
+        assertThat(feesOf(HOSTEL)).isEqualTo(STUDENTS);
+        assertThat(feesOf(UNCONFIGURED_HOSTEL)).isZero();
+        assertThat(jdbc.queryForList("SELECT hostel_id FROM fee_generation_state WHERE last_generated_month = ?",
+                Long.class, MONTH)).containsExactly(HOSTEL);
+        assertThat(jdbc.queryForObject("SELECT sum(fee_count) FROM fee_rollups WHERE hostel_id = ? AND month = ?",
+                Long.class, HOSTEL, MONTH)).isEqualTo(STUDENTS);
+    }
+
+    @Test
+    void insertsAreIdempotent() {
+        service.generateMonthlyFees();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int again = tx.execute(status -> feeRepository.generateHostelFees(
+                HOSTEL, 1, STUDENTS, MONTH, 12_500, LocalDate.now(), "UNPAID"));
+        int student = tx.execute(status -> feeRepository.generateStudentFee(
+                1L, MONTH, 12_500, LocalDate.now(), "UNPAID"));
+
+        assertThat(again).isZero();
+        assertThat(student).isZero();
+        assertThat(feesOf(HOSTEL)).isEqualTo(STUDENTS);
+    }
+
+    @Test
+    void repeatTriggersReturnAtOnceEvenWithAnUnconfiguredHostel() {
+        service.generateMonthlyFees();
+        service.generateMonthlyFees();
+        service.generateMonthlyFees();
+
+        verify(hostels, times(1)).findAll();
+        assertThat(feesOf(HOSTEL)).isEqualTo(STUDENTS);
+    }
+
+    @Test
+    void theMonthStaysDoneAfterARestart() {
+        service.generateMonthlyFees();
+
+        // What another instance, or this one after a restart, starts out as
+        HostelRepository restarted = mock(HostelRepository.class, delegatesTo(hostelRepository));
+        newService(restarted).generateMonthlyFees();
+
+        verify(restarted, never()).findAll();
+        assertThat(feesOf(HOSTEL)).isEqualTo(STUDENTS);
+    }
+
+    private FeeGenerationService newService(HostelRepository hostels) {
+        return new FeeGenerationService(hostels, studentRepository, feeRepository, feeConfigResolver,
+                feeGenerationStateRepository, jobChunkRepository, feeRollupService, jobRunner, transactionManager);
+    }
+
+    private long feesOf(long hostelId) {
+        return jdbc.queryForObject("SELECT count(*) FROM fees WHERE hostel_id = ? AND month = ?",
+                Long.class, hostelId, MONTH);
+    }
+}
@@ -0,0 +1,233 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.BenchmarkReport;
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.lowagie.text.Document;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.Image;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfDictionary;
+import com.lowagie.text.pdf.PdfGState;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeeReceiptPdfServiceTest {
+
+    private static final int RECEIPTS = 25;
+
+    private final FeeReceiptPdfService service = new FeeReceiptPdfService();
+
+    @Test
+    void receiptCarriesTheFeeDetails() throws Exception {
+        byte[] pdf = service.generateFeeReceipt(fee(FeeStatus.PAID));
+
+        PdfReader reader = new PdfReader(pdf);
+        String text = new PdfTextExtractor(reader).getTextFromPage(1);
+        reader.close();
+
+        assertThat(text)
+                .contains("OFFICERS HOSTEL MANDRA")
+                .contains("Ali Raza")
+                .contains("BSCS-042")
+                .contains("2026-10")
+                .contains("12500.0")
+                .contains("PAID");
+    }
+
+    @Test
+    void longValuesAreShrunkOrWrappedInsteadOfCutOff() throws Exception {
+        String longName = "Muhammad Abdul Rehman Khan Niazi Chaudhry";
+        String longRoll = "BSCS-2026-EVENING-SECTION-B-000042";
+        String longestName = "Syed Muhammad Abdul Rehman Khan Niazi Chaudhry Siddiqui Qureshi Bukhari Gillani Hashmi";
+
+        Fee fee = fee(FeeStatus.PAID);
+        fee.getStudent().getUser().setName(longName);
+        fee.getStudent().setRollNo(longRoll);
+        assertThat(text(service.generateFeeReceipt(fee))).contains(longName).contains(longRoll);
+
+        fee.getStudent().getUser().setName(longestName);
+        String wrapped = text(service.generateFeeReceipt(fee)).replaceAll("\\s+", " ");
+        assertThat(wrapped).contains(longestName).contains(longRoll).contains("2026-10");
+    }
+
+    @Test
+    void onlyPaidReceiptsCarryTheStamp() throws Exception {
+        assertThat(images(service.generateFeeReceipt(fee(FeeStatus.PAID)))).isPositive();
+        assertThat(images(service.generateFeeReceipt(fee(FeeStatus.UNPAID)))).isZero();
+    }
+
+    @Test
+    void valuesAreStampedOverAnUnchangedTemplate() throws Exception {
+        Fee fee = fee(FeeStatus.OVERDUE);
+        fee.setPaidOn(LocalDate.of(2026, 10, 12));
+        List<String> lines = text(service.generateFeeReceipt(fee)).lines().map(String::strip).toList();
+
+        // The template's text comes first, then the values in label order
+        int footer = lines.indexOf("Official receipt. No signature required.");
+        assertThat(lines.subList(0, footer + 1)).containsExactly(
+                "OFFICERS HOSTEL MANDRA", "FEE RECEIPT", "Student", "Fee",
+                "--------------------------------", "--------------------------------", "--------------------------------",
+                "Name:", "Roll:", "Month:", "Amount: Rs", "Due:", "Status:", "Paid on:",
+                "Official receipt. No signature required.");
+        assertThat(lines.subList(footer + 1, lines.size())).containsExactly(
+                "Ali Raza", "BSCS-042", "2026-10", "12500.0", "2026-10-10", "OVERDUE", "2026-10-12");
+    }
+
+    @Test
+    void aPaidFeeWithoutAPaymentDateSaysItWasNotRecorded() throws Exception {
+        Fee legacyPaid = fee(FeeStatus.PAID);
+        Fee paidOnDueDate = fee(FeeStatus.PAID);
+        paidOnDueDate.setPaidOn(legacyPaid.getDueDate());
+
+        assertThat(service.contentHash(legacyPaid)).isNotEqualTo(service.contentHash(paidOnDueDate));
+        assertThat(text(service.generateFeeReceipt(legacyPaid))).endsWith("Not recorded");
+        assertThat(text(service.generateFeeReceipt(paidOnDueDate))).endsWith("2026-10-10");
+        assertThat(text(service.generateFeeReceipt(fee(FeeStatus.UNPAID)))).endsWith("-");
+    }
+
+    // Receipts per second and bytes allocated per receipt, written to target/benchmarks/fee-receipts.md.
+    // Speed is only reported: a wall-clock ratio would fail on a busy build machine.
+    @Test
+    void stampingTheTemplateAllocatesLessThanRenderingFromScratch() throws Exception {
+        Fee paid = fee(FeeStatus.PAID);
+        Rate scratch = measure(FeeReceiptPdfServiceTest::renderFromScratch, paid);
+        Rate templated = measure(service::generateFeeReceipt, paid);
+
+        new BenchmarkReport("fee-receipts", "PAID fee receipts",
+                "Renderer", "Receipts/s", "Bytes allocated per receipt")
+                .row("Layout, fonts and stamp per call", scratch.perSecond(), scratch.bytesPerReceipt())
+                .row("Pre-rendered template", templated.perSecond(), templated.bytesPerReceipt())
+                .write();
+
+        assertThat(templated.bytesPerReceipt()).isLessThan(scratch.bytesPerReceipt());
+    }
+
+    private record Rate(double perSecond, long bytesPerReceipt) {
+    }
+
+    private static Rate measure(Function<Fee, byte[]> render, Fee fee) {
+        Runnable batch = () -> {
+            for (int i = 0; i < RECEIPTS; i++) {
+                render.apply(fee);
+            }
+        };
+        long nanos = BenchmarkReport.medianNanos(2, 5, batch);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        batch.run();
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        return new Rate(RECEIPTS / (nanos / 1e9), allocated / RECEIPTS);
+    }
+
+    // How receipts were built before the template: the whole layout, fonts and stamp image every time
+    private static byte[] renderFromScratch(Fee fee) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(80f * 2.83f, 150f * 2.83f), 20, 20, 15, 15);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            document.open();
+
+            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
+            Font sectionFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 9);
+            Font textFont = FontFactory.getFont(FontFactory.HELVETICA, 9);
+
+            Paragraph title = new Paragraph("OFFICERS HOSTEL MANDRA", titleFont);
+            title.setAlignment(Element.ALIGN_CENTER);
+            document.add(title);
+            Paragraph subtitle = new Paragraph("FEE RECEIPT", sectionFont);
+            subtitle.setAlignment(Element.ALIGN_CENTER);
+            document.add(subtitle);
+            document.add(new Paragraph("--------------------------------", textFont));
+            document.add(new Paragraph("Student", sectionFont));
+            document.add(new Paragraph("Name: " + fee.getStudent().getUser().getName(), textFont));
+            document.add(new Paragraph("Roll: " + fee.getStudent().getRollNo(), textFont));
+            document.add(new Paragraph("--------------------------------", textFont));
+            document.add(new Paragraph("Fee", sectionFont));
+            document.add(new Paragraph("Month: " + fee.getMonth(), textFont));
+            document.add(new Paragraph("Amount: Rs " + fee.getAmount(), textFont));
+            document.add(new Paragraph("Due: " + fee.getDueDate(), textFont));
+            document.add(new Paragraph("Status: " + fee.getStatus(), textFont));
+            document.add(new Paragraph("--------------------------------", textFont));
+            document.add(new Paragraph("Paid on: " + fee.getPaidOn(), textFont));
+
+            if (fee.getStatus() == FeeStatus.PAID) {
+                Image stamp = Image.getInstance(new ClassPathResource("static/images/stamp.png").getURL());
+                stamp.scaleToFit(100, 100);
+                stamp.setAbsolutePosition(40, 120);
+                PdfGState state = new PdfGState();
+                state.setFillOpacity(0.25f);
+                PdfContentByte canvas = writer.getDirectContent();
+                canvas.saveState();
+                canvas.setGState(state);
+                canvas.addImage(stamp);
+                canvas.restoreState();
+            }
+
+            Paragraph footer = new Paragraph("Official receipt. No signature required.", textFont);
+            footer.setAlignment(Element.ALIGN_CENTER);
+            document.add(footer);
+            document.close();
+        } catch (Exception e) {
+            throw new RuntimeException("PDF generation failed", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String text(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            return new PdfTextExtractor(reader).getTextFromPage(1);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static int images(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            PdfDictionary xObjects = reader.getPageN(1).getAsDict(PdfName.RESOURCES).getAsDict(PdfName.XOBJECT);
+            return xObjects == null ? 0 : xObjects.size();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Fee fee(FeeStatus status) {
+        User user = new User();
+        user.setName("Ali Raza");
+        Student student = new Student();
+        student.setUser(user);
+        student.setRollNo("BSCS-042");
+
+        Fee fee = new Fee();
+        fee.setId(1L);
+        fee.setStudent(student);
+        fee.setMonth("2026-10");
+        fee.setAmount(12_500);
+        fee.setDueDate(LocalDate.of(2026, 10, 10));
+        fee.setStatus(status);
+        return fee;
+    }
+}
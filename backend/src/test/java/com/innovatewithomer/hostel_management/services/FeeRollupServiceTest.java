@@ -0,0 +1,130 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeeRollupServiceTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+    private static final int STUDENTS = 20;
+
+    @Autowired
+    private FeeRollupService feeRollupService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        truncate("fees", "fee_rollups", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, STUDENTS);
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void deltasAddUpToWhatARebuildCounts() {
+        tx.executeWithoutResult(status -> {
+            insertFees("2026-09", 1, STUDENTS, FeeStatus.UNPAID);
+            feeRollupService.feesCreated(HOSTEL, "2026-09", FeeStatus.UNPAID, STUDENTS, 12_500);
+        });
+        tx.executeWithoutResult(status -> {
+            int paid = jdbc.update("UPDATE fees SET status = 'PAID' WHERE student_id <= 5");
+            feeRollupService.feesMoved(HOSTEL, "2026-09", FeeStatus.UNPAID, FeeStatus.PAID, paid, paid * 12_500.0);
+        });
+
+        List<String> maintained = rollups();
+        assertThat(maintained).isEqualTo(recount());
+
+        jdbc.update("UPDATE fee_rollups SET fee_count = 999");
+        assertThat(feeRollupService.rebuild()).isEqualTo(2);
+        assertThat(rollups()).isEqualTo(maintained);
+        assertThat(feeRollupService.totalAmount(HOSTEL, FeeStatus.PAID)).isEqualTo(5 * 12_500.0);
+    }
+
+    @Test
+    void rebuildWaitsForAFeeWriteThatAlreadyAppliedItsDelta() throws Exception {
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            insertFees("2026-10", 1, 1, FeeStatus.UNPAID);
+            feeRollupService.feesCreated(HOSTEL, "2026-10", FeeStatus.UNPAID, 1, 12_500);
+            applied.countDown();
+            await(release);
+        }));
+        assertThat(applied.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> rebuild = CompletableFuture.supplyAsync(feeRollupService::rebuild);
+        Thread.sleep(500);
+        assertThat(rebuild).isNotDone();
+
+        release.countDown();
+        write.get(10, TimeUnit.SECONDS);
+        rebuild.get(10, TimeUnit.SECONDS);
+
+        assertThat(rollups()).isEqualTo(recount()).containsExactly("1 2026-10 UNPAID 1 12500");
+    }
+
+    @Test
+    void aFeeWriteThatHasNotAppliedItsDeltaLandsOnTopOfTheRebuild() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            insertFees("2026-10", 1, 1, FeeStatus.UNPAID);
+            inserted.countDown();
+            await(rebuilt);
+            feeRollupService.feesCreated(HOSTEL, "2026-10", FeeStatus.UNPAID, 1, 12_500);
+        }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        feeRollupService.rebuild();
+        rebuilt.countDown();
+        write.get(10, TimeUnit.SECONDS);
+
+        assertThat(rollups()).isEqualTo(recount()).containsExactly("1 2026-10 UNPAID 1 12500");
+    }
+
+    private void insertFees(String month, long fromStudent, long toStudent, FeeStatus status) {
+        jdbc.update("""
+                INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+                SELECT nextval('fees_seq'), g, ?, ?, 12500, DATE '2026-10-10', ?
+                FROM generate_series(?::bigint, ?::bigint) g
+                """, HOSTEL, month, status.name(), fromStudent, toStudent);
+    }
+
+    private List<String> rollups() {
+        return jdbc.queryForList("""
+                SELECT hostel_id || ' ' || month || ' ' || status || ' ' || fee_count || ' ' || total_amount::float8
+                FROM fee_rollups WHERE fee_count <> 0 ORDER BY hostel_id, month, status
+                """, String.class);
+    }
+
+    private List<String> recount() {
+        return jdbc.queryForList("""
+                SELECT hostel_id || ' ' || month || ' ' || status || ' ' || count(*) || ' ' || sum(amount)::float8
+                FROM fees GROUP BY hostel_id, month, status ORDER BY hostel_id, month, status
+                """, String.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
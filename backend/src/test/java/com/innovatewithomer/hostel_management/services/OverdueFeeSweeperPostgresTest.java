@@ -0,0 +1,99 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The sweep against real row locks: a fee held by another transaction is waited for, not
+ * skipped, and fees due before the last swept day are still found.
+ */
+class OverdueFeeSweeperPostgresTest extends PostgresIntegrationTest {
+
+    private static final long HOSTEL = 1;
+
+    @Autowired
+    private OverdueFeeSweeper sweeper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        truncate("fees", "fee_rollups", "sweep_watermarks", "students", "users", "hostel");
+        insertHostel(HOSTEL);
+        insertStudents(HOSTEL, 1, 3);
+    }
+
+    @Test
+    void aFeeLockedDuringTheSweepIsStillMarkedOverdue() throws Exception {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        insertFee(1, yesterday);
+        insertFee(2, yesterday);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbc.queryForList("SELECT id FROM fees WHERE student_id = 1 FOR UPDATE");
+                    locked.countDown();
+                    await(release);
+                }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Long> sweep = CompletableFuture.supplyAsync(sweeper::sweep);
+        Thread.sleep(500);
+        assertThat(sweep).isNotDone();
+
+        release.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+
+        assertThat(sweep.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(statusOf(1)).isEqualTo("OVERDUE");
+        assertThat(statusOf(2)).isEqualTo("OVERDUE");
+    }
+
+    @Test
+    void aFeeBackfilledBeforeTheWatermarkIsSwept() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        insertFee(1, yesterday.minusDays(1));
+        assertThat(sweeper.sweep()).isEqualTo(1);
+
+        // Swept up to today; rewind a day and add a fee due long before that
+        jdbc.update("UPDATE sweep_watermarks SET swept_until = ?", yesterday);
+        insertFee(3, yesterday.minusMonths(2));
+
+        assertThat(sweeper.sweep()).isEqualTo(1);
+        assertThat(statusOf(3)).isEqualTo("OVERDUE");
+        assertThat(sweeper.sweep()).isZero();
+    }
+
+    private void insertFee(long studentId, LocalDate dueDate) {
+        jdbc.update("""
+                INSERT INTO fees (id, student_id, hostel_id, month, amount, due_date, status)
+                VALUES (nextval('fees_seq'), ?, ?, ?, 12500, ?, 'UNPAID')
+                """, studentId, HOSTEL, dueDate.toString().substring(0, 7), dueDate);
+    }
+
+    private String statusOf(long studentId) {
+        return jdbc.queryForObject("SELECT status FROM fees WHERE student_id = ?", String.class, studentId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
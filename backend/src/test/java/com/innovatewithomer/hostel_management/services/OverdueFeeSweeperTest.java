@@ -0,0 +1,72 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.entities.SweepWatermark;
+import com.innovatewithomer.hostel_management.repositories.FeeRepository;
+import com.innovatewithomer.hostel_management.repositories.SweepWatermarkRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OverdueFeeSweeperTest {
+
+    private final FeeRepository feeRepository = mock(FeeRepository.class);
+    private final SweepWatermarkRepository watermarkRepository = mock(SweepWatermarkRepository.class);
+    private final FeeRollupService feeRollupService = mock(FeeRollupService.class);
+
+    private final OverdueFeeSweeper sweeper = new OverdueFeeSweeper(
+            feeRepository, watermarkRepository, feeRollupService, mock(PlatformTransactionManager.class));
+
+    @Test
+    void sweepsEveryPastDueFeeInBatchesAndMovesRollups() {
+        LocalDate lastSwept = LocalDate.now().minusDays(3);
+        when(watermarkRepository.findById(OverdueFeeSweeper.WATERMARK))
+                .thenReturn(Optional.of(new SweepWatermark(OverdueFeeSweeper.WATERMARK, lastSwept, LocalDateTime.now())));
+
+        List<Object[]> fullBatch = new ArrayList<>();
+        fullBatch.add(new Object[]{1L, "2026-09", 3_000L, 30_000.0});
+        fullBatch.add(new Object[]{2L, "2026-09", 2_000L, 10_000.0});
+        List<Object[]> lastBatch = new ArrayList<>();
+        lastBatch.add(new Object[]{1L, "2026-10", 7L, 70.0});
+        when(feeRepository.markOverdue(eq(LocalDate.now()), anyInt()))
+                .thenReturn(fullBatch)
+                .thenReturn(lastBatch)
+                .thenReturn(List.of());
+
+        assertThat(sweeper.sweep()).isEqualTo(5_007);
+
+        verify(feeRepository, times(3)).markOverdue(eq(LocalDate.now()), anyInt());
+        verify(feeRollupService).feesMoved(1L, "2026-09", FeeStatus.UNPAID, FeeStatus.OVERDUE, 3_000, 30_000.0);
+        verify(feeRollupService).feesMoved(2L, "2026-09", FeeStatus.UNPAID, FeeStatus.OVERDUE, 2_000, 10_000.0);
+        verify(feeRollupService).feesMoved(1L, "2026-10", FeeStatus.UNPAID, FeeStatus.OVERDUE, 7, 70.0);
+
+        ArgumentCaptor<SweepWatermark> saved = ArgumentCaptor.forClass(SweepWatermark.class);
+        verify(watermarkRepository).save(saved.capture());
+        assertThat(saved.getValue().getSweptUntil()).isEqualTo(LocalDate.now());
+    }
+
+    @Test
+    void secondSweepOnTheSameDayDoesNothing() {
+        when(watermarkRepository.findById(OverdueFeeSweeper.WATERMARK))
+                .thenReturn(Optional.of(new SweepWatermark(OverdueFeeSweeper.WATERMARK, LocalDate.now(), LocalDateTime.now())));
+
+        assertThat(sweeper.sweep()).isZero();
+        verify(feeRepository, never()).markOverdue(any(), anyInt());
+    }
+}
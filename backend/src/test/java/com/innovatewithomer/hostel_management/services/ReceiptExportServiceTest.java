@@ -0,0 +1,90 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.innovatewithomer.hostel_management.repositories.FeeRepository;
+import com.innovatewithomer.hostel_management.services.exports.ReceiptExport;
+import com.innovatewithomer.hostel_management.services.exports.ReceiptExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReceiptExportServiceTest {
+
+    private static final long HOSTEL_ID = 3L;
+    private static final String MONTH = "2026-10";
+    private static final int FEES = 1_234;
+
+    @TempDir
+    Path exportDir;
+
+    @Test
+    void writesEveryReceiptIntoTheZipInFeeOrder() throws Exception {
+        List<Fee> fees = LongStream.rangeClosed(1, FEES).mapToObj(ReceiptExportServiceTest::fee).toList();
+
+        FeeRepository feeRepository = mock(FeeRepository.class);
+        when(feeRepository.countByHostel_IdAndMonth(HOSTEL_ID, MONTH)).thenReturn((long) FEES);
+        when(feeRepository.findReceiptBatch(eq(HOSTEL_ID), eq(MONTH), anyLong(), any())).thenAnswer(inv -> {
+            long afterId = inv.getArgument(2);
+            int size = inv.getArgument(3, Pageable.class).getPageSize();
+            return fees.stream().filter(f -> f.getId() > afterId).limit(size).toList();
+        });
+
+        ReceiptExportService service = new ReceiptExportService(
+                feeRepository, new FeeReceiptPdfService(), exportDir.toString(), 4);
+
+        ReceiptExport export = service.start(HOSTEL_ID, MONTH);
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (export.getStatus() != JobStatus.COMPLETED && export.getStatus() != JobStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(export.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(export.getWrittenReceipts()).isEqualTo(FEES);
+        assertThat(service.find(export.getId(), HOSTEL_ID + 1)).isEmpty();
+
+        try (ZipFile zip = new ZipFile(export.getFile().toFile())) {
+            List<String> names = new ArrayList<>();
+            zip.stream().map(ZipEntry::getName).forEach(names::add);
+            assertThat(names).hasSize(FEES);
+            assertThat(names.get(0)).isEqualTo("fee-receipt-1.pdf");
+            assertThat(names.get(FEES - 1)).isEqualTo("fee-receipt-" + FEES + ".pdf");
+        }
+    }
+
+    private static Fee fee(long id) {
+        User user = new User();
+        user.setName("Student " + id);
+        Student student = new Student();
+        student.setUser(user);
+        student.setRollNo("R-" + id);
+
+        Fee fee = new Fee();
+        fee.setId(id);
+        fee.setStudent(student);
+        fee.setMonth(MONTH);
+        fee.setAmount(9_000);
+        fee.setDueDate(LocalDate.of(2026, 10, 10));
+        fee.setStatus(id % 2 == 0 ? FeeStatus.PAID : FeeStatus.UNPAID);
+        return fee;
+    }
+}
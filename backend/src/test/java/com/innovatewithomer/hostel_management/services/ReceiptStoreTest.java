@@ -0,0 +1,136 @@
+package com.innovatewithomer.hostel_management.services;
+
+import com.innovatewithomer.hostel_management.entities.Fee;
+import com.innovatewithomer.hostel_management.entities.FeeStatus;
+import com.innovatewithomer.hostel_management.entities.Student;
+import com.innovatewithomer.hostel_management.entities.User;
+import com.innovatewithomer.hostel_management.services.ReceiptStore.StoredReceipt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void reusesTheStoredCopyUntilTheFeeChanges() throws Exception {
+        ReceiptStore store = new ReceiptStore(new FeeReceiptPdfService(), root.toString());
+        Fee fee = fee();
+
+        StoredReceipt first = store.get(fee);
+        long writtenAt = Files.getLastModifiedTime(first.file()).toMillis();
+        StoredReceipt again = store.get(fee);
+
+        assertThat(again.file()).isEqualTo(first.file());
+        assertThat(again.etag()).isEqualTo(first.etag());
+        assertThat(Files.getLastModifiedTime(again.file()).toMillis()).isEqualTo(writtenAt);
+
+        fee.setStatus(FeeStatus.PAID);
+        fee.setPaidOn(LocalDate.of(2026, 10, 5));
+        StoredReceipt paid = store.get(fee);
+
+        assertThat(paid.etag()).isNotEqualTo(first.etag());
+        assertThat(first.file()).doesNotExist();
+
+        store.invalidate(fee.getId());
+        assertThat(paid.file()).doesNotExist();
+    }
+
+    @Test
+    void answersNotModifiedForTheCurrentEtag() throws Exception {
+        ReceiptStore store = new ReceiptStore(new FeeReceiptPdfService(), root.toString());
+        Fee fee = fee();
+
+        MockHttpServletResponse full = new MockHttpServletResponse();
+        store.serve(fee, new MockHttpServletRequest("GET", "/receipt"), full);
+
+        assertThat(full.getStatus()).isEqualTo(200);
+        assertThat(full.getContentAsByteArray()).isEqualTo(Files.readAllBytes(store.get(fee).file()));
+        String etag = full.getHeader("ETag");
+        assertThat(etag).isNotBlank();
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/receipt");
+        conditional.addHeader("If-None-Match", etag);
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        store.serve(fee, conditional, notModified);
+
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void aReceiptInvalidatedWhileBeingServedIsRenderedAgain() throws Exception {
+        ReceiptStore store = new ReceiptStore(new FeeReceiptPdfService(), root.toString()) {
+            private boolean raced;
+
+            @Override
+            public StoredReceipt get(Fee fee) throws IOException {
+                StoredReceipt receipt = super.get(fee);
+                if (!raced) {
+                    raced = true;
+                    invalidate(fee.getId());
+                }
+                return receipt;
+            }
+        };
+        Fee fee = fee();
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        store.serve(fee, new MockHttpServletRequest("GET", "/receipt"), response);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Files.readAllBytes(store.get(fee).file()));
+        assertThat(response.getContentLengthLong()).isEqualTo(response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void storedCopiesStayUntilTheChangeCommits() throws Exception {
+        ReceiptStore store = new ReceiptStore(new FeeReceiptPdfService(), root.toString());
+        StoredReceipt stored = store.get(fee());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.invalidate(fee().getId());
+            assertThat(stored.file()).exists();
+
+            List<TransactionSynchronization> pending = TransactionSynchronizationManager.getSynchronizations();
+            pending.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThat(stored.file()).exists();
+
+            pending.forEach(TransactionSynchronization::afterCommit);
+            assertThat(stored.file()).doesNotExist();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Fee fee() {
+        User user = new User();
+        user.setName("Sana Khan");
+        Student student = new Student();
+        student.setUser(user);
+        student.setRollNo("EE-17");
+
+        Fee fee = new Fee();
+        fee.setId(4_321L);
+        fee.setStudent(student);
+        fee.setMonth("2026-10");
+        fee.setAmount(8_000);
+        fee.setDueDate(LocalDate.of(2026, 10, 10));
+        fee.setStatus(FeeStatus.UNPAID);
+        return fee;
+    }
+}
@@ -0,0 +1,160 @@
+package com.innovatewithomer.hostel_management.services.jobs;
+
+import com.innovatewithomer.hostel_management.PostgresIntegrationTest;
+import com.innovatewithomer.hostel_management.entities.JobRun;
+import com.innovatewithomer.hostel_management.entities.JobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobRunnerTest extends PostgresIntegrationTest {
+
+    private static final String JOB = "test-job";
+    private static final List<ChunkPlan> PLAN = List.of(
+            new ChunkPlan("a", 1, 10),
+            new ChunkPlan("b", 11, 20),
+            new ChunkPlan("c", 21, 30)
+    );
+
+    @Autowired
+    private JobRunner jobRunner;
+
+    private final AtomicInteger plannerCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        truncate("job_chunks", "job_runs", "hostel");
+    }
+
+    @Test
+    void aFailingChunkOnlyFailsItself() {
+        JobRun run = jobRunner.run(JOB, "isolation", this::plan, chunk -> {
+            // Each chunk writes a row in its own transaction; b's must roll back with it
+            insertHostel(chunk.getRangeStart());
+            if (chunk.getPartitionKey().equals("b")) {
+                throw new IllegalStateException("b is broken");
+            }
+            return 10;
+        });
+
+        assertThat(run.getStatus()).isEqualTo(JobStatus.FAILED);
+        assertThat(chunkStatuses(run)).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "a", "COMPLETED", "b", "FAILED", "c", "COMPLETED"));
+        assertThat(jdbc.queryForObject("SELECT error FROM job_chunks WHERE job_run_id = ? AND partition_key = 'b'",
+                String.class, run.getId())).isEqualTo("b is broken");
+        assertThat(jdbc.queryForList("SELECT id FROM hostel", Long.class)).containsExactlyInAnyOrder(1L, 21L);
+    }
+
+    @Test
+    void recordsAFailureWhoseMessageIsLongerThanTheErrorColumn() {
+        String message = "x".repeat(2500);
+        JobRun run = jobRunner.run(JOB, "long-error", this::plan, chunk -> {
+            if (chunk.getPartitionKey().equals("b")) {
+                throw new IllegalStateException(message);
+            }
+            return 10;
+        });
+
+        assertThat(chunkStatuses(run)).containsEntry("b", "FAILED");
+        assertThat(jdbc.queryForObject("SELECT error FROM job_chunks WHERE job_run_id = ? AND partition_key = 'b'",
+                String.class, run.getId())).isEqualTo(message.substring(0, 2000));
+    }
+
+    @Test
+    void theNextTriggerOfTheSameRunKeyRetriesOnlyFailedChunks() {
+        jobRunner.run(JOB, "retry", this::plan, chunk -> {
+            if (!chunk.getPartitionKey().equals("a")) {
+                throw new IllegalStateException("down");
+            }
+            return 10;
+        });
+
+        Set<String> retried = ConcurrentHashMap.newKeySet();
+        JobRun run = jobRunner.run(JOB, "retry", this::plan, chunk -> {
+            retried.add(chunk.getPartitionKey());
+            return 10;
+        });
+
+        assertThat(retried).containsExactlyInAnyOrder("b", "c");
+        assertThat(plannerCalls).hasValue(1);
+        assertThat(run.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(jdbc.queryForObject("SELECT attempts FROM job_chunks WHERE job_run_id = ? AND partition_key = 'b'",
+                Integer.class, run.getId())).isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT sum(processed) FROM job_chunks WHERE job_run_id = ?",
+                Long.class, run.getId())).isEqualTo(30);
+
+        // A different run key is a new run and does not see the old chunks
+        JobRun other = jobRunner.run(JOB, "other", List::of, chunk -> 0);
+        assertThat(other.getTotalChunks()).isZero();
+    }
+
+    @Test
+    void pausingLeavesTheRemainingChunksPendingWithoutFailingThem() {
+        AtomicInteger checks = new AtomicInteger();
+        JobRun paused = jobRunner.run(JOB, "pause", this::plan, chunk -> 10, () -> checks.incrementAndGet() > 1);
+
+        assertThat(paused.getStatus()).isEqualTo(JobStatus.PENDING);
+        assertThat(paused.getFinishedAt()).isNull();
+        assertThat(chunkStatuses(paused).values()).containsExactlyInAnyOrder("COMPLETED", "PENDING", "PENDING");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM job_chunks WHERE job_run_id = ? AND error IS NOT NULL",
+                Long.class, paused.getId())).isZero();
+
+        Set<String> resumed = ConcurrentHashMap.newKeySet();
+        JobRun run = jobRunner.run(JOB, "pause", this::plan, chunk -> {
+            resumed.add(chunk.getPartitionKey());
+            return 10;
+        });
+
+        assertThat(resumed).hasSize(2);
+        assertThat(run.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(plannerCalls).hasValue(1);
+    }
+
+    @Test
+    void resumesFromTheLastCheckpointAfterACrash() {
+        JobRun first = jobRunner.run(JOB, "crash", this::plan, chunk -> 10);
+        // What a crash mid-run leaves behind: the run still RUNNING, one chunk checkpointed
+        jdbc.update("UPDATE job_runs SET status = 'RUNNING', finished_at = NULL WHERE id = ?", first.getId());
+        jdbc.update("UPDATE job_chunks SET status = 'PENDING' WHERE job_run_id = ? AND partition_key <> 'a'",
+                first.getId());
+
+        Set<String> resumed = ConcurrentHashMap.newKeySet();
+        JobRun run = jobRunner.run(JOB, "crash", this::plan, chunk -> {
+            resumed.add(chunk.getPartitionKey());
+            return 10;
+        });
+
+        assertThat(resumed).containsExactlyInAnyOrder("b", "c");
+        assertThat(run.getId()).isEqualTo(first.getId());
+        assertThat(run.getStatus()).isEqualTo(JobStatus.COMPLETED);
+
+        // Once COMPLETED, triggering the key again does nothing
+        JobRun again = jobRunner.run(JOB, "crash", this::plan, chunk -> {
+            throw new AssertionError("completed runs are not processed again");
+        });
+        assertThat(again.getStatus()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(plannerCalls).hasValue(1);
+    }
+
+    private List<ChunkPlan> plan() {
+        plannerCalls.incrementAndGet();
+        return PLAN;
+    }
+
+    private Map<String, String> chunkStatuses(JobRun run) {
+        Map<String, String> statuses = new ConcurrentHashMap<>();
+        jdbc.query("SELECT partition_key, status FROM job_chunks WHERE job_run_id = ?",
+                rs -> {
+                    statuses.put(rs.getString(1), rs.getString(2));
+                }, run.getId());
+        return statuses;
+    }
+}
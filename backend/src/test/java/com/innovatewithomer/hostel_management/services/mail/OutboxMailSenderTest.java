@@ -0,0 +1,180 @@
+package com.innovatewithomer.hostel_management.services.mail;
+
+import com.innovatewithomer.hostel_management.entities.OutboxEmail;
+import com.innovatewithomer.hostel_management.entities.OutboxStatus;
+import com.innovatewithomer.hostel_management.repositories.OutboxEmailRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxMailSenderTest {
+
+    private final OutboxEmailRepository repository = mock(OutboxEmailRepository.class);
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void sendsABatchOverOneConnectionAndRetriesRefusedRecipients() throws Exception {
+        try (SmtpStub smtp = new SmtpStub()) {
+            List<OutboxEmail> batch = List.of(email(1, "a@example.com"), email(2, "bounce@example.com"), email(3, "c@example.com"));
+            when(repository.claimDue(any(), anyInt())).thenReturn(batch);
+
+            sender(smtp.port(), breaker()).drain();
+
+            assertThat(smtp.connections()).isEqualTo(1);
+            assertThat(smtp.recipients()).containsExactly("a@example.com", "c@example.com");
+            assertThat(batch.get(0).getStatus()).isEqualTo(OutboxStatus.SENT);
+            assertThat(batch.get(2).getStatus()).isEqualTo(OutboxStatus.SENT);
+
+            OutboxEmail bounced = batch.get(1);
+            assertThat(bounced.getStatus()).isEqualTo(OutboxStatus.PENDING);
+            assertThat(bounced.getAttempts()).isEqualTo(1);
+            assertThat(bounced.getNextAttemptAt()).isAfter(LocalDateTime.now().plusSeconds(29));
+        }
+    }
+
+    @Test
+    void opensTheBreakerWhileTheServerIsDown() throws Exception {
+        SmtpStub smtp = new SmtpStub();
+        int port = smtp.port();
+        smtp.close();
+
+        List<OutboxEmail> batch = List.of(email(1, "a@example.com"));
+        when(repository.claimDue(any(), anyInt())).thenReturn(batch);
+        CircuitBreaker breaker = breaker();
+        OutboxMailSender sender = sender(port, breaker);
+
+        for (int i = 0; i < 5; i++) {
+            sender.drain();
+        }
+
+        verify(repository, times(2)).claimDue(any(), anyInt());
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(batch.get(0).getAttempts()).isEqualTo(2);
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+        breaker.recordFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void aSingleMessageIsTheTrialOnceTheBreakerHalfOpens() throws Exception {
+        try (SmtpStub smtp = new SmtpStub()) {
+            List<OutboxEmail> due = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                due.add(email(i, "student" + i + "@example.com"));
+            }
+            when(repository.claimDue(any(), anyInt())).thenAnswer(invocation -> {
+                List<OutboxEmail> batch = new ArrayList<>(due.subList(0, Math.min(invocation.<Integer>getArgument(1), due.size())));
+                due.removeAll(batch);
+                return batch;
+            });
+            CircuitBreaker breaker = breaker();
+            breaker.recordFailure();
+            breaker.recordFailure();
+            now.addAndGet(Duration.ofMinutes(1).toNanos());
+
+            sender(smtp.port(), breaker).drain();
+
+            verify(repository).claimDue(any(), eq(1));
+            verify(repository).claimDue(any(), eq(50));
+            assertThat(smtp.connections()).isEqualTo(2);
+            assertThat(smtp.recipients()).hasSize(5);
+            assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+    }
+
+    @Test
+    void marksEmailsFailedAfterTheLastAttempt() throws Exception {
+        try (SmtpStub smtp = new SmtpStub()) {
+            OutboxEmail bounced = email(1, "bounce@example.com");
+            bounced.setAttempts(9);
+            when(repository.claimDue(any(), anyInt())).thenReturn(new ArrayList<>(List.of(bounced)));
+
+            sender(smtp.port(), breaker()).drain();
+
+            assertThat(bounced.getStatus()).isEqualTo(OutboxStatus.FAILED);
+            assertThat(bounced.getLastError()).isNotBlank();
+        }
+    }
+
+    @Test
+    void staysWithinThePerMinuteQuota() throws Exception {
+        try (SmtpStub smtp = new SmtpStub()) {
+            when(repository.claimDue(any(), anyInt())).thenAnswer(invocation -> {
+                int limit = invocation.getArgument(1);
+                List<OutboxEmail> batch = new ArrayList<>();
+                for (int i = 0; i < limit; i++) {
+                    batch.add(email(i, "student" + i + "@example.com"));
+                }
+                return batch;
+            });
+            OutboxMailSender sender = sender(smtp.port(), breaker(), new SendQuota(120, now::get));
+
+            sender.drain();
+            sender.drain();
+            assertThat(smtp.recipients()).hasSize(120);
+
+            now.addAndGet(Duration.ofSeconds(10).toNanos());
+            sender.drain();
+            assertThat(smtp.recipients()).hasSize(140);
+            verify(repository, times(2)).claimDue(any(), eq(20));
+        }
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        OutboxMailSender sender = sender(25, breaker());
+
+        assertThat(sender.backoff(1)).isBetween(Duration.ofSeconds(30), Duration.ofSeconds(36));
+        assertThat(sender.backoff(3)).isBetween(Duration.ofSeconds(120), Duration.ofSeconds(144));
+        assertThat(sender.backoff(40)).isBetween(Duration.ofHours(1), Duration.ofMinutes(72));
+    }
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker(2, Duration.ofMinutes(1), now::get);
+    }
+
+    private OutboxMailSender sender(int port, CircuitBreaker breaker) {
+        return sender(port, breaker, new SendQuota(1_000, now::get));
+    }
+
+    private OutboxMailSender sender(int port, CircuitBreaker breaker, SendQuota quota) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "hostel@example.com");
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+
+        return new OutboxMailSender(repository, mailSender, mock(PlatformTransactionManager.class),
+                50, 10, Duration.ofSeconds(30), Duration.ofHours(1), breaker, quota);
+    }
+
+    private static OutboxEmail email(long id, String recipient) {
+        OutboxEmail email = new OutboxEmail();
+        email.setId(id);
+        email.setRecipient(recipient);
+        email.setSubject("Verify your email");
+        email.setBody("Click the link below to verify your email");
+        email.setStatus(OutboxStatus.PENDING);
+        email.setNextAttemptAt(LocalDateTime.now());
+        return email;
+    }
+}
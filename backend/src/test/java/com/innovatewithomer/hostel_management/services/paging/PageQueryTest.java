@@ -0,0 +1,43 @@
+package com.innovatewithomer.hostel_management.services.paging;
+
+import com.innovatewithomer.hostel_management.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageQueryTest {
+
+    @Test
+    void startsAtTheBeginningWithTheDefaultLimit() {
+        PageQuery query = PageQuery.of(null, null);
+
+        assertThat(query.getAfterId()).isZero();
+        assertThat(query.getLimit()).isEqualTo(PageQuery.DEFAULT_LIMIT);
+        assertThat(query.fetchLimit().max()).isEqualTo(PageQuery.DEFAULT_LIMIT + 1);
+    }
+
+    @Test
+    void capsTheLimitAndRejectsNonsense() {
+        assertThat(PageQuery.of(null, 10_000).getLimit()).isEqualTo(PageQuery.MAX_LIMIT);
+        assertThatThrownBy(() -> PageQuery.of(null, 0)).hasMessage("Limit must be at least 1");
+        assertThatThrownBy(() -> PageQuery.of("not-a-cursor", null)).hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> PageQuery.of(PageQuery.encode(1).substring(1), null)).hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void handsOutACursorOnlyWhenAnotherPageFollows() {
+        PageQuery query = PageQuery.of(null, 3);
+
+        CursorPage<Long> full = query.page(List.of(4L, 7L, 9L, 12L), Function.identity());
+        assertThat(full.getItems()).containsExactly(4L, 7L, 9L);
+        assertThat(PageQuery.of(full.getNextCursor(), 3).getAfterId()).isEqualTo(9);
+
+        CursorPage<Long> last = query.page(List.of(4L, 7L, 9L), Function.identity());
+        assertThat(last.getItems()).containsExactly(4L, 7L, 9L);
+        assertThat(last.getNextCursor()).isNull();
+    }
+}
@@ -0,0 +1,28 @@
+package com.innovatewithomer.hostel_management.services.reminders;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReminderTemplateTest {
+
+    @Test
+    void bindsHostelOnceAndFillsStudentValues() {
+        ReminderTemplate template = ReminderTemplate
+                .compile("Dear ${name}, your ${month} fee at ${hostel} is Rs ${amount}. ${hostel} office")
+                .with("hostel", "Officers Hostel");
+
+        assertThat(template.render(Map.of("name", "Ali", "month", "2026-10", "amount", "12500.0")))
+                .isEqualTo("Dear Ali, your 2026-10 fee at Officers Hostel is Rs 12500.0. Officers Hostel office");
+        assertThat(template.render(Map.of("name", "Sara")))
+                .isEqualTo("Dear Sara, your  fee at Officers Hostel is Rs . Officers Hostel office");
+    }
+
+    @Test
+    void leavesTextWithoutPlaceholdersAlone() {
+        assertThat(ReminderTemplate.compile("Pay on time {soon}").with("hostel", "x").render(Map.of()))
+                .isEqualTo("Pay on time {soon}");
+    }
+}
@@ -15,4 +15,71 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Access tokens are short-lived: on a 401, swap the refresh token for a new pair once and retry.
+// Concurrent 401s share the same refresh call, since each refresh token can only be used once.
+let refreshing = null;
+
+const refreshTokens = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem("refreshToken");
+    refreshing = axios
+      .post(`${api.defaults.baseURL}/api/auth/refresh`, { refreshToken })
+      .then((res) => {
+        localStorage.setItem("token", res.data.token);
+        localStorage.setItem("refreshToken", res.data.refreshToken);
+        return res.data.token;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const original = error.config;
+    const canRefresh =
+      error.response?.status === 401 &&
+      original &&
+      !original._retried &&
+      !original.url?.startsWith("/api/auth/") &&
+      localStorage.getItem("refreshToken");
+
+    if (!canRefresh) {
+      return Promise.reject(error);
+    }
+
+    original._retried = true;
+    try {
+      const token = await refreshTokens();
+      original.headers.Authorization = `Bearer ${token}`;
+      return api(original);
+    } catch (refreshError) {
+      localStorage.removeItem("token");
+      localStorage.removeItem("refreshToken");
+      localStorage.removeItem("role");
+      window.location.assign("/login");
+      return Promise.reject(refreshError);
+    }
+  }
+);
+
+// List endpoints return one page at a time ({ items, nextCursor }); follow the cursor to the end
+// and resolve like api.get, with every item in data.
+export const getAllPages = async (url, config = {}) => {
+  const items = [];
+  let cursor = null;
+  do {
+    const res = await api.get(url, {
+      ...config,
+      params: { ...config.params, cursor, limit: 500 },
+    });
+    items.push(...res.data.items);
+    cursor = res.data.nextCursor;
+  } while (cursor);
+  return { data: items };
+};
+
 export default api;
@@ -1,4 +1,5 @@
 import { createContext, useContext, useState } from "react";
+import api from "../api/axios";
 
 const AuthContext = createContext();
 
@@ -6,15 +7,25 @@ export const AuthProvider = ({ children }) => {
   const [token, setToken] = useState(localStorage.getItem("token"));
   const [role, setRole] = useState(localStorage.getItem("role"));
 
-  const login = (jwt, userRole) => {
+  const login = (jwt, userRole, refreshToken) => {
     localStorage.setItem("token", jwt);
     localStorage.setItem("role", userRole);
+    if (refreshToken) {
+      localStorage.setItem("refreshToken", refreshToken);
+    }
     setToken(jwt);
     setRole(userRole);
   };
 
   const logout = () => {
+    const refreshToken = localStorage.getItem("refreshToken");
+    // Revoke server-side too; the local session ends either way
+    api
+      .post("/api/auth/logout", { refreshToken }, { headers: { Authorization: `Bearer ${token}` } })
+      .catch(() => {});
+
     localStorage.removeItem("token");
+    localStorage.removeItem("refreshToken");
     localStorage.removeItem("role");
     setToken(null);
     setRole(null);
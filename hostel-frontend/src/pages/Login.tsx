@@ -31,7 +31,7 @@ export default function Login() {
       });
 
       // store token via context
-      login(res.data.token, res.data.role);
+      login(res.data.token, res.data.role, res.data.refreshToken);
 
       // redirect by role
       if (res.data.role === "ADMIN") {
@@ -1,6 +1,6 @@
 // src/pages/admin/AdminDashboard.jsx
 import { useEffect, useState, memo } from "react";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import { 
   BuildingOfficeIcon, 
   UsersIcon, 
@@ -75,10 +75,10 @@ export default function AdminDashboard() {
 
     try {
       const [roomsRes, studentsRes, allocationsRes, feeCollectionRes, unpaidFeesRes] = await Promise.all([
-        api.get("/api/admin/rooms", {
+        getAllPages("/api/admin/rooms", {
           params: {hostelId}
         }),
-        api.get("/api/admin/students", {
+        getAllPages("/api/admin/students", {
           params: {hostelId}
         }),
         api.get("/api/admin/allocations", {
@@ -35,7 +35,7 @@ export default function AdminLogin() {
         throw new Error("You are not authorized to access admin panel");
       }
 
-      login(res.data.token, res.data.role);
+      login(res.data.token, res.data.role, res.data.refreshToken);
       navigate("/admin/dashboard");
     } catch (err) {
       setError(
@@ -1,5 +1,5 @@
 import { useEffect, useState } from "react";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import {
   BuildingOfficeIcon,
   UserIcon,
@@ -74,10 +74,10 @@ export default function Allocations() {
     setLoading(true);
     try {
       const [roomsRes, studentsRes] = await Promise.all([
-        api.get("/api/admin/rooms", {
+        getAllPages("/api/admin/rooms", {
           params: {hostelId}
         }),
-        api.get("/api/admin/students", {
+        getAllPages("/api/admin/students", {
           params: {hostelId}
         }),
       ]);
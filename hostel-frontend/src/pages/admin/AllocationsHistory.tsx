@@ -1,5 +1,5 @@
 import { useEffect, useState } from "react";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import {
   ClockIcon,
   BuildingOfficeIcon,
@@ -42,7 +42,7 @@ export default function AllocationHistory() {
     setLoading(true);
     const hostelId = localStorage.getItem("selectedHostelId")
     try {
-      const res = await api.get("/api/admin/allocations/history", {
+      const res = await getAllPages("/api/admin/allocations/history", {
         params: {hostelId}
       });
       setHistory(res.data);
@@ -1,5 +1,5 @@
 import { useEffect, useState } from "react";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import {
   BanknotesIcon,
   MagnifyingGlassIcon,
@@ -31,8 +31,8 @@ export default function FeesPage() {
   const fetchData = async () => {
     try {
       const [feesRes, studentsRes] = await Promise.all([
-        api.get("/api/admin/fee", { params: { hostelId } }),
-        api.get("/api/admin/students", { params: { hostelId } }),
+        getAllPages("/api/admin/fee", { params: { hostelId } }),
+        getAllPages("/api/admin/students", { params: { hostelId } }),
       ]);
 
       setFees(feesRes.data);
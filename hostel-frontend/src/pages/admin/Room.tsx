@@ -1,6 +1,6 @@
 import { useEffect, useState, memo } from "react";
 import { Link } from "react-router-dom";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import {
   PlusIcon,
   PencilIcon,
@@ -36,19 +36,21 @@ export default function RoomsPage() {
     setError(null);
     const hostelId = localStorage.getItem("selectedHostelId");
     try {
-      const res = await api.get("/api/admin/rooms", {
-        params: {hostelId}
+      // Rooms and the occupancy of every room in two calls, not one status call per room
+      const [res, occupancy] = await Promise.all([
+        getAllPages("/api/admin/rooms", { params: {hostelId} }),
+        api.get("/api/admin/rooms/occupancy", { params: {hostelId} }),
+      ]);
+
+      const statusByRoom = {};
+      occupancy.data.rooms.forEach((status) => {
+        statusByRoom[status.roomId] = status;
       });
 
-      // Fetch status for each room
-      const roomsWithStatus = await Promise.all(
-        res.data.map(async (room) => {
-          const status = await api.get(`/api/admin/rooms/${room.id}/status`,
-            {params: {hostelId}}
-          );
-          return { ...room, status: status.data };
-        })
-      );
+      const roomsWithStatus = res.data.map((room) => ({
+        ...room,
+        status: statusByRoom[room.id],
+      }));
 
       setRooms(roomsWithStatus);
       setCurrentPage(1); // Reset to first page on refresh
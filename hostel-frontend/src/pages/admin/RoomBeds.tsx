@@ -1,6 +1,6 @@
 import { useEffect, useState, memo } from "react";
 import { useParams, Link } from "react-router-dom";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import {
   BellSnoozeIcon,
   UserIcon,
@@ -75,7 +75,7 @@ export default function RoomBeds() {
       const [roomRes, allocRes, studentsRes] = await Promise.all([
         api.get(`/api/admin/rooms/${roomId}`),
         api.get(`/api/admin/allocations/room/${roomId}`),
-        api.get("/api/admin/students", {
+        getAllPages("/api/admin/students", {
           params: {hostelId}
         }),
       ]);
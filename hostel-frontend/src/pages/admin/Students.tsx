@@ -1,5 +1,5 @@
 import { useEffect, useState, memo } from "react";
-import api from "../../api/axios";
+import api, { getAllPages } from "../../api/axios";
 import {
   UserGroupIcon,
   UserIcon,
@@ -85,10 +85,10 @@ export default function StudentsPage() {
     const hostelId = localStorage.getItem("selectedHostelId")
     try {
       const [studentsRes, usersRes, activeAllocationsRes] = await Promise.all([
-        api.get("/api/admin/students",
+        getAllPages("/api/admin/students",
           {params: {hostelId}}
         ),
-        api.get("/api/admin/users"),
+        getAllPages("/api/admin/users"),
         api.get("/api/admin/allocations/count",
           {params: {hostelId}}
         )